@@ -1,12 +1,32 @@
 package ru.practicum.shareit;
 
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.context.ApplicationListener;
 
 @SpringBootApplication
 public class ShareItGateway {
 
+    private static final String REACTIVE_PROFILE = "reactive";
+
     public static void main(String[] args) {
-        SpringApplication.run(ShareItGateway.class, args);
+        application().run(args);
+    }
+
+    /**
+     * Приложение шлюза. В профиле {@code reactive} контекст создаётся как WebFlux: Spring MVC и WebFlux
+     * оба в classpath, и без явного типа Spring Boot выбирает сервлетный стек. Тип задаётся после
+     * подготовки окружения, когда активные профили уже известны, но контекст ещё не создан.
+     */
+    static SpringApplication application() {
+        SpringApplication application = new SpringApplication(ShareItGateway.class);
+        application.addListeners((ApplicationListener<ApplicationEnvironmentPreparedEvent>) event -> {
+            if (event.getEnvironment().matchesProfiles(REACTIVE_PROFILE)) {
+                event.getSpringApplication().setWebApplicationType(WebApplicationType.REACTIVE);
+            }
+        });
+        return application;
     }
 }
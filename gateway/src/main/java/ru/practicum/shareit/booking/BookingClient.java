@@ -1,50 +1,100 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.booking.dto.BookingBulkApproveDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.item.ItemClient;
 
+import java.io.IOException;
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
+@Profile("!reactive")
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         ClientHttpRequestFactory serverRequestFactory,
+                         @Value("${shareit-server.passthrough:true}") boolean passthrough,
+                         ResponseCache responseCache) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                        .build());
+                        .requestFactory(() -> serverRequestFactory)
+                        .build(),
+                passthrough,
+                responseCache);
     }
 
     public ResponseEntity<Object> createBooking(long userId, BookingCreateDto bookingDto) {
-        return post("", userId, bookingDto);
+        return invalidating(post("", userId, bookingDto), ItemClient.resource(bookingDto.getItemId()));
     }
 
+    // Решение меняет последнее и следующее бронирование в ответах владельцу на GET /items/{id}
     public ResponseEntity<Object> approveBooking(long userId, long bookingId, boolean approved) {
         Map<String, Object> parameters = Map.of("approved", approved);
-        return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
+        return invalidatingForUser(patch("/" + bookingId + "?approved={approved}", userId, parameters, null),
+                ItemClient.ITEM_RESOURCE_PREFIX, userId);
+    }
+
+    public ResponseEntity<Object> approveBookings(long userId, BookingBulkApproveDto bulkDto) {
+        return invalidatingForUser(patch("/bulk", userId, bulkDto), ItemClient.ITEM_RESOURCE_PREFIX, userId);
     }
 
     public ResponseEntity<Object> getBookingById(long userId, long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getBookingsByBooker(long userId, String state) {
-        Map<String, Object> parameters = Map.of("state", state);
-        return get("?state={state}", userId, parameters);
+    public ResponseEntity<Object> getBookingsByBooker(long userId, String state, int from, int size, String cursor) {
+        return get(pagePath("", cursor), userId, pageParameters(state, from, size, cursor));
+    }
+
+    public ResponseEntity<Object> getBookingsByOwner(long userId, String state, int from, int size, String cursor) {
+        return get(pagePath("/owner", cursor), userId, pageParameters(state, from, size, cursor));
+    }
+
+    public ResponseEntity<Object> getBookingCountsByBooker(long userId) {
+        return get("/counts", userId);
+    }
+
+    public ResponseEntity<Object> getBookingCountsByOwner(long userId) {
+        return get("/owner/counts", userId);
+    }
+
+    public void exportBookingsByBooker(long userId, HttpServletResponse response) throws IOException {
+        stream("/export", userId, MediaType.APPLICATION_NDJSON, response);
+    }
+
+    public void exportBookingsByOwner(long userId, HttpServletResponse response) throws IOException {
+        stream("/owner/export", userId, MediaType.APPLICATION_NDJSON, response);
+    }
+
+    static String pagePath(String path, String cursor) {
+        String query = "?state={state}&from={from}&size={size}";
+        return path + (cursor != null ? query + "&cursor={cursor}" : query);
     }
 
-    public ResponseEntity<Object> getBookingsByOwner(long userId, String state) {
-        Map<String, Object> parameters = Map.of("state", state);
-        return get("/owner?state={state}", userId, parameters);
+    static Map<String, Object> pageParameters(String state, int from, int size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state);
+        parameters.put("from", from);
+        parameters.put("size", size);
+        if (cursor != null) {
+            parameters.put("cursor", cursor);
+        }
+        return parameters;
     }
 }
@@ -1,15 +1,25 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingBulkApproveDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 
+import java.io.IOException;
+
 @Slf4j
+@Validated
 @RestController
+@Profile("!reactive")
 @RequestMapping(path = "/bookings")
 @RequiredArgsConstructor
 public class BookingController {
@@ -34,6 +44,13 @@ public class BookingController {
         return bookingClient.approveBooking(userId, bookingId, approved);
     }
 
+    @PatchMapping("/bulk")
+    public ResponseEntity<Object> approveAll(@RequestHeader(USER_ID_HEADER) Long userId,
+                                             @Valid @RequestBody BookingBulkApproveDto bulkDto) {
+        log.info("Gateway: PATCH /bookings/bulk - User {} deciding {} bookings", userId, bulkDto.getDecisions().size());
+        return bookingClient.approveBookings(userId, bulkDto);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> getById(@RequestHeader(USER_ID_HEADER) Long userId,
                                           @PathVariable Long bookingId) {
@@ -43,15 +60,49 @@ public class BookingController {
 
     @GetMapping
     public ResponseEntity<Object> getByBooker(@RequestHeader(USER_ID_HEADER) Long userId,
-                                              @RequestParam(defaultValue = "ALL") String state) {
-        log.info("Gateway: GET /bookings?state={} - Getting bookings for booker: {}", state, userId);
-        return bookingClient.getBookingsByBooker(userId, state);
+                                              @RequestParam(defaultValue = "ALL") String state,
+                                              @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                              @Positive @RequestParam(defaultValue = "10") Integer size,
+                                              @RequestParam(required = false) String cursor) {
+        log.info("Gateway: GET /bookings?state={}&from={}&size={} - Getting bookings for booker: {}",
+                state, from, size, userId);
+        return bookingClient.getBookingsByBooker(userId, state, from, size, cursor);
     }
 
     @GetMapping("/owner")
     public ResponseEntity<Object> getByOwner(@RequestHeader(USER_ID_HEADER) Long userId,
-                                             @RequestParam(defaultValue = "ALL") String state) {
-        log.info("Gateway: GET /bookings/owner?state={} - Getting bookings for owner: {}", state, userId);
-        return bookingClient.getBookingsByOwner(userId, state);
+                                             @RequestParam(defaultValue = "ALL") String state,
+                                             @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                             @Positive @RequestParam(defaultValue = "10") Integer size,
+                                             @RequestParam(required = false) String cursor) {
+        log.info("Gateway: GET /bookings/owner?state={}&from={}&size={} - Getting bookings for owner: {}",
+                state, from, size, userId);
+        return bookingClient.getBookingsByOwner(userId, state, from, size, cursor);
+    }
+
+    @GetMapping("/counts")
+    public ResponseEntity<Object> getCountsByBooker(@RequestHeader(USER_ID_HEADER) Long userId) {
+        log.info("Gateway: GET /bookings/counts - Getting booking counts for booker: {}", userId);
+        return bookingClient.getBookingCountsByBooker(userId);
+    }
+
+    @GetMapping("/owner/counts")
+    public ResponseEntity<Object> getCountsByOwner(@RequestHeader(USER_ID_HEADER) Long userId) {
+        log.info("Gateway: GET /bookings/owner/counts - Getting booking counts for owner: {}", userId);
+        return bookingClient.getBookingCountsByOwner(userId);
+    }
+
+    @GetMapping("/export")
+    public void exportByBooker(@RequestHeader(USER_ID_HEADER) Long userId,
+                               HttpServletResponse response) throws IOException {
+        log.info("Gateway: GET /bookings/export - Exporting booking history of user: {}", userId);
+        bookingClient.exportBookingsByBooker(userId, response);
+    }
+
+    @GetMapping("/owner/export")
+    public void exportByOwner(@RequestHeader(USER_ID_HEADER) Long userId,
+                              HttpServletResponse response) throws IOException {
+        log.info("Gateway: GET /bookings/owner/export - Exporting booking history of owner: {}", userId);
+        bookingClient.exportBookingsByOwner(userId, response);
     }
 }
@@ -0,0 +1,81 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookingBulkApproveDto;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.item.ItemClient;
+
+import java.util.Map;
+
+@Service
+@Profile("reactive")
+public class ReactiveBookingClient extends ReactiveBaseClient {
+    private static final String API_PREFIX = "/bookings";
+
+    public ReactiveBookingClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                                 ClientHttpConnector serverConnector, ResponseCache responseCache) {
+        super(
+                builder
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .clientConnector(serverConnector)
+                        .build(),
+                responseCache);
+    }
+
+    public Mono<ResponseEntity<byte[]>> createBooking(long userId, BookingCreateDto bookingDto) {
+        return invalidating(post("", userId, bookingDto), ItemClient.resource(bookingDto.getItemId()));
+    }
+
+    public Mono<ResponseEntity<byte[]>> approveBooking(long userId, long bookingId, boolean approved) {
+        Map<String, Object> parameters = Map.of("approved", approved);
+        return invalidatingForUser(patch("/" + bookingId + "?approved={approved}", userId, parameters, null),
+                ItemClient.ITEM_RESOURCE_PREFIX, userId);
+    }
+
+    public Mono<ResponseEntity<byte[]>> approveBookings(long userId, BookingBulkApproveDto bulkDto) {
+        return invalidatingForUser(patch("/bulk", userId, bulkDto), ItemClient.ITEM_RESOURCE_PREFIX, userId);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getBookingById(long userId, long bookingId) {
+        return get("/" + bookingId, userId);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getBookingsByBooker(long userId, String state, int from, int size,
+                                                            String cursor) {
+        return get(BookingClient.pagePath("", cursor), userId,
+                BookingClient.pageParameters(state, from, size, cursor));
+    }
+
+    public Mono<ResponseEntity<byte[]>> getBookingsByOwner(long userId, String state, int from, int size,
+                                                           String cursor) {
+        return get(BookingClient.pagePath("/owner", cursor), userId,
+                BookingClient.pageParameters(state, from, size, cursor));
+    }
+
+    public Mono<ResponseEntity<byte[]>> getBookingCountsByBooker(long userId) {
+        return get("/counts", userId);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getBookingCountsByOwner(long userId) {
+        return get("/owner/counts", userId);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportBookingsByBooker(long userId) {
+        return stream("/export", userId, MediaType.APPLICATION_NDJSON);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportBookingsByOwner(long userId) {
+        return stream("/owner/export", userId, MediaType.APPLICATION_NDJSON);
+    }
+}
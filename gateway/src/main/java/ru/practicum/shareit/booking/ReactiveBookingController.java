@@ -0,0 +1,106 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookingBulkApproveDto;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+
+@Slf4j
+@Validated
+@RestController
+@Profile("reactive")
+@RequestMapping(path = "/bookings")
+@RequiredArgsConstructor
+public class ReactiveBookingController {
+
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    private final ReactiveBookingClient bookingClient;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<ResponseEntity<byte[]>> create(@RequestHeader(USER_ID_HEADER) Long userId,
+                                               @Valid @RequestBody BookingCreateDto bookingDto) {
+        log.info("Gateway: POST /bookings - Creating booking for user: {}", userId);
+        return bookingClient.createBooking(userId, bookingDto);
+    }
+
+    @PatchMapping("/{bookingId}")
+    public Mono<ResponseEntity<byte[]>> approve(@RequestHeader(USER_ID_HEADER) Long userId,
+                                                @PathVariable Long bookingId,
+                                                @RequestParam Boolean approved) {
+        log.info("Gateway: PATCH /bookings/{} - User {} approving booking: {}", bookingId, userId, approved);
+        return bookingClient.approveBooking(userId, bookingId, approved);
+    }
+
+    @PatchMapping("/bulk")
+    public Mono<ResponseEntity<byte[]>> approveAll(@RequestHeader(USER_ID_HEADER) Long userId,
+                                                   @Valid @RequestBody BookingBulkApproveDto bulkDto) {
+        log.info("Gateway: PATCH /bookings/bulk - User {} deciding {} bookings", userId, bulkDto.getDecisions().size());
+        return bookingClient.approveBookings(userId, bulkDto);
+    }
+
+    @GetMapping("/{bookingId}")
+    public Mono<ResponseEntity<byte[]>> getById(@RequestHeader(USER_ID_HEADER) Long userId,
+                                                @PathVariable Long bookingId) {
+        log.info("Gateway: GET /bookings/{} - Getting booking for user: {}", bookingId, userId);
+        return bookingClient.getBookingById(userId, bookingId);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<byte[]>> getByBooker(@RequestHeader(USER_ID_HEADER) Long userId,
+                                                    @RequestParam(defaultValue = "ALL") String state,
+                                                    @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                                    @Positive @RequestParam(defaultValue = "10") Integer size,
+                                                    @RequestParam(required = false) String cursor) {
+        log.info("Gateway: GET /bookings?state={}&from={}&size={} - Getting bookings for booker: {}",
+                state, from, size, userId);
+        return bookingClient.getBookingsByBooker(userId, state, from, size, cursor);
+    }
+
+    @GetMapping("/owner")
+    public Mono<ResponseEntity<byte[]>> getByOwner(@RequestHeader(USER_ID_HEADER) Long userId,
+                                                   @RequestParam(defaultValue = "ALL") String state,
+                                                   @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                                   @Positive @RequestParam(defaultValue = "10") Integer size,
+                                                   @RequestParam(required = false) String cursor) {
+        log.info("Gateway: GET /bookings/owner?state={}&from={}&size={} - Getting bookings for owner: {}",
+                state, from, size, userId);
+        return bookingClient.getBookingsByOwner(userId, state, from, size, cursor);
+    }
+
+    @GetMapping("/counts")
+    public Mono<ResponseEntity<byte[]>> getCountsByBooker(@RequestHeader(USER_ID_HEADER) Long userId) {
+        log.info("Gateway: GET /bookings/counts - Getting booking counts for booker: {}", userId);
+        return bookingClient.getBookingCountsByBooker(userId);
+    }
+
+    @GetMapping("/owner/counts")
+    public Mono<ResponseEntity<byte[]>> getCountsByOwner(@RequestHeader(USER_ID_HEADER) Long userId) {
+        log.info("Gateway: GET /bookings/owner/counts - Getting booking counts for owner: {}", userId);
+        return bookingClient.getBookingCountsByOwner(userId);
+    }
+
+    @GetMapping("/export")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportByBooker(@RequestHeader(USER_ID_HEADER) Long userId) {
+        log.info("Gateway: GET /bookings/export - Exporting booking history of user: {}", userId);
+        return bookingClient.exportBookingsByBooker(userId);
+    }
+
+    @GetMapping("/owner/export")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportByOwner(@RequestHeader(USER_ID_HEADER) Long userId) {
+        log.info("Gateway: GET /bookings/owner/export - Exporting booking history of owner: {}", userId);
+        return bookingClient.exportBookingsByOwner(userId);
+    }
+}
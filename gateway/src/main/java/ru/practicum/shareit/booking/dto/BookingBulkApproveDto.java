@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingBulkApproveDto {
+
+    @NotEmpty(message = "Decisions must be specified")
+    @Size(max = 100, message = "No more than 100 decisions per request")
+    private List<@Valid @NotNull(message = "Decision must not be null") BookingDecisionDto> decisions;
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingDecisionDto {
+
+    @NotNull(message = "Booking ID must be specified")
+    private Long bookingId;
+
+    @NotNull(message = "Decision must be specified")
+    private Boolean approved;
+}
@@ -1,18 +1,41 @@
 package ru.practicum.shareit.client;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.*;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
 public class BaseClient {
     protected final RestTemplate rest;
+    private final boolean passthrough;
+    @Nullable
+    private final ResponseCache cache;
 
     public BaseClient(RestTemplate rest) {
+        this(rest, true);
+    }
+
+    public BaseClient(RestTemplate rest, boolean passthrough) {
+        this(rest, passthrough, null);
+    }
+
+    /**
+     * @param passthrough отдавать тело ответа сервера байтами как есть; иначе ответ разбирается в объекты
+     *                    и сериализуется заново (прежний режим, оставлен для сравнения и отката)
+     * @param cache       кеш для {@link #cachedGet}; работает только вместе с passthrough
+     */
+    public BaseClient(RestTemplate rest, boolean passthrough, @Nullable ResponseCache cache) {
         this.rest = rest;
+        this.passthrough = passthrough;
+        this.cache = cache;
     }
 
     protected ResponseEntity<Object> get(String path) {
@@ -27,6 +50,51 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
+    /**
+     * GET через {@link ResponseCache}. resource - ресурс, изменения которого через шлюз сбрасывают ответ
+     * (см. {@link #invalidating}). Без кеша и в режиме без passthrough - обычный GET.
+     */
+    protected ResponseEntity<Object> cachedGet(String resource, String path, Long userId,
+                                               @Nullable Map<String, Object> parameters) {
+        if (cache == null || !cache.isEnabled() || !passthrough) {
+            return get(path, userId, parameters);
+        }
+        ResponseCache.Lookup lookup = cache.lookup(ResponseCache.key(resource, path, parameters, userId));
+        if (lookup.isFresh()) {
+            return toGatewayResponse(lookup.response());
+        }
+        HttpHeaders headers = defaultHeaders(userId);
+        if (lookup.etag() != null) {
+            headers.setIfNoneMatch(lookup.etag());
+        }
+        ResponseEntity<byte[]> serverResponse = exchangeBytes(HttpMethod.GET, path, parameters,
+                new HttpEntity<>(headers));
+        return toGatewayResponse(cache.complete(lookup, serverResponse));
+    }
+
+    /**
+     * Сбрасывает кешированные ответы ресурсов, если изменение прошло успешно.
+     */
+    protected ResponseEntity<Object> invalidating(ResponseEntity<Object> response, String... resources) {
+        if (cache != null && response.getStatusCode().is2xxSuccessful()) {
+            for (String resource : resources) {
+                cache.invalidate(resource);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Сбрасывает кешированные ответы пользователю по ресурсам с префиксом, если изменение прошло успешно.
+     */
+    protected ResponseEntity<Object> invalidatingForUser(ResponseEntity<Object> response, String resourcePrefix,
+                                                         long userId) {
+        if (cache != null && response.getStatusCode().is2xxSuccessful()) {
+            cache.invalidateForUser(resourcePrefix, userId);
+        }
+        return response;
+    }
+
     protected <T> ResponseEntity<Object> post(String path, T body) {
         return post(path, null, null, body);
     }
@@ -74,9 +142,44 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    /**
+     * Проксирует GET-ответ сервера в ответ шлюза потоком, не собирая тело в памяти.
+     * Ошибки сервера передаются клиенту с исходным кодом и телом.
+     */
+    protected void stream(String path, Long userId, MediaType accept, HttpServletResponse response) throws IOException {
+        RequestCallback requestCallback = request -> {
+            request.getHeaders().setAccept(List.of(accept, MediaType.APPLICATION_JSON));
+            if (userId != null) {
+                request.getHeaders().set(GatewayHeaders.USER_ID_HEADER, String.valueOf(userId));
+            }
+        };
+        ResponseExtractor<Void> copyBody = serverResponse -> {
+            response.setStatus(serverResponse.getStatusCode().value());
+            MediaType contentType = serverResponse.getHeaders().getContentType();
+            if (contentType != null) {
+                response.setContentType(contentType.toString());
+            }
+            try (InputStream body = serverResponse.getBody()) {
+                body.transferTo(response.getOutputStream());
+            }
+            response.flushBuffer();
+            return null;
+        };
+        try {
+            rest.execute(path, HttpMethod.GET, requestCallback, copyBody);
+        } catch (HttpStatusCodeException e) {
+            response.setStatus(e.getStatusCode().value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write(e.getResponseBodyAsByteArray());
+        }
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId,
                                                           @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+        if (passthrough) {
+            return sendPassthrough(method, path, parameters, requestEntity);
+        }
 
         ResponseEntity<Object> serverResponse;
         try {
@@ -91,12 +194,46 @@ public class BaseClient {
         return prepareGatewayResponse(serverResponse);
     }
 
+    /**
+     * Передаёт тело ответа сервера клиенту байтами, без разбора JSON в Map/List и повторной сериализации.
+     * Заголовки ответа (Content-Type, курсор следующей страницы и т.д.) передаются, кроме относящихся к соединению.
+     */
+    private <T> ResponseEntity<Object> sendPassthrough(HttpMethod method, String path,
+                                                       @Nullable Map<String, Object> parameters,
+                                                       HttpEntity<T> requestEntity) {
+        return toGatewayResponse(exchangeBytes(method, path, parameters, requestEntity));
+    }
+
+    private <T> ResponseEntity<byte[]> exchangeBytes(HttpMethod method, String path,
+                                                     @Nullable Map<String, Object> parameters,
+                                                     HttpEntity<T> requestEntity) {
+        ResponseEntity<byte[]> serverResponse;
+        try {
+            if (parameters != null) {
+                serverResponse = rest.exchange(path, method, requestEntity, byte[].class, parameters);
+            } else {
+                serverResponse = rest.exchange(path, method, requestEntity, byte[].class);
+            }
+        } catch (HttpStatusCodeException e) {
+            return ResponseEntity.status(e.getStatusCode())
+                    .headers(GatewayHeaders.forwarded(e.getResponseHeaders()))
+                    .body(e.getResponseBodyAsByteArray());
+        }
+        return ResponseEntity.status(serverResponse.getStatusCode())
+                .headers(GatewayHeaders.forwarded(serverResponse.getHeaders()))
+                .body(serverResponse.getBody());
+    }
+
+    private static ResponseEntity<Object> toGatewayResponse(ResponseEntity<byte[]> response) {
+        return new ResponseEntity<>(response.getBody(), response.getHeaders(), response.getStatusCode());
+    }
+
     private HttpHeaders defaultHeaders(Long userId) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         headers.setAccept(List.of(MediaType.APPLICATION_JSON));
         if (userId != null) {
-            headers.set("X-Sharer-User-Id", String.valueOf(userId));
+            headers.set(GatewayHeaders.USER_ID_HEADER, String.valueOf(userId));
         }
         return headers;
     }
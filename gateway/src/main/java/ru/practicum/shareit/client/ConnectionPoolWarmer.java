@@ -0,0 +1,91 @@
+package ru.practicum.shareit.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.DefaultSchemePortResolver;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.client5.http.routing.RoutingSupport;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Заранее открывает {@code shareit-server.http.prewarm} соединений с сервером после старта шлюза,
+ * чтобы первые запросы не платили за установку соединений. Сервер может быть ещё недоступен:
+ * тогда прогрев прекращается на первой ошибке, и соединения откроются по мере запросов.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+public class ConnectionPoolWarmer {
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final HttpRoute route;
+    private final int connections;
+    private final Timeout timeout;
+    private final TimeValue keepAlive;
+
+    public ConnectionPoolWarmer(PoolingHttpClientConnectionManager serverConnectionManager,
+                                @Value("${shareit-server.url}") String serverUrl,
+                                @Value("${shareit-server.http.prewarm:10}") int connections,
+                                @Value("${shareit-server.http.connect-timeout-ms:2000}") long connectTimeoutMs,
+                                @Value("${shareit-server.http.keep-alive-ms:60000}") long keepAliveMs) {
+        this.connectionManager = serverConnectionManager;
+        // Порт указываем явно, как это делает клиент при построении маршрута, иначе маршруты не совпадут
+        this.route = new HttpRoute(RoutingSupport.normalize(HttpHost.create(URI.create(serverUrl)),
+                DefaultSchemePortResolver.INSTANCE));
+        this.connections = connections;
+        this.timeout = Timeout.ofMilliseconds(connectTimeoutMs);
+        this.keepAlive = TimeValue.ofMilliseconds(keepAliveMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        int opened = warmUp(connections);
+        log.info("Pre-warmed {} of {} connections to {}", opened, connections, route.getTargetHost());
+    }
+
+    /**
+     * Открывает до count соединений и возвращает их в пул. Соединения берутся все сразу,
+     * иначе пул снова и снова выдавал бы одно и то же.
+     */
+    public int warmUp(int count) {
+        List<ConnectionEndpoint> endpoints = new ArrayList<>();
+        try {
+            for (int i = 0; i < count; i++) {
+                ConnectionEndpoint endpoint = connectionManager.lease("prewarm-" + i, route, timeout, null)
+                        .get(timeout);
+                endpoints.add(endpoint);
+                if (!endpoint.isConnected()) {
+                    connectionManager.connect(endpoint, timeout, HttpClientContext.create());
+                }
+            }
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.warn("Connection pre-warm to {} stopped: {}", route.getTargetHost(), e.getMessage());
+        }
+        int opened = 0;
+        for (ConnectionEndpoint endpoint : endpoints) {
+            if (endpoint.isConnected()) {
+                opened++;
+                connectionManager.release(endpoint, null, keepAlive);
+            } else {
+                connectionManager.release(endpoint, null, TimeValue.ZERO_MILLISECONDS);
+            }
+        }
+        return opened;
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Заголовки ответа сервера, которые шлюз передаёт клиенту. Общие для {@link BaseClient} и {@link ReactiveBaseClient}.
+ */
+final class GatewayHeaders {
+
+    static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    // Заголовки соединения и длина тела относятся к ответу сервера, шлюз выставляет их заново
+    private static final Set<String> NOT_FORWARDED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        NOT_FORWARDED_HEADERS.addAll(List.of(
+                HttpHeaders.CONNECTION, "Keep-Alive", HttpHeaders.TRANSFER_ENCODING, HttpHeaders.TE, HttpHeaders.TRAILER,
+                HttpHeaders.UPGRADE, HttpHeaders.PROXY_AUTHENTICATE, HttpHeaders.PROXY_AUTHORIZATION,
+                HttpHeaders.CONTENT_LENGTH, HttpHeaders.DATE));
+    }
+
+    private GatewayHeaders() {
+    }
+
+    static HttpHeaders forwarded(@Nullable HttpHeaders serverHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+        if (serverHeaders != null) {
+            serverHeaders.forEach((name, values) -> {
+                if (!NOT_FORWARDED_HEADERS.contains(name)) {
+                    headers.addAll(name, values);
+                }
+            });
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,81 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+/**
+ * Общий пул HTTP-соединений шлюза с сервером. Все клиенты ходят на один маршрут (shareit-server.url),
+ * поэтому делят один {@link PoolingHttpClientConnectionManager} и одну фабрику запросов.
+ * <p>
+ * Метрики: стандартные метрики пула Micrometer ({@code httpcomponents.httpclient.pool.*} с тегом
+ * {@code httpclient=shareit-server}) и время ожидания соединения {@code shareit.gateway.http.lease}.
+ */
+@Configuration
+@Profile("!reactive")
+public class HttpClientConfig {
+
+    static final String POOL_NAME = "shareit-server";
+
+    @Bean
+    public PoolingHttpClientConnectionManager serverConnectionManager(
+            MeterRegistry meterRegistry,
+            @Value("${shareit-server.http.max-total:200}") int maxTotal,
+            @Value("${shareit-server.http.max-per-route:200}") int maxPerRoute,
+            @Value("${shareit-server.http.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${shareit-server.http.socket-timeout-ms:30000}") long socketTimeoutMs,
+            @Value("${shareit-server.http.validate-after-inactivity-ms:2000}") long validateAfterInactivityMs) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+                // Последнее возвращённое соединение выдаётся первым: лишние простаивают и закрываются вытеснением
+                .setConnPoolPolicy(PoolReusePolicy.LIFO)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(socketTimeoutMs))
+                        .setValidateAfterInactivity(TimeValue.ofMilliseconds(validateAfterInactivityMs))
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, POOL_NAME).bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean
+    public ClientHttpRequestFactory serverRequestFactory(
+            PoolingHttpClientConnectionManager serverConnectionManager,
+            MeterRegistry meterRegistry,
+            @Value("${shareit-server.http.lease-timeout-ms:2000}") long leaseTimeoutMs,
+            @Value("${shareit-server.http.response-timeout-ms:30000}") long responseTimeoutMs,
+            @Value("${shareit-server.http.keep-alive-ms:60000}") long keepAliveMs,
+            @Value("${shareit-server.http.idle-evict-ms:30000}") long idleEvictMs) {
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(new LeaseTimingConnectionManager(serverConnectionManager, meterRegistry))
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(leaseTimeoutMs))
+                        // Тайм-аут ожидания данных, а не всего ответа: потоковая выгрузка идёт порциями
+                        .setResponseTimeout(Timeout.ofMilliseconds(responseTimeoutMs))
+                        // Время жизни соединения, если сервер не прислал заголовок Keep-Alive
+                        .setConnectionKeepAlive(TimeValue.ofMilliseconds(keepAliveMs))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleEvictMs))
+                .build();
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+}
@@ -0,0 +1,92 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Обёртка над менеджером соединений, измеряющая ожидание соединения из пула:
+ * таймер {@code shareit.gateway.http.lease} с тегом outcome (acquired или failed - тайм-аут или прерывание).
+ */
+class LeaseTimingConnectionManager implements HttpClientConnectionManager {
+
+    private final HttpClientConnectionManager delegate;
+    private final Timer acquiredTimer;
+    private final Timer failedTimer;
+
+    LeaseTimingConnectionManager(HttpClientConnectionManager delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.acquiredTimer = leaseTimer(meterRegistry, "acquired");
+        this.failedTimer = leaseTimer(meterRegistry, "failed");
+    }
+
+    @Override
+    public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+        LeaseRequest request = delegate.lease(id, route, requestTimeout, state);
+        return new LeaseRequest() {
+            @Override
+            public ConnectionEndpoint get(Timeout timeout)
+                    throws InterruptedException, ExecutionException, TimeoutException {
+                long started = System.nanoTime();
+                Timer timer = failedTimer;
+                try {
+                    ConnectionEndpoint endpoint = request.get(timeout);
+                    timer = acquiredTimer;
+                    return endpoint;
+                } finally {
+                    timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void release(ConnectionEndpoint endpoint, Object newState, TimeValue validDuration) {
+        delegate.release(endpoint, newState, validDuration);
+    }
+
+    @Override
+    public void connect(ConnectionEndpoint endpoint, TimeValue connectTimeout, HttpContext context)
+            throws IOException {
+        delegate.connect(endpoint, connectTimeout, context);
+    }
+
+    @Override
+    public void upgrade(ConnectionEndpoint endpoint, HttpContext context) throws IOException {
+        delegate.upgrade(endpoint, context);
+    }
+
+    @Override
+    public void close(CloseMode closeMode) {
+        delegate.close(closeMode);
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    private static Timer leaseTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("shareit.gateway.http.lease")
+                .description("Time spent waiting for a pooled connection to the server")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,188 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Неблокирующий аналог {@link BaseClient} на {@link WebClient} для профиля {@code reactive}.
+ * <p>
+ * Тело ответа сервера передаётся клиенту байтами, как в режиме passthrough {@link BaseClient}.
+ * Ответы сервера с кодом ошибки не превращаются в исключения, а передаются с исходным кодом и телом.
+ */
+public class ReactiveBaseClient {
+
+    protected final WebClient webClient;
+    @Nullable
+    private final ResponseCache cache;
+
+    public ReactiveBaseClient(WebClient webClient) {
+        this(webClient, null);
+    }
+
+    /**
+     * @param cache кеш для {@link #cachedGet}
+     */
+    public ReactiveBaseClient(WebClient webClient, @Nullable ResponseCache cache) {
+        this.webClient = webClient;
+        this.cache = cache;
+    }
+
+    protected Mono<ResponseEntity<byte[]>> get(String path) {
+        return get(path, null, null);
+    }
+
+    protected Mono<ResponseEntity<byte[]>> get(String path, long userId) {
+        return get(path, userId, null);
+    }
+
+    protected Mono<ResponseEntity<byte[]>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
+    }
+
+    /**
+     * GET через {@link ResponseCache}, как {@link BaseClient#cachedGet}. Без кеша - обычный GET.
+     */
+    protected Mono<ResponseEntity<byte[]>> cachedGet(String resource, String path, Long userId,
+                                                     @Nullable Map<String, Object> parameters) {
+        if (cache == null || !cache.isEnabled()) {
+            return get(path, userId, parameters);
+        }
+        // Поиск в кеше при подписке, а не при сборке цепочки
+        return Mono.defer(() -> {
+            ResponseCache.Lookup lookup = cache.lookup(ResponseCache.key(resource, path, parameters, userId));
+            if (lookup.isFresh()) {
+                return Mono.just(lookup.response());
+            }
+            String etag = lookup.etag();
+            WebClient.RequestHeadersSpec<?> request = webClient.get()
+                    .uri(path, parameters != null ? parameters : Map.of())
+                    .headers(headers -> {
+                        defaultHeaders(headers, userId);
+                        if (etag != null) {
+                            headers.setIfNoneMatch(etag);
+                        }
+                    });
+            return exchange(request).map(serverResponse -> cache.complete(lookup, serverResponse));
+        });
+    }
+
+    /**
+     * Сбрасывает кешированные ответы ресурсов, если изменение прошло успешно.
+     */
+    protected Mono<ResponseEntity<byte[]>> invalidating(Mono<ResponseEntity<byte[]>> response, String... resources) {
+        return response.doOnNext(serverResponse -> {
+            if (cache != null && serverResponse.getStatusCode().is2xxSuccessful()) {
+                for (String resource : resources) {
+                    cache.invalidate(resource);
+                }
+            }
+        });
+    }
+
+    /**
+     * Сбрасывает кешированные ответы пользователю по ресурсам с префиксом, если изменение прошло успешно.
+     */
+    protected Mono<ResponseEntity<byte[]>> invalidatingForUser(Mono<ResponseEntity<byte[]>> response,
+                                                               String resourcePrefix, long userId) {
+        return response.doOnNext(serverResponse -> {
+            if (cache != null && serverResponse.getStatusCode().is2xxSuccessful()) {
+                cache.invalidateForUser(resourcePrefix, userId);
+            }
+        });
+    }
+
+    protected <T> Mono<ResponseEntity<byte[]>> post(String path, T body) {
+        return post(path, null, null, body);
+    }
+
+    protected <T> Mono<ResponseEntity<byte[]>> post(String path, long userId, T body) {
+        return post(path, userId, null, body);
+    }
+
+    protected <T> Mono<ResponseEntity<byte[]>> post(String path, Long userId, @Nullable Map<String, Object> parameters,
+                                                    T body) {
+        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
+    }
+
+    protected <T> Mono<ResponseEntity<byte[]>> patch(String path, T body) {
+        return patch(path, null, null, body);
+    }
+
+    protected <T> Mono<ResponseEntity<byte[]>> patch(String path, long userId, T body) {
+        return patch(path, userId, null, body);
+    }
+
+    protected <T> Mono<ResponseEntity<byte[]>> patch(String path, Long userId, @Nullable Map<String, Object> parameters,
+                                                     T body) {
+        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
+    }
+
+    protected Mono<ResponseEntity<byte[]>> delete(String path) {
+        return delete(path, null);
+    }
+
+    protected Mono<ResponseEntity<byte[]>> delete(String path, Long userId) {
+        return makeAndSendRequest(HttpMethod.DELETE, path, userId, null, null);
+    }
+
+    /**
+     * Проксирует GET-ответ сервера потоком буферов: каждый прочитанный из соединения с сервером буфер
+     * сразу пишется в ответ шлюза, тело целиком в памяти не собирается.
+     */
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> stream(String path, Long userId, MediaType accept) {
+        return webClient.get()
+                .uri(path)
+                .headers(headers -> {
+                    headers.setAccept(List.of(accept, MediaType.APPLICATION_JSON));
+                    setUserId(headers, userId);
+                })
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, serverResponse -> Mono.empty())
+                .toEntityFlux(DataBuffer.class)
+                .map(serverResponse -> ResponseEntity.status(serverResponse.getStatusCode())
+                        .headers(GatewayHeaders.forwarded(serverResponse.getHeaders()))
+                        .body(serverResponse.getBody()));
+    }
+
+    private <T> Mono<ResponseEntity<byte[]>> makeAndSendRequest(HttpMethod method, String path, Long userId,
+                                                                @Nullable Map<String, Object> parameters,
+                                                                @Nullable T body) {
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> defaultHeaders(headers, userId));
+        return exchange(body != null ? request.bodyValue(body) : request);
+    }
+
+    private static Mono<ResponseEntity<byte[]>> exchange(WebClient.RequestHeadersSpec<?> request) {
+        return request.retrieve()
+                // Ошибка сервера - обычный ответ, который надо передать клиенту
+                .onStatus(HttpStatusCode::isError, serverResponse -> Mono.empty())
+                .toEntity(byte[].class)
+                .map(serverResponse -> ResponseEntity.status(serverResponse.getStatusCode())
+                        .headers(GatewayHeaders.forwarded(serverResponse.getHeaders()))
+                        .body(serverResponse.getBody()));
+    }
+
+    private static void defaultHeaders(HttpHeaders headers, Long userId) {
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        setUserId(headers, userId);
+    }
+
+    private static void setUserId(HttpHeaders headers, Long userId) {
+        if (userId != null) {
+            headers.set(GatewayHeaders.USER_ID_HEADER, String.valueOf(userId));
+        }
+    }
+}
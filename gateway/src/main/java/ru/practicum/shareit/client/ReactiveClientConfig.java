@@ -0,0 +1,62 @@
+package ru.practicum.shareit.client;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Пул соединений шлюза с сервером в профиле {@code reactive}: Reactor Netty вместо Apache HttpClient
+ * с теми же настройками {@code shareit-server.http.*}. Входящие запросы в этом профиле тоже принимает Reactor Netty.
+ * <p>
+ * Метрики пула Reactor Netty: {@code reactor.netty.connection.provider.*} с тегом {@code name=shareit-server}.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveClientConfig {
+
+    // Tomcat в classpath ради блокирующего режима, и без явной фабрики Spring Boot запустил бы WebFlux на нём
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider serverConnectionProvider(
+            @Value("${shareit-server.http.max-total:200}") int maxTotal,
+            @Value("${shareit-server.http.lease-timeout-ms:2000}") long leaseTimeoutMs,
+            @Value("${shareit-server.http.keep-alive-ms:60000}") long keepAliveMs,
+            @Value("${shareit-server.http.idle-evict-ms:30000}") long idleEvictMs) {
+        return ConnectionProvider.builder(HttpClientConfig.POOL_NAME)
+                .maxConnections(maxTotal)
+                .pendingAcquireTimeout(Duration.ofMillis(leaseTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(keepAliveMs))
+                .evictInBackground(Duration.ofMillis(idleEvictMs))
+                // Последнее возвращённое соединение выдаётся первым: лишние простаивают и закрываются вытеснением
+                .lifo()
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public ClientHttpConnector serverConnector(
+            ConnectionProvider serverConnectionProvider,
+            @Value("${shareit-server.http.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${shareit-server.http.response-timeout-ms:30000}") long responseTimeoutMs) {
+        HttpClient httpClient = HttpClient.create(serverConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs))
+                .keepAlive(true);
+        // Циклы событий и DNS-резолвер создаются при старте, а не на первом запросе
+        httpClient.warmup().block();
+        return new ReactorClientHttpConnector(httpClient);
+    }
+}
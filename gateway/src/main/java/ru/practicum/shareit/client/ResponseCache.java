@@ -0,0 +1,292 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Кеш ответов сервера на частые идемпотентные GET-запросы шлюза ({@code GET /items/{id}}, {@code /items/search},
+ * {@code /requests/{id}}), общий для {@link BaseClient} и {@link ReactiveBaseClient}.
+ * <p>
+ * Ключ - путь с параметрами запроса и пользователь из X-Sharer-User-Id, если шлюз передаёт его серверу.
+ * Хранится не больше {@code shareit-server.cache.max-size} записей с вытеснением давно не использованных;
+ * запись свежа {@code ttl-ms} или меньше, если сервер прислал {@code Cache-Control: max-age}. Ответы с
+ * {@code no-store} и {@code private} не кешируются, с {@code no-cache} - только для проверки по ETag.
+ * Устаревшая запись с ETag проверяется у сервера запросом с If-None-Match: на 304 отдаётся сохранённое тело.
+ * <p>
+ * Изменения через шлюз сбрасывают записи своего ресурса ({@link #invalidate}), решения владельца по бронированиям -
+ * его записи вещей ({@link #invalidateForUser}), а ответ на GET, начатый до сброса, в кеш уже не попадает.
+ * Изменения в обход этого экземпляра шлюза (другие экземпляры, начало и окончание бронирований по времени)
+ * становятся видны не позже чем через ttl-ms.
+ * <p>
+ * Метрики: {@code shareit.gateway.cache.gets} с тегом result=hit|miss|revalidated, доля ответов из кеша
+ * {@code shareit.gateway.cache.hit.ratio}, {@code shareit.gateway.cache.evictions} с тегом
+ * cause=size|expired|invalidated и число записей {@code shareit.gateway.cache.size}.
+ */
+@Component
+public class ResponseCache {
+
+    record Key(String resource, String uri, @Nullable Long userId) {
+    }
+
+    record Entry(ResponseEntity<byte[]> response, @Nullable String etag, long expiresAtNanos) {
+
+        boolean isFresh(long nowNanos) {
+            return nowNanos - expiresAtNanos < 0;
+        }
+    }
+
+    /**
+     * Результат поиска в кеше: свежая запись, устаревшая запись с ETag для проверки у сервера или промах.
+     * generation - число сбросов на момент поиска, по нему отбрасываются ответы, начатые до сброса.
+     */
+    record Lookup(Key key, @Nullable Entry entry, boolean isFresh, long generation) {
+
+        ResponseEntity<byte[]> response() {
+            return entry.response();
+        }
+
+        @Nullable
+        String etag() {
+            return entry != null ? entry.etag() : null;
+        }
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Key, Entry> entries;
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter revalidations;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+    private final Counter invalidations;
+    private long generation;
+
+    public ResponseCache(MeterRegistry meterRegistry,
+                         @Value("${shareit-server.cache.enabled:true}") boolean enabled,
+                         @Value("${shareit-server.cache.max-size:10000}") int maxSize,
+                         @Value("${shareit-server.cache.ttl-ms:30000}") long ttlMs) {
+        this.enabled = enabled;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.hits = getsCounter(meterRegistry, "hit");
+        this.misses = getsCounter(meterRegistry, "miss");
+        this.revalidations = getsCounter(meterRegistry, "revalidated");
+        this.sizeEvictions = evictionsCounter(meterRegistry, "size");
+        this.expiredEvictions = evictionsCounter(meterRegistry, "expired");
+        this.invalidations = evictionsCounter(meterRegistry, "invalidated");
+        // Порядок доступа: первой вытесняется давно не использованная запись
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > maxSize) {
+                    sizeEvictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        Gauge.builder("shareit.gateway.cache.hit.ratio", this, ResponseCache::hitRatio)
+                .description("Share of cached GETs answered with a stored body")
+                .register(meterRegistry);
+        Gauge.builder("shareit.gateway.cache.size", this, ResponseCache::size)
+                .description("Gateway response cache entries")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Сбрасывает все записи ресурса, например, {@code /items/42} после изменения вещи.
+     */
+    public void invalidate(String resource) {
+        invalidateIf(key -> key.resource().equals(resource));
+    }
+
+    /**
+     * Сбрасывает записи пользователя по ресурсам с префиксом, например, все {@code /items/...} владельца после
+     * решения по бронированиям: в ответах владельцу есть последнее и следующее бронирование, а вещи в ответе
+     * на пакетное решение не указаны.
+     */
+    public void invalidateForUser(String resourcePrefix, long userId) {
+        invalidateIf(key -> key.userId() != null && key.userId() == userId && key.resource().startsWith(resourcePrefix));
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param resource ресурс, изменения которого сбрасывают запись
+     * @param path     шаблон пути с параметрами запроса, как в {@link BaseClient}
+     */
+    static Key key(String resource, String path, @Nullable Map<String, Object> parameters, @Nullable Long userId) {
+        String uri = UriComponentsBuilder.fromUriString(path)
+                .buildAndExpand(parameters != null ? parameters : Map.of())
+                .toUriString();
+        return new Key(resource, uri, userId);
+    }
+
+    Lookup lookup(Key key) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.isFresh(System.nanoTime())) {
+                hits.increment();
+                return new Lookup(key, entry, true, generation);
+            }
+            if (entry != null && entry.etag() == null) {
+                entries.remove(key);
+                expiredEvictions.increment();
+                entry = null;
+            }
+            if (entry == null) {
+                misses.increment();
+            }
+            return new Lookup(key, entry, false, generation);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Сохраняет ответ сервера на запрос после {@link #lookup} и возвращает ответ для клиента:
+     * на 304 - сохранённый ответ, иначе - ответ сервера.
+     */
+    ResponseEntity<byte[]> complete(Lookup lookup, ResponseEntity<byte[]> serverResponse) {
+        Entry stale = lookup.entry();
+        if (stale != null && serverResponse.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            revalidations.increment();
+            // 304 несёт актуальные Cache-Control и ETag, тело берётся из сохранённого ответа
+            store(lookup, stale.response(), serverResponse.getHeaders(), stale.etag());
+            return stale.response();
+        }
+        if (stale != null) {
+            misses.increment();
+        }
+        if (serverResponse.getStatusCode().isSameCodeAs(HttpStatus.OK)) {
+            store(lookup, serverResponse, serverResponse.getHeaders(), null);
+        } else if (stale != null) {
+            remove(lookup.key());
+        }
+        return serverResponse;
+    }
+
+    private void store(Lookup lookup, ResponseEntity<byte[]> response, HttpHeaders headers,
+                       @Nullable String previousEtag) {
+        long ttl = ttlNanos(headers.getCacheControl());
+        String etag = headers.getETag() != null ? headers.getETag() : previousEtag;
+        if (ttl < 0 || (ttl == 0 && etag == null)) {
+            remove(lookup.key());
+            return;
+        }
+        lock.lock();
+        try {
+            // Ресурс изменён, пока шёл запрос: ответ мог быть прочитан до изменения
+            if (generation == lookup.generation()) {
+                entries.put(lookup.key(), new Entry(response, etag, System.nanoTime() + ttl));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void invalidateIf(Predicate<Key> condition) {
+        lock.lock();
+        try {
+            generation++;
+            int before = entries.size();
+            entries.keySet().removeIf(condition);
+            invalidations.increment(before - entries.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(Key key) {
+        lock.lock();
+        try {
+            entries.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Время свежести по Cache-Control сервера, не больше ttl-ms; -1 - ответ сохранять нельзя
+    private long ttlNanos(@Nullable String cacheControl) {
+        if (cacheControl == null) {
+            return ttlNanos;
+        }
+        long maxAge = -1;
+        long sharedMaxAge = -1;
+        boolean noCache = false;
+        for (String directive : cacheControl.toLowerCase(Locale.ROOT).split(",")) {
+            String name = directive.trim();
+            if (name.equals("no-store") || name.equals("private")) {
+                return -1;
+            } else if (name.equals("no-cache")) {
+                noCache = true;
+            } else if (name.startsWith("s-maxage=")) {
+                sharedMaxAge = seconds(name.substring("s-maxage=".length()));
+            } else if (name.startsWith("max-age=")) {
+                maxAge = seconds(name.substring("max-age=".length()));
+            }
+        }
+        if (noCache) {
+            return 0;
+        }
+        // Кеш шлюза общий для клиентов, поэтому s-maxage важнее max-age
+        long serverMaxAge = sharedMaxAge >= 0 ? sharedMaxAge : maxAge;
+        return serverMaxAge >= 0 ? Math.min(ttlNanos, TimeUnit.SECONDS.toNanos(serverMaxAge)) : ttlNanos;
+    }
+
+    private static long seconds(String value) {
+        try {
+            return Math.max(0, Long.parseLong(value.replace("\"", "")));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private double hitRatio() {
+        double served = hits.count() + revalidations.count();
+        double total = served + misses.count();
+        return total > 0 ? served / total : 0;
+    }
+
+    private static Counter getsCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("shareit.gateway.cache.gets")
+                .description("Cached GET lookups by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Counter evictionsCounter(MeterRegistry meterRegistry, String cause) {
+        return Counter.builder("shareit.gateway.cache.evictions")
+                .description("Gateway response cache entries removed")
+                .tag("cause", cause)
+                .register(meterRegistry);
+    }
+}
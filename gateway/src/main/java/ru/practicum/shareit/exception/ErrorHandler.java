@@ -1,17 +1,21 @@
 package ru.practicum.shareit.exception;
 
+import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.util.Map;
 import java.util.Objects;
 
 @Slf4j
 @RestControllerAdvice
+@Profile("!reactive")
 public class ErrorHandler {
 
     @ExceptionHandler
@@ -21,6 +25,20 @@ public class ErrorHandler {
         return Map.of("error", Objects.requireNonNull(e.getBindingResult().getAllErrors().getFirst().getDefaultMessage()));
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleConstraintViolationException(final ConstraintViolationException e) {
+        log.error("Validation error: {}", e.getMessage());
+        return Map.of("error", e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleTypeMismatchException(final MethodArgumentTypeMismatchException e) {
+        log.error("Validation error: {}", e.getMessage());
+        return Map.of("error", "Invalid value of parameter " + e.getName() + ": " + e.getValue());
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public Map<String, String> handleException(final Exception e) {
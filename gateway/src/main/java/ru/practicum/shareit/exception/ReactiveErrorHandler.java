@@ -0,0 +1,53 @@
+package ru.practicum.shareit.exception;
+
+import jakarta.validation.ConstraintViolationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Обработчик ошибок профиля {@code reactive}: те же ответы, что у {@link ErrorHandler}, для исключений WebFlux.
+ */
+@Slf4j
+@RestControllerAdvice
+@Profile("reactive")
+public class ReactiveErrorHandler {
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleValidationException(final WebExchangeBindException e) {
+        log.error("Validation error: {}", e.getMessage());
+        return Map.of("error", Objects.requireNonNull(e.getBindingResult().getAllErrors().getFirst().getDefaultMessage()));
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleConstraintViolationException(final ConstraintViolationException e) {
+        log.error("Validation error: {}", e.getMessage());
+        return Map.of("error", e.getMessage());
+    }
+
+    // Неверные и недостающие параметры и заголовки (400), неизвестный путь (404) и т.д.
+    @ExceptionHandler
+    public ResponseEntity<Map<String, String>> handleResponseStatusException(final ResponseStatusException e) {
+        log.error("Request error: {}", e.getMessage());
+        return ResponseEntity.status(e.getStatusCode())
+                .body(Map.of("error", Objects.requireNonNullElse(e.getReason(), e.getMessage())));
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+    public Map<String, String> handleException(final Exception e) {
+        log.error("Unexpected error", e);
+        return Map.of("error", e.getMessage());
+    }
+}
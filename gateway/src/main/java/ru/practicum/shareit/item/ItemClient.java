@@ -3,35 +3,72 @@ package ru.practicum.shareit.item;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityCheckDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.request.ItemRequestClient;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
+@Profile("!reactive")
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
+    static final String SEARCH_RESOURCE = API_PREFIX + "/search";
+    // Префикс ресурсов отдельных вещей (см. resource)
+    public static final String ITEM_RESOURCE_PREFIX = API_PREFIX + "/";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      ClientHttpRequestFactory serverRequestFactory,
+                      @Value("${shareit-server.passthrough:true}") boolean passthrough,
+                      ResponseCache responseCache) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                        .build());
+                        .requestFactory(() -> serverRequestFactory)
+                        .build(),
+                passthrough,
+                responseCache);
     }
 
     public ResponseEntity<Object> createItem(long userId, ItemDto itemDto) {
-        return post("", userId, itemDto);
+        return invalidating(post("", userId, itemDto), createdItemResources(itemDto));
     }
 
     public ResponseEntity<Object> getItemById(long itemId, Long userId) {
-        return get("/" + itemId, userId);
+        // Владелец видит последнее и следующее бронирования, поэтому ответ зависит от пользователя;
+        // бронирования через шлюз сбрасывают запись (BookingClient)
+        return cachedGet(resource(itemId), "/" + itemId, userId, null);
+    }
+
+    public ResponseEntity<Object> getAvailability(long itemId, LocalDateTime from, LocalDateTime to,
+                                                  boolean includeWaiting) {
+        StringBuilder path = new StringBuilder("/" + itemId + "/availability?includeWaiting={includeWaiting}");
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("includeWaiting", includeWaiting);
+        if (from != null) {
+            path.append("&from={from}");
+            parameters.put("from", from);
+        }
+        if (to != null) {
+            path.append("&to={to}");
+            parameters.put("to", to);
+        }
+        return get(path.toString(), null, parameters);
+    }
+
+    public ResponseEntity<Object> checkAvailability(ItemAvailabilityCheckDto checkDto) {
+        return post("/availability", checkDto);
     }
 
     public ResponseEntity<Object> getItemsByOwner(long userId) {
@@ -39,19 +76,31 @@ public class ItemClient extends BaseClient {
     }
 
     public ResponseEntity<Object> updateItem(long userId, long itemId, ItemDto itemDto) {
-        return patch("/" + itemId, userId, itemDto);
+        return invalidating(patch("/" + itemId, userId, itemDto), resource(itemId), SEARCH_RESOURCE);
     }
 
     public ResponseEntity<Object> deleteItem(long userId, long itemId) {
-        return delete("/" + itemId, userId);
+        return invalidating(delete("/" + itemId, userId), resource(itemId), SEARCH_RESOURCE);
     }
 
     public ResponseEntity<Object> searchItems(String text) {
         Map<String, Object> parameters = Map.of("text", text);
-        return get("/search?text={text}", null, parameters);
+        return cachedGet(SEARCH_RESOURCE, "/search?text={text}", null, parameters);
     }
 
     public ResponseEntity<Object> addComment(long userId, long itemId, CommentDto commentDto) {
-        return post("/" + itemId + "/comment", userId, commentDto);
+        return invalidating(post("/" + itemId + "/comment", userId, commentDto), resource(itemId));
+    }
+
+    public static String resource(long itemId) {
+        return ITEM_RESOURCE_PREFIX + itemId;
+    }
+
+    // Новая вещь попадает в результаты поиска и в ответ на запрос, к которому добавлена
+    static String[] createdItemResources(ItemDto itemDto) {
+        if (itemDto.getRequestId() == null) {
+            return new String[]{SEARCH_RESOURCE};
+        }
+        return new String[]{SEARCH_RESOURCE, ItemRequestClient.resource(itemDto.getRequestId())};
     }
 }
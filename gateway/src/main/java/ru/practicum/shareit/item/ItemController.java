@@ -3,14 +3,20 @@ package ru.practicum.shareit.item;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityCheckDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
+
 @Slf4j
 @RestController
+@Profile("!reactive")
 @RequestMapping("/items")
 @RequiredArgsConstructor
 public class ItemController {
@@ -34,6 +40,21 @@ public class ItemController {
         return itemClient.getItemById(itemId, userId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getAvailability(@PathVariable Long itemId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "false") boolean includeWaiting) {
+        log.info("Gateway: GET /items/{}/availability?from={}&to={} - Getting item availability", itemId, from, to);
+        return itemClient.getAvailability(itemId, from, to, includeWaiting);
+    }
+
+    @PostMapping("/availability")
+    public ResponseEntity<Object> checkAvailability(@Valid @RequestBody ItemAvailabilityCheckDto checkDto) {
+        log.info("Gateway: POST /items/availability - Checking availability of {} items", checkDto.getItemIds().size());
+        return itemClient.checkAvailability(checkDto);
+    }
+
     @GetMapping
     public ResponseEntity<Object> getByOwner(@RequestHeader(USER_ID_HEADER) Long userId) {
         log.info("Gateway: GET /items - Getting all items for user: {}", userId);
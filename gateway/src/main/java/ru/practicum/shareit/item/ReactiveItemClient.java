@@ -0,0 +1,84 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityCheckDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+@Service
+@Profile("reactive")
+public class ReactiveItemClient extends ReactiveBaseClient {
+    private static final String API_PREFIX = "/items";
+
+    public ReactiveItemClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                              ClientHttpConnector serverConnector, ResponseCache responseCache) {
+        super(
+                builder
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .clientConnector(serverConnector)
+                        .build(),
+                responseCache);
+    }
+
+    public Mono<ResponseEntity<byte[]>> createItem(long userId, ItemDto itemDto) {
+        return invalidating(post("", userId, itemDto), ItemClient.createdItemResources(itemDto));
+    }
+
+    public Mono<ResponseEntity<byte[]>> getItemById(long itemId, Long userId) {
+        return cachedGet(ItemClient.resource(itemId), "/" + itemId, userId, null);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getAvailability(long itemId, LocalDateTime from, LocalDateTime to,
+                                                        boolean includeWaiting) {
+        StringBuilder path = new StringBuilder("/" + itemId + "/availability?includeWaiting={includeWaiting}");
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("includeWaiting", includeWaiting);
+        if (from != null) {
+            path.append("&from={from}");
+            parameters.put("from", from);
+        }
+        if (to != null) {
+            path.append("&to={to}");
+            parameters.put("to", to);
+        }
+        return get(path.toString(), null, parameters);
+    }
+
+    public Mono<ResponseEntity<byte[]>> checkAvailability(ItemAvailabilityCheckDto checkDto) {
+        return post("/availability", checkDto);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getItemsByOwner(long userId) {
+        return get("", userId);
+    }
+
+    public Mono<ResponseEntity<byte[]>> updateItem(long userId, long itemId, ItemDto itemDto) {
+        return invalidating(patch("/" + itemId, userId, itemDto), ItemClient.resource(itemId),
+                ItemClient.SEARCH_RESOURCE);
+    }
+
+    public Mono<ResponseEntity<byte[]>> deleteItem(long userId, long itemId) {
+        return invalidating(delete("/" + itemId, userId), ItemClient.resource(itemId), ItemClient.SEARCH_RESOURCE);
+    }
+
+    public Mono<ResponseEntity<byte[]>> searchItems(String text) {
+        Map<String, Object> parameters = Map.of("text", text);
+        return cachedGet(ItemClient.SEARCH_RESOURCE, "/search?text={text}", null, parameters);
+    }
+
+    public Mono<ResponseEntity<byte[]>> addComment(long userId, long itemId, CommentDto commentDto) {
+        return invalidating(post("/" + itemId + "/comment", userId, commentDto), ItemClient.resource(itemId));
+    }
+}
@@ -0,0 +1,94 @@
+package ru.practicum.shareit.item;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityCheckDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.LocalDateTime;
+
+@Slf4j
+@RestController
+@Profile("reactive")
+@RequestMapping("/items")
+@RequiredArgsConstructor
+public class ReactiveItemController {
+
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    private final ReactiveItemClient itemClient;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<ResponseEntity<byte[]>> create(@RequestHeader(USER_ID_HEADER) Long userId,
+            @Valid @RequestBody ItemDto itemDto) {
+        log.info("Gateway: POST /items - Creating item for user: {}", userId);
+        return itemClient.createItem(userId, itemDto);
+    }
+
+    @GetMapping("/{itemId}")
+    public Mono<ResponseEntity<byte[]>> getById(@PathVariable Long itemId,
+            @RequestHeader(value = USER_ID_HEADER, required = false) Long userId) {
+        log.info("Gateway: GET /items/{} - Getting item by id", itemId);
+        return itemClient.getItemById(itemId, userId);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public Mono<ResponseEntity<byte[]>> getAvailability(@PathVariable Long itemId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "false") boolean includeWaiting) {
+        log.info("Gateway: GET /items/{}/availability?from={}&to={} - Getting item availability", itemId, from, to);
+        return itemClient.getAvailability(itemId, from, to, includeWaiting);
+    }
+
+    @PostMapping("/availability")
+    public Mono<ResponseEntity<byte[]>> checkAvailability(@Valid @RequestBody ItemAvailabilityCheckDto checkDto) {
+        log.info("Gateway: POST /items/availability - Checking availability of {} items", checkDto.getItemIds().size());
+        return itemClient.checkAvailability(checkDto);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<byte[]>> getByOwner(@RequestHeader(USER_ID_HEADER) Long userId) {
+        log.info("Gateway: GET /items - Getting all items for user: {}", userId);
+        return itemClient.getItemsByOwner(userId);
+    }
+
+    @PatchMapping("/{itemId}")
+    public Mono<ResponseEntity<byte[]>> update(@RequestHeader(USER_ID_HEADER) Long userId,
+            @PathVariable Long itemId,
+            @RequestBody ItemDto itemDto) {
+        log.info("Gateway: PATCH /items/{} - Updating item for user: {}", itemId, userId);
+        return itemClient.updateItem(userId, itemId, itemDto);
+    }
+
+    @DeleteMapping("/{itemId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<ResponseEntity<byte[]>> delete(@RequestHeader(USER_ID_HEADER) Long userId,
+            @PathVariable Long itemId) {
+        log.info("Gateway: DELETE /items/{} - Deleting item for user: {}", itemId, userId);
+        return itemClient.deleteItem(userId, itemId);
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<byte[]>> search(@RequestParam(defaultValue = "") String text) {
+        log.info("Gateway: GET /items/search?text={} - Searching items", text);
+        return itemClient.searchItems(text);
+    }
+
+    @PostMapping("/{itemId}/comment")
+    public Mono<ResponseEntity<byte[]>> addComment(@RequestHeader(USER_ID_HEADER) Long userId,
+            @PathVariable Long itemId,
+            @Valid @RequestBody CommentDto commentDto) {
+        log.info("Gateway: POST /items/{}/comment - User {} adding comment", itemId, userId);
+        return itemClient.addComment(userId, itemId, commentDto);
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.item.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemAvailabilityCheckDto {
+
+    @NotEmpty(message = "Item IDs must be specified")
+    @Size(max = 100, message = "No more than 100 items per request")
+    private List<@NotNull(message = "Item ID must not be null") Long> itemIds;
+
+    @NotNull(message = "Start date must be specified")
+    private LocalDateTime from;
+
+    @NotNull(message = "End date must be specified")
+    private LocalDateTime to;
+
+    private boolean includeWaiting;
+}
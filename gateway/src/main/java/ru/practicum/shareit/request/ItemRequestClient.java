@@ -3,24 +3,32 @@ package ru.practicum.shareit.request;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 @Service
+@Profile("!reactive")
 public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                             ClientHttpRequestFactory serverRequestFactory,
+                             @Value("${shareit-server.passthrough:true}") boolean passthrough,
+                             ResponseCache responseCache) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                        .build());
+                        .requestFactory(() -> serverRequestFactory)
+                        .build(),
+                passthrough,
+                responseCache);
     }
 
     public ResponseEntity<Object> createRequest(long userId, ItemRequestDto requestDto) {
@@ -36,6 +44,10 @@ public class ItemRequestClient extends BaseClient {
     }
 
     public ResponseEntity<Object> getRequestById(long userId, long requestId) {
-        return get("/" + requestId, userId);
+        return cachedGet(resource(requestId), "/" + requestId, userId, null);
+    }
+
+    public static String resource(long requestId) {
+        return API_PREFIX + "/" + requestId;
     }
 }
@@ -3,6 +3,7 @@ package ru.practicum.shareit.request;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -10,6 +11,7 @@ import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 @Slf4j
 @RestController
+@Profile("!reactive")
 @RequestMapping(path = "/requests")
 @RequiredArgsConstructor
 public class ItemRequestController {
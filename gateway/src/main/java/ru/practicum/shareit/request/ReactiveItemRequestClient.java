@@ -0,0 +1,44 @@
+package ru.practicum.shareit.request;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+
+@Service
+@Profile("reactive")
+public class ReactiveItemRequestClient extends ReactiveBaseClient {
+    private static final String API_PREFIX = "/requests";
+
+    public ReactiveItemRequestClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                                     ClientHttpConnector serverConnector, ResponseCache responseCache) {
+        super(
+                builder
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .clientConnector(serverConnector)
+                        .build(),
+                responseCache);
+    }
+
+    public Mono<ResponseEntity<byte[]>> createRequest(long userId, ItemRequestDto requestDto) {
+        return post("", userId, requestDto);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getUserRequests(long userId) {
+        return get("", userId);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getAllRequests(long userId) {
+        return get("/all", userId);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getRequestById(long userId, long requestId) {
+        return cachedGet(ItemRequestClient.resource(requestId), "/" + requestId, userId, null);
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.request;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+
+@Slf4j
+@RestController
+@Profile("reactive")
+@RequestMapping(path = "/requests")
+@RequiredArgsConstructor
+public class ReactiveItemRequestController {
+
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    private final ReactiveItemRequestClient itemRequestClient;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<ResponseEntity<byte[]>> create(@RequestHeader(USER_ID_HEADER) Long userId,
+            @Valid @RequestBody ItemRequestDto itemRequestDto) {
+        log.info("Gateway: POST /requests - Creating item request for user: {}", userId);
+        return itemRequestClient.createRequest(userId, itemRequestDto);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<byte[]>> getUserRequests(@RequestHeader(USER_ID_HEADER) Long userId) {
+        log.info("Gateway: GET /requests - Getting item requests for user: {}", userId);
+        return itemRequestClient.getUserRequests(userId);
+    }
+
+    @GetMapping("/all")
+    public Mono<ResponseEntity<byte[]>> getAllRequests(@RequestHeader(USER_ID_HEADER) Long userId) {
+        log.info("Gateway: GET /requests/all - Getting all item requests for user: {}", userId);
+        return itemRequestClient.getAllRequests(userId);
+    }
+
+    @GetMapping("/{requestId}")
+    public Mono<ResponseEntity<byte[]>> getRequestById(@RequestHeader(USER_ID_HEADER) Long userId,
+            @PathVariable Long requestId) {
+        log.info("Gateway: GET /requests/{} - Getting item request by id for user: {}", requestId, userId);
+        return itemRequestClient.getRequestById(userId, requestId);
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.user;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.user.dto.UserDto;
+
+@Service
+@Profile("reactive")
+public class ReactiveUserClient extends ReactiveBaseClient {
+    private static final String API_PREFIX = "/users";
+
+    public ReactiveUserClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                              ClientHttpConnector serverConnector) {
+        super(
+                builder
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .clientConnector(serverConnector)
+                        .build()
+        );
+    }
+
+    public Mono<ResponseEntity<byte[]>> createUser(UserDto userDto) {
+        return post("", userDto);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getUserById(long userId) {
+        return get("/" + userId);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getAllUsers() {
+        return get("");
+    }
+
+    public Mono<ResponseEntity<byte[]>> updateUser(long userId, UserDto userDto) {
+        return patch("/" + userId, userDto);
+    }
+
+    public Mono<ResponseEntity<byte[]>> deleteUser(long userId) {
+        return delete("/" + userId);
+    }
+}
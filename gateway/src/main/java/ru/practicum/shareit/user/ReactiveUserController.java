@@ -0,0 +1,54 @@
+package ru.practicum.shareit.user;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.user.dto.UserDto;
+
+@Slf4j
+@RestController
+@Profile("reactive")
+@RequestMapping(path = "/users")
+@RequiredArgsConstructor
+public class ReactiveUserController {
+
+    private final ReactiveUserClient userClient;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<ResponseEntity<byte[]>> create(@Valid @RequestBody UserDto userDto) {
+        log.info("Gateway: POST /users - Creating user: {}", userDto.getName());
+        return userClient.createUser(userDto);
+    }
+
+    @GetMapping("/{userId}")
+    public Mono<ResponseEntity<byte[]>> getById(@PathVariable Long userId) {
+        log.info("Gateway: GET /users/{} - Getting user by id", userId);
+        return userClient.getUserById(userId);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<byte[]>> getAll() {
+        log.info("Gateway: GET /users - Getting all users");
+        return userClient.getAllUsers();
+    }
+
+    @PatchMapping("/{userId}")
+    public Mono<ResponseEntity<byte[]>> update(@PathVariable Long userId,
+            @RequestBody UserDto userDto) {
+        log.info("Gateway: PATCH /users/{} - Updating user", userId);
+        return userClient.updateUser(userId, userDto);
+    }
+
+    @DeleteMapping("/{userId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<ResponseEntity<byte[]>> delete(@PathVariable Long userId) {
+        log.info("Gateway: DELETE /users/{} - Deleting user", userId);
+        return userClient.deleteUser(userId);
+    }
+}
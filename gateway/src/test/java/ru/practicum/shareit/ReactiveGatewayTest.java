@@ -0,0 +1,174 @@
+package ru.practicum.shareit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Запросы к шлюзу в профиле {@code reactive}: контроллеры WebFlux, клиенты на WebClient, обработчик ошибок и кеш.
+ * Сервер - встроенный HttpServer JDK, который отвечает на пути /users и /items и запоминает полученные запросы.
+ */
+class ReactiveGatewayTest {
+
+    private static final String USER_JSON = "{\"id\":1,\"name\":\"User\",\"email\":\"user@mail.ru\"}";
+    private static final String ITEM_JSON = "{\"id\":1,\"name\":\"Drill\",\"description\":\"Drill\",\"available\":true}";
+    private static final String NOT_FOUND_JSON = "{\"error\":\"User with id 404 not found\"}";
+
+    private static final List<String> serverRequests = new CopyOnWriteArrayList<>();
+    private static HttpServer server;
+    private static ConfigurableApplicationContext reactiveContext;
+    private static WebTestClient client;
+
+    @BeforeAll
+    static void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/users", exchange -> {
+            record(exchange);
+            if (exchange.getRequestURI().getPath().equals("/users/404")) {
+                respond(exchange, 404, NOT_FOUND_JSON);
+            } else {
+                respond(exchange, 200, USER_JSON);
+            }
+        });
+        server.createContext("/items", exchange -> {
+            record(exchange);
+            respond(exchange, 200, ITEM_JSON);
+        });
+        server.createContext("/bookings", exchange -> {
+            record(exchange);
+            respond(exchange, 200, "{\"id\":5,\"item\":{\"id\":1}}");
+        });
+        server.start();
+
+        reactiveContext = ShareItGateway.application().run("--spring.profiles.active=reactive", "--server.port=0",
+                "--shareit-server.url=http://localhost:" + server.getAddress().getPort());
+        int port = ((ReactiveWebServerApplicationContext) reactiveContext).getWebServer().getPort();
+        client = WebTestClient.bindToServer().baseUrl("http://localhost:" + port).build();
+    }
+
+    @AfterAll
+    static void stop() {
+        if (reactiveContext != null) {
+            reactiveContext.close();
+        }
+        server.stop(0);
+    }
+
+    @BeforeEach
+    void clearRequests() {
+        serverRequests.clear();
+    }
+
+    @Test
+    void reactiveGet_shouldPassServerResponseThrough() {
+        client.get().uri("/users/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody().json(USER_JSON);
+
+        assertThat(serverRequests).containsExactly("GET /users/1 null");
+    }
+
+    @Test
+    void reactiveGet_shouldPassServerErrorThrough() {
+        client.get().uri("/users/404")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody().json(NOT_FOUND_JSON);
+    }
+
+    @Test
+    void reactivePost_shouldRejectInvalidBodyWithoutCallingServer() {
+        client.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"User\",\"email\":\"not-an-email\"}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("Invalid email format");
+
+        assertThat(serverRequests).isEmpty();
+    }
+
+    @Test
+    void reactiveRequest_withoutUserIdHeader_shouldReturnBadRequest() {
+        client.get().uri("/items")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").exists();
+
+        assertThat(serverRequests).isEmpty();
+    }
+
+    @Test
+    void reactiveItemGet_shouldBeCachedUntilItemIsUpdated() {
+        client.get().uri("/items/1").header("X-Sharer-User-Id", "7")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().json(ITEM_JSON);
+        client.get().uri("/items/1").header("X-Sharer-User-Id", "7")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().json(ITEM_JSON);
+
+        assertThat(serverRequests).containsExactly("GET /items/1 7");
+
+        client.patch().uri("/items/1").header("X-Sharer-User-Id", "7")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"Hammer\"}")
+                .exchange()
+                .expectStatus().isOk();
+        client.get().uri("/items/1").header("X-Sharer-User-Id", "7")
+                .exchange()
+                .expectStatus().isOk();
+
+        assertThat(serverRequests).containsExactly("GET /items/1 7", "PATCH /items/1 7", "GET /items/1 7");
+    }
+
+    @Test
+    void reactiveApprove_shouldRefetchOwnersItemView() {
+        client.get().uri("/items/2").header("X-Sharer-User-Id", "7")
+                .exchange()
+                .expectStatus().isOk();
+
+        client.patch().uri("/bookings/5?approved=true").header("X-Sharer-User-Id", "7")
+                .exchange()
+                .expectStatus().isOk();
+        client.get().uri("/items/2").header("X-Sharer-User-Id", "7")
+                .exchange()
+                .expectStatus().isOk();
+
+        assertThat(serverRequests).containsExactly("GET /items/2 7", "PATCH /bookings/5 7", "GET /items/2 7");
+    }
+
+    private static void record(HttpExchange exchange) {
+        serverRequests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath() + " "
+                + exchange.getRequestHeaders().getFirst("X-Sharer-User-Id"));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getRequestBody().readAllBytes();
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
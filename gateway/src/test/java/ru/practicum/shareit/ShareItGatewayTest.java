@@ -0,0 +1,43 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.embedded.netty.NettyWebServer;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Выбор стека при запуске через {@link ShareItGateway#application()}: Spring MVC и WebFlux оба в classpath.
+ * Сервер не нужен: соединения с ним при старте не открываются.
+ */
+class ShareItGatewayTest {
+
+    @Test
+    void reactiveProfile_shouldStartWebFluxOnNetty() {
+        try (ConfigurableApplicationContext context = run("--spring.profiles.active=reactive")) {
+            assertThat(context).isInstanceOf(ReactiveWebServerApplicationContext.class);
+            assertThat(((ReactiveWebServerApplicationContext) context).getWebServer())
+                    .isInstanceOf(NettyWebServer.class);
+        }
+    }
+
+    @Test
+    void defaultProfile_shouldStartSpringMvcOnTomcat() {
+        try (ConfigurableApplicationContext context = run()) {
+            assertThat(context).isInstanceOf(ServletWebServerApplicationContext.class);
+            assertThat(((ServletWebServerApplicationContext) context).getWebServer())
+                    .isInstanceOf(TomcatWebServer.class);
+        }
+    }
+
+    private static ConfigurableApplicationContext run(String... args) {
+        String[] common = {"--server.port=0", "--shareit-server.http.prewarm=0"};
+        String[] all = new String[common.length + args.length];
+        System.arraycopy(common, 0, all, 0, common.length);
+        System.arraycopy(args, 0, all, common.length, args.length);
+        return ShareItGateway.application().run(all);
+    }
+}
@@ -0,0 +1,132 @@
+package ru.practicum.shareit.booking;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import ru.practicum.shareit.booking.dto.BookingBulkApproveDto;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.item.ItemClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Бронирования через шлюз сбрасывают закешированные ответы на GET /items/{id}: владелец сразу видит новое
+ * последнее и следующее бронирование. Сервер - встроенный HttpServer JDK, запоминающий полученные запросы.
+ */
+class BookingClientTest {
+
+    private static final long OWNER_ID = 7;
+    private static final long OTHER_USER_ID = 8;
+
+    private static final List<String> serverRequests = new CopyOnWriteArrayList<>();
+    private static HttpServer server;
+
+    private ItemClient itemClient;
+    private BookingClient bookingClient;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/items", exchange -> respond(exchange, 200, "{\"id\":1,\"name\":\"Drill\"}"));
+        server.createContext("/bookings", exchange -> {
+            if (exchange.getRequestURI().getPath().equals("/bookings/404")) {
+                respond(exchange, 404, "{\"error\":\"Booking not found\"}");
+            } else {
+                respond(exchange, 200, "{\"id\":5,\"item\":{\"id\":1}}");
+            }
+        });
+        server.start();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop(0);
+    }
+
+    @BeforeEach
+    void setUp() {
+        String serverUrl = "http://localhost:" + server.getAddress().getPort();
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory();
+        ResponseCache cache = new ResponseCache(new SimpleMeterRegistry(), true, 100, 60_000);
+        itemClient = new ItemClient(serverUrl, new RestTemplateBuilder(), requestFactory, true, cache);
+        bookingClient = new BookingClient(serverUrl, new RestTemplateBuilder(), requestFactory, true, cache);
+        serverRequests.clear();
+    }
+
+    @Test
+    void approveBooking_shouldRefetchOwnersItemsOnly() {
+        itemClient.getItemById(1, OWNER_ID);
+        itemClient.getItemById(1, OTHER_USER_ID);
+
+        bookingClient.approveBooking(OWNER_ID, 5, true);
+        itemClient.getItemById(1, OWNER_ID);
+        itemClient.getItemById(1, OTHER_USER_ID);
+
+        assertThat(serverRequests).containsExactly(
+                "GET /items/1 7", "GET /items/1 8", "PATCH /bookings/5 7", "GET /items/1 7");
+    }
+
+    @Test
+    void approveBookings_shouldRefetchOwnersItems() {
+        itemClient.getItemById(1, OWNER_ID);
+
+        bookingClient.approveBookings(OWNER_ID, new BookingBulkApproveDto());
+        itemClient.getItemById(1, OWNER_ID);
+
+        assertThat(serverRequests).containsExactly("GET /items/1 7", "PATCH /bookings/bulk 7", "GET /items/1 7");
+    }
+
+    @Test
+    void createBooking_shouldRefetchItemForAllUsers() {
+        itemClient.getItemById(1, OWNER_ID);
+        itemClient.getItemById(1, OTHER_USER_ID);
+
+        bookingClient.createBooking(OTHER_USER_ID, BookingCreateDto.builder()
+                .itemId(1L)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build());
+        itemClient.getItemById(1, OWNER_ID);
+        itemClient.getItemById(1, OTHER_USER_ID);
+
+        assertThat(serverRequests).containsExactly("GET /items/1 7", "GET /items/1 8", "POST /bookings 8",
+                "GET /items/1 7", "GET /items/1 8");
+    }
+
+    @Test
+    void failedApprove_shouldKeepCachedItems() {
+        itemClient.getItemById(1, OWNER_ID);
+
+        assertThat(bookingClient.approveBooking(OWNER_ID, 404, true).getStatusCode().value()).isEqualTo(404);
+        itemClient.getItemById(1, OWNER_ID);
+
+        assertThat(serverRequests).containsExactly("GET /items/1 7", "PATCH /bookings/404 7");
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        serverRequests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath() + " "
+                + exchange.getRequestHeaders().getFirst("X-Sharer-User-Id"));
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getRequestBody().readAllBytes();
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Нагрузочное сравнение режимов BaseClient на большом списке бронирований: разбор ответа в объекты
+ * с повторной сериализацией (как делает Spring MVC для {@code ResponseEntity<Object>}) против передачи байтов.
+ * Сервер - встроенный HttpServer JDK, отдающий заранее готовый JSON, поэтому в замер попадает только шлюз.
+ * <p>
+ * Не входит в обычную сборку, запуск:
+ * {@code mvn -pl gateway test -Dtest=BaseClientPassthroughBenchmark -Dbenchmark=true -Dsurefire.failIfNoSpecifiedTests=false}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BaseClientPassthroughBenchmark {
+
+    private static final int BOOKINGS = 1000;
+    private static final int WARMUP_ITERATIONS = 300;
+    private static final int MEASURED_ITERATIONS = 1000;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static HttpServer server;
+    private static byte[] bookingsJson;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        bookingsJson = objectMapper.writeValueAsBytes(bookings());
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/bookings", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bookingsJson.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(bookingsJson);
+            }
+        });
+        server.start();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void passthrough_shouldAllocateLessThanReserialization() throws IOException {
+        Result buffered = measure(new BookingListClient(restTemplate(), false));
+        Result passthrough = measure(new BookingListClient(restTemplate(), true));
+
+        System.out.printf("Booking list of %d bookings, %d KB%n", BOOKINGS, bookingsJson.length / 1024);
+        System.out.printf("buffered:    %8.0f ops/s, %10d bytes/op%n", buffered.opsPerSecond(), buffered.bytesPerOp());
+        System.out.printf("passthrough: %8.0f ops/s, %10d bytes/op%n", passthrough.opsPerSecond(), passthrough.bytesPerOp());
+
+        assertThat(passthrough.bytesPerOp()).isLessThan(buffered.bytesPerOp());
+    }
+
+    private static Result measure(BookingListClient client) throws IOException {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            respond(client.getBookings());
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long started = System.nanoTime();
+        long written = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            written += respond(client.getBookings());
+        }
+        long elapsed = System.nanoTime() - started;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        assertThat(written).isGreaterThanOrEqualTo((long) bookingsJson.length * MEASURED_ITERATIONS);
+        return new Result(MEASURED_ITERATIONS * 1e9 / elapsed, allocated / MEASURED_ITERATIONS);
+    }
+
+    // То, что делает с телом ответа Spring MVC: байты пишутся как есть, объекты сериализуются Jackson
+    private static int respond(ResponseEntity<Object> response) throws IOException {
+        Object body = response.getBody();
+        byte[] bytes = body instanceof byte[] raw ? raw : objectMapper.writeValueAsBytes(body);
+        OutputStream.nullOutputStream().write(bytes);
+        return bytes.length;
+    }
+
+    private static RestTemplate restTemplate() {
+        return new RestTemplateBuilder()
+                .rootUri("http://localhost:" + server.getAddress().getPort())
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
+                .build();
+    }
+
+    private static List<Map<String, Object>> bookings() {
+        List<Map<String, Object>> bookings = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 10, 0);
+        for (int i = 0; i < BOOKINGS; i++) {
+            Map<String, Object> booking = new LinkedHashMap<>();
+            booking.put("id", i);
+            booking.put("start", start.plusDays(i).toString());
+            booking.put("end", start.plusDays(i + 1).toString());
+            booking.put("item", Map.of("id", i % 50, "name", "Item " + (i % 50)));
+            booking.put("booker", Map.of("id", 7, "name", "Booker"));
+            booking.put("status", i % 3 == 0 ? "WAITING" : "APPROVED");
+            bookings.add(booking);
+        }
+        return bookings;
+    }
+
+    private record Result(double opsPerSecond, long bytesPerOp) {
+    }
+
+    private static class BookingListClient extends BaseClient {
+
+        BookingListClient(RestTemplate rest, boolean passthrough) {
+            super(rest, passthrough);
+        }
+
+        ResponseEntity<Object> getBookings() {
+            return get("/bookings", 7L, null);
+        }
+    }
+}
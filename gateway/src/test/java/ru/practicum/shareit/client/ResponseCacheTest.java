@@ -0,0 +1,312 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheTest {
+
+    private static final long TTL_MS = 60_000;
+    private static final ResponseCache.Key ITEM_KEY = ResponseCache.key("/items/1", "/1", null, 7L);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void key_shouldExpandParametersAndSeparateUsers() {
+        ResponseCache.Key key = ResponseCache.key("/items/search", "/search?text={text}", Map.of("text", "drill"), null);
+
+        assertThat(key.uri()).isEqualTo("/search?text=drill");
+        assertThat(ResponseCache.key("/items/1", "/1", null, 7L)).isEqualTo(ITEM_KEY);
+        assertThat(ResponseCache.key("/items/1", "/1", null, 8L)).isNotEqualTo(ITEM_KEY);
+    }
+
+    @Test
+    void lookup_afterStoredOk_shouldReturnFreshResponse() {
+        ResponseCache cache = cache(10, TTL_MS);
+        ResponseEntity<byte[]> response = ok("item");
+
+        ResponseCache.Lookup miss = cache.lookup(ITEM_KEY);
+        assertThat(miss.isFresh()).isFalse();
+        assertThat(miss.entry()).isNull();
+        assertThat(cache.complete(miss, response)).isSameAs(response);
+
+        ResponseCache.Lookup hit = cache.lookup(ITEM_KEY);
+        assertThat(hit.isFresh()).isTrue();
+        assertThat(body(hit.response())).isEqualTo("item");
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void lookup_afterTtl_shouldRemoveEntryWithoutEtag() throws InterruptedException {
+        ResponseCache cache = cache(10, 20);
+        cache.complete(cache.lookup(ITEM_KEY), ok("item"));
+
+        TimeUnit.MILLISECONDS.sleep(50);
+        ResponseCache.Lookup lookup = cache.lookup(ITEM_KEY);
+
+        assertThat(lookup.isFresh()).isFalse();
+        assertThat(lookup.entry()).isNull();
+        assertThat(cache.size()).isZero();
+        assertThat(evictions("expired")).isEqualTo(1);
+    }
+
+    @Test
+    void lookup_afterTtl_shouldKeepEntryWithEtagForRevalidation() throws InterruptedException {
+        ResponseCache cache = cache(10, 20);
+        cache.complete(cache.lookup(ITEM_KEY), ok("item", "\"v1\"", null));
+
+        TimeUnit.MILLISECONDS.sleep(50);
+        ResponseCache.Lookup lookup = cache.lookup(ITEM_KEY);
+
+        assertThat(lookup.isFresh()).isFalse();
+        assertThat(lookup.etag()).isEqualTo("\"v1\"");
+        assertThat(evictions("expired")).isZero();
+    }
+
+    @Test
+    void store_overMaxSize_shouldEvictLeastRecentlyUsed() {
+        ResponseCache cache = cache(2, TTL_MS);
+        ResponseCache.Key first = ResponseCache.key("/items/1", "/1", null, null);
+        ResponseCache.Key second = ResponseCache.key("/items/2", "/2", null, null);
+        ResponseCache.Key third = ResponseCache.key("/items/3", "/3", null, null);
+        cache.complete(cache.lookup(first), ok("first"));
+        cache.complete(cache.lookup(second), ok("second"));
+
+        // first использована позже second, вытесняется second
+        assertThat(cache.lookup(first).isFresh()).isTrue();
+        cache.complete(cache.lookup(third), ok("third"));
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.lookup(first).isFresh()).isTrue();
+        assertThat(cache.lookup(second).entry()).isNull();
+        assertThat(cache.lookup(third).isFresh()).isTrue();
+        assertThat(evictions("size")).isEqualTo(1);
+    }
+
+    @Test
+    void invalidate_shouldRemoveAllEntriesOfResource() {
+        ResponseCache cache = cache(10, TTL_MS);
+        ResponseCache.Key otherUser = ResponseCache.key("/items/1", "/1", null, 8L);
+        ResponseCache.Key otherItem = ResponseCache.key("/items/2", "/2", null, 7L);
+        cache.complete(cache.lookup(ITEM_KEY), ok("item"));
+        cache.complete(cache.lookup(otherUser), ok("item"));
+        cache.complete(cache.lookup(otherItem), ok("other"));
+
+        cache.invalidate("/items/1");
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.lookup(otherItem).isFresh()).isTrue();
+        assertThat(evictions("invalidated")).isEqualTo(2);
+    }
+
+    @Test
+    void invalidateForUser_shouldRemoveOnlyUsersEntriesUnderPrefix() {
+        ResponseCache cache = cache(10, TTL_MS);
+        ResponseCache.Key otherItem = ResponseCache.key("/items/2", "/2", null, 7L);
+        ResponseCache.Key otherUser = ResponseCache.key("/items/1", "/1", null, 8L);
+        ResponseCache.Key search = ResponseCache.key("/items/search", "/search?text={text}", Map.of("text", "d"), null);
+        ResponseCache.Key request = ResponseCache.key("/requests/1", "/1", null, 7L);
+        for (ResponseCache.Key key : List.of(ITEM_KEY, otherItem, otherUser, search, request)) {
+            cache.complete(cache.lookup(key), ok("body"));
+        }
+
+        cache.invalidateForUser("/items/", 7L);
+
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.lookup(ITEM_KEY).entry()).isNull();
+        assertThat(cache.lookup(otherItem).entry()).isNull();
+        assertThat(cache.lookup(otherUser).isFresh()).isTrue();
+        assertThat(cache.lookup(search).isFresh()).isTrue();
+        assertThat(cache.lookup(request).isFresh()).isTrue();
+        assertThat(evictions("invalidated")).isEqualTo(2);
+    }
+
+    @Test
+    void invalidate_duringRequest_shouldNotStoreResponse() {
+        ResponseCache cache = cache(10, TTL_MS);
+        ResponseCache.Lookup lookup = cache.lookup(ITEM_KEY);
+
+        cache.invalidate("/items/1");
+        ResponseEntity<byte[]> response = ok("read before update");
+
+        assertThat(cache.complete(lookup, response)).isSameAs(response);
+        assertThat(cache.size()).isZero();
+        assertThat(cache.lookup(ITEM_KEY).entry()).isNull();
+    }
+
+    @Test
+    void store_withNoStoreOrPrivate_shouldNotCache() {
+        ResponseCache cache = cache(10, TTL_MS);
+
+        cache.complete(cache.lookup(ITEM_KEY), ok("item", null, "no-store"));
+        assertThat(cache.size()).isZero();
+
+        cache.complete(cache.lookup(ITEM_KEY), ok("item", "\"v1\"", "private, max-age=60"));
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void store_withNoCache_shouldKeepOnlyEntryWithEtagAndAlwaysRevalidate() {
+        ResponseCache cache = cache(10, TTL_MS);
+
+        cache.complete(cache.lookup(ITEM_KEY), ok("item", null, "no-cache"));
+        assertThat(cache.size()).isZero();
+
+        cache.complete(cache.lookup(ITEM_KEY), ok("item", "\"v1\"", "no-cache, max-age=60"));
+        ResponseCache.Lookup lookup = cache.lookup(ITEM_KEY);
+        assertThat(lookup.isFresh()).isFalse();
+        assertThat(lookup.etag()).isEqualTo("\"v1\"");
+    }
+
+    @Test
+    void store_withMaxAge_shouldUseItUpToConfiguredTtl() {
+        ResponseCache cache = cache(10, TTL_MS);
+
+        cache.complete(cache.lookup(ITEM_KEY), ok("item", null, "max-age=10"));
+        assertThat(freshNanos(cache)).isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(10));
+
+        cache.complete(cache.lookup(ITEM_KEY), ok("item", null, "max-age=3600"));
+        assertThat(freshNanos(cache)).isGreaterThan(TimeUnit.SECONDS.toNanos(10))
+                .isLessThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(TTL_MS));
+    }
+
+    @Test
+    void store_withSharedMaxAge_shouldPreferItOverMaxAge() {
+        ResponseCache cache = cache(10, TTL_MS);
+
+        cache.complete(cache.lookup(ITEM_KEY), ok("item", null, "max-age=0, s-maxage=10"));
+        assertThat(cache.lookup(ITEM_KEY).isFresh()).isTrue();
+
+        cache.invalidate("/items/1");
+        cache.complete(cache.lookup(ITEM_KEY), ok("item", null, "s-maxage=0, max-age=10"));
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void store_withQuotedOrInvalidMaxAge_shouldParseOrTreatAsZero() {
+        ResponseCache cache = cache(10, TTL_MS);
+
+        cache.complete(cache.lookup(ITEM_KEY), ok("item", null, "max-age=\"10\""));
+        assertThat(cache.lookup(ITEM_KEY).isFresh()).isTrue();
+
+        cache.invalidate("/items/1");
+        cache.complete(cache.lookup(ITEM_KEY), ok("item", null, "max-age=ten"));
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void complete_withNotModified_shouldReturnStoredBodyAndRefreshEntry() {
+        ResponseCache cache = cache(10, TTL_MS);
+        cache.complete(cache.lookup(ITEM_KEY), ok("item", "\"v1\"", "no-cache"));
+        ResponseCache.Lookup stale = cache.lookup(ITEM_KEY);
+
+        ResponseEntity<byte[]> response = cache.complete(stale, notModified("max-age=10"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(body(response)).isEqualTo("item");
+        ResponseCache.Lookup refreshed = cache.lookup(ITEM_KEY);
+        assertThat(refreshed.isFresh()).isTrue();
+        assertThat(refreshed.etag()).isEqualTo("\"v1\"");
+        assertThat(gets("revalidated")).isEqualTo(1);
+    }
+
+    @Test
+    void complete_withNewBodyOnRevalidation_shouldReplaceEntry() {
+        ResponseCache cache = cache(10, TTL_MS);
+        cache.complete(cache.lookup(ITEM_KEY), ok("item", "\"v1\"", "no-cache"));
+
+        ResponseEntity<byte[]> changed = ok("changed", "\"v2\"", null);
+        assertThat(cache.complete(cache.lookup(ITEM_KEY), changed)).isSameAs(changed);
+
+        ResponseCache.Lookup lookup = cache.lookup(ITEM_KEY);
+        assertThat(lookup.isFresh()).isTrue();
+        assertThat(body(lookup.response())).isEqualTo("changed");
+        assertThat(lookup.etag()).isEqualTo("\"v2\"");
+    }
+
+    @Test
+    void complete_withErrorOnRevalidation_shouldRemoveEntry() {
+        ResponseCache cache = cache(10, TTL_MS);
+        cache.complete(cache.lookup(ITEM_KEY), ok("item", "\"v1\"", "no-cache"));
+
+        ResponseEntity<byte[]> notFound = ResponseEntity.status(HttpStatus.NOT_FOUND).body(new byte[0]);
+        assertThat(cache.complete(cache.lookup(ITEM_KEY), notFound)).isSameAs(notFound);
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void metrics_shouldCountEachLookupOnceAndReportHitRatio() {
+        ResponseCache cache = cache(10, TTL_MS);
+        ResponseCache.Key etagKey = ResponseCache.key("/items/2", "/2", null, null);
+
+        // Промах без записи, затем попадание
+        cache.complete(cache.lookup(ITEM_KEY), ok("item"));
+        cache.lookup(ITEM_KEY);
+        // Промах без записи, затем проверка по ETag с 304 и с новым телом
+        cache.complete(cache.lookup(etagKey), ok("item", "\"v1\"", "no-cache"));
+        cache.complete(cache.lookup(etagKey), notModified("no-cache"));
+        cache.complete(cache.lookup(etagKey), ok("changed", "\"v2\"", "no-cache"));
+
+        assertThat(gets("hit")).isEqualTo(1);
+        assertThat(gets("revalidated")).isEqualTo(1);
+        assertThat(gets("miss")).isEqualTo(3);
+        assertThat(registry.get("shareit.gateway.cache.hit.ratio").gauge().value()).isEqualTo(2.0 / 5);
+        assertThat(registry.get("shareit.gateway.cache.size").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void hitRatio_withoutLookups_shouldBeZero() {
+        cache(10, TTL_MS);
+
+        assertThat(registry.get("shareit.gateway.cache.hit.ratio").gauge().value()).isZero();
+    }
+
+    private ResponseCache cache(int maxSize, long ttlMs) {
+        return new ResponseCache(registry, true, maxSize, ttlMs);
+    }
+
+    private long freshNanos(ResponseCache cache) {
+        return cache.lookup(ITEM_KEY).entry().expiresAtNanos() - System.nanoTime();
+    }
+
+    private double gets(String result) {
+        return registry.get("shareit.gateway.cache.gets").tag("result", result).counter().count();
+    }
+
+    private double evictions(String cause) {
+        return registry.get("shareit.gateway.cache.evictions").tag("cause", cause).counter().count();
+    }
+
+    private static ResponseEntity<byte[]> ok(String body) {
+        return ok(body, null, null);
+    }
+
+    private static ResponseEntity<byte[]> ok(String body, String etag, String cacheControl) {
+        HttpHeaders headers = new HttpHeaders();
+        if (etag != null) {
+            headers.setETag(etag);
+        }
+        if (cacheControl != null) {
+            headers.setCacheControl(cacheControl);
+        }
+        return ResponseEntity.ok().headers(headers).body(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ResponseEntity<byte[]> notModified(String cacheControl) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).header(HttpHeaders.CACHE_CONTROL, cacheControl).build();
+    }
+
+    private static String body(ResponseEntity<byte[]> response) {
+        return new String(response.getBody(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка ленты бронирований арендатора {@code booker_timeline}: всё, что нужно для ответа на список бронирований,
+ * без join с вещами и пользователями. Id совпадает с id бронирования, в том числе после переноса в архив.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "booker_timeline")
+public class BookerTimelineEntry {
+
+    @Id
+    @Column(name = "booking_id")
+    private Long id;
+
+    @Column(name = "booker_id", nullable = false)
+    private Long bookerId;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDateTime start;
+
+    @Column(name = "end_date", nullable = false)
+    private LocalDateTime end;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 50)
+    private BookingStatus status;
+
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Column(name = "item_name", nullable = false)
+    private String itemName;
+
+    @Column(name = "booker_name", nullable = false)
+    private String bookerName;
+}
@@ -36,7 +36,22 @@ public class Booking {
     @JoinColumn(name = "booker_id", nullable = false)
     private User booker;
 
+    // Владелец вещи, копия items.owner_id: запросы владельца обходятся без join с items
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false, length = 50)
     private BookingStatus status;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @PrePersist
+    private void fillOwnerId() {
+        if (ownerId == null && item != null && item.getOwner() != null) {
+            ownerId = item.getOwner().getId();
+        }
+    }
 }
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Позиция в списке бронирований, упорядоченном по (start desc, id desc).
+ * Клиенту передаётся непрозрачной строкой, которую он возвращает для получения следующей страницы.
+ */
+public record BookingCursor(LocalDateTime start, Long id) {
+
+    // Позиция перед первой строкой: любое бронирование идёт после неё
+    public static final BookingCursor FIRST = new BookingCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = start + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static BookingCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new ValidationException("Invalid cursor: " + token);
+            }
+            return new BookingCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ValidationException("Invalid cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.booking;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Страница, заданная смещением в строках, а не номером: from не обязан быть кратен size.
+ * Порядок строк задают сами запросы репозиториев, поэтому сортировки у страницы нет.
+ */
+@EqualsAndHashCode
+@ToString
+public final class OffsetPageRequest implements Pageable {
+
+    private final long offset;
+    private final int size;
+
+    public OffsetPageRequest(long offset, int size) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset must not be negative");
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Size must be positive");
+        }
+        this.offset = offset;
+        this.size = size;
+    }
+
+    @Override
+    public int getPageNumber() {
+        return (int) (offset / size);
+    }
+
+    @Override
+    public int getPageSize() {
+        return size;
+    }
+
+    @Override
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public Sort getSort() {
+        return Sort.unsorted();
+    }
+
+    @Override
+    public Pageable next() {
+        return new OffsetPageRequest(offset + size, size);
+    }
+
+    @Override
+    public Pageable previousOrFirst() {
+        return hasPrevious() ? new OffsetPageRequest(Math.max(0, offset - size), size) : first();
+    }
+
+    @Override
+    public Pageable first() {
+        return new OffsetPageRequest(0, size);
+    }
+
+    @Override
+    public Pageable withPage(int pageNumber) {
+        return new OffsetPageRequest((long) pageNumber * size, size);
+    }
+
+    @Override
+    public boolean hasPrevious() {
+        return offset > 0;
+    }
+}
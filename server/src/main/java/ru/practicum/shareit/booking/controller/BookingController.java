@@ -2,10 +2,18 @@ package ru.practicum.shareit.booking.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.BookingCursor;
 import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.dto.BookingBulkApproveDto;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.service.BookingExporter;
 import ru.practicum.shareit.booking.service.BookingService;
 
 import java.util.List;
@@ -17,8 +25,10 @@ import java.util.List;
 public class BookingController {
 
     private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
     private final BookingService bookingService;
+    private final BookingExporter bookingExporter;
 
     @PostMapping
     public BookingResponseDto create(@RequestHeader(USER_ID_HEADER) Long userId,
@@ -35,6 +45,13 @@ public class BookingController {
         return bookingService.approve(userId, bookingId, approved);
     }
 
+    @PatchMapping("/bulk")
+    public List<BookingDecisionResultDto> approveAll(@RequestHeader(USER_ID_HEADER) Long userId,
+                                                     @RequestBody BookingBulkApproveDto bulkDto) {
+        log.info("PATCH /bookings/bulk - owner: {}", userId);
+        return bookingService.approveAll(userId, bulkDto);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingResponseDto getById(@RequestHeader(USER_ID_HEADER) Long userId,
                                       @PathVariable Long bookingId) {
@@ -43,16 +60,67 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingResponseDto> getAllByBooker(@RequestHeader(USER_ID_HEADER) Long userId,
-                                                   @RequestParam(defaultValue = "ALL") BookingState state) {
-        log.info("GET /bookings - booker: {}, state: {}", userId, state);
-        return bookingService.getAllByBooker(userId, state);
+    public ResponseEntity<List<BookingResponseDto>> getAllByBooker(@RequestHeader(USER_ID_HEADER) Long userId,
+                                                                   @RequestParam(defaultValue = "ALL") BookingState state,
+                                                                   @RequestParam(defaultValue = "0") Integer from,
+                                                                   @RequestParam(defaultValue = "10") Integer size,
+                                                                   @RequestParam(required = false) String cursor) {
+        log.info("GET /bookings - booker: {}, state: {}, from: {}, size: {}, cursor: {}",
+                userId, state, from, size, cursor);
+        return withNextCursor(bookingService.getAllByBooker(userId, state, from, size, cursor), size);
     }
 
     @GetMapping("/owner")
-    public List<BookingResponseDto> getAllByOwner(@RequestHeader(USER_ID_HEADER) Long userId,
-                                                  @RequestParam(defaultValue = "ALL") BookingState state) {
-        log.info("GET /bookings/owner - owner: {}, state: {}", userId, state);
-        return bookingService.getAllByOwner(userId, state);
+    public ResponseEntity<List<BookingResponseDto>> getAllByOwner(@RequestHeader(USER_ID_HEADER) Long userId,
+                                                                  @RequestParam(defaultValue = "ALL") BookingState state,
+                                                                  @RequestParam(defaultValue = "0") Integer from,
+                                                                  @RequestParam(defaultValue = "10") Integer size,
+                                                                  @RequestParam(required = false) String cursor) {
+        log.info("GET /bookings/owner - owner: {}, state: {}, from: {}, size: {}, cursor: {}",
+                userId, state, from, size, cursor);
+        return withNextCursor(bookingService.getAllByOwner(userId, state, from, size, cursor), size);
+    }
+
+    @GetMapping("/counts")
+    public BookingCountsDto getCountsByBooker(@RequestHeader(USER_ID_HEADER) Long userId) {
+        log.info("GET /bookings/counts - booker: {}", userId);
+        return bookingService.getCountsByBooker(userId);
+    }
+
+    @GetMapping("/owner/counts")
+    public BookingCountsDto getCountsByOwner(@RequestHeader(USER_ID_HEADER) Long userId) {
+        log.info("GET /bookings/owner/counts - owner: {}", userId);
+        return bookingService.getCountsByOwner(userId);
+    }
+
+    // Вся история бронирований пользователя, по одному бронированию на строку; пишется по мере чтения из базы
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportByBooker(@RequestHeader(USER_ID_HEADER) Long userId) {
+        log.info("GET /bookings/export - booker: {}", userId);
+        bookingExporter.requireUser(userId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> bookingExporter.exportByBooker(userId, out));
+    }
+
+    @GetMapping(value = "/owner/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportByOwner(@RequestHeader(USER_ID_HEADER) Long userId) {
+        log.info("GET /bookings/owner/export - owner: {}", userId);
+        bookingExporter.requireUser(userId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> bookingExporter.exportByOwner(userId, out));
+    }
+
+    // Полная страница - возможно, есть следующая: отдаём курсор на её начало
+    private static ResponseEntity<List<BookingResponseDto>> withNextCursor(List<BookingResponseDto> bookings,
+                                                                           int size) {
+        if (bookings.size() < size) {
+            return ResponseEntity.ok(bookings);
+        }
+        BookingResponseDto last = bookings.getLast();
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, new BookingCursor(last.getStart(), last.getId()).encode())
+                .body(bookings);
     }
 }
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingCountsDto {
+
+    private long all;
+
+    private long current;
+
+    private long past;
+
+    private long future;
+
+    private long waiting;
+
+    private long rejected;
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.BookingStatus;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingDecisionResultDto {
+
+    private Long bookingId;
+
+    private boolean success;
+
+    // Статус бронирования после обработки; null, если бронирование не найдено или недоступно
+    private BookingStatus status;
+
+    private String error;
+}
@@ -1,8 +1,11 @@
 package ru.practicum.shareit.booking.mapper;
 
 import lombok.experimental.UtilityClass;
+import ru.practicum.shareit.booking.ArchivedBooking;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.repository.BookerTimelineRow;
+import ru.practicum.shareit.booking.repository.BookingListRow;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
 
@@ -20,6 +23,51 @@ public class BookingMapper {
                 .build();
     }
 
+    public static BookingResponseDto toResponseDto(ArchivedBooking booking) {
+        return BookingResponseDto.builder()
+                .id(booking.getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .item(toItemShortDto(booking.getItem()))
+                .booker(toUserShortDto(booking.getBooker()))
+                .status(booking.getStatus())
+                .build();
+    }
+
+    public static BookingResponseDto toResponseDto(BookerTimelineRow row) {
+        return BookingResponseDto.builder()
+                .id(row.id())
+                .start(row.start())
+                .end(row.end())
+                .item(BookingResponseDto.ItemShortDto.builder()
+                        .id(row.itemId())
+                        .name(row.itemName())
+                        .build())
+                .booker(BookingResponseDto.UserShortDto.builder()
+                        .id(row.bookerId())
+                        .name(row.bookerName())
+                        .build())
+                .status(row.status())
+                .build();
+    }
+
+    public static BookingResponseDto toResponseDto(BookingListRow row) {
+        return BookingResponseDto.builder()
+                .id(row.getId())
+                .start(row.getStart())
+                .end(row.getEnd())
+                .item(BookingResponseDto.ItemShortDto.builder()
+                        .id(row.getItemId())
+                        .name(row.getItemName())
+                        .build())
+                .booker(BookingResponseDto.UserShortDto.builder()
+                        .id(row.getBookerId())
+                        .name(row.getBookerName())
+                        .build())
+                .status(row.getStatus())
+                .build();
+    }
+
     private static BookingResponseDto.ItemShortDto toItemShortDto(Item item) {
         return BookingResponseDto.ItemShortDto.builder()
                 .id(item.getId())
@@ -0,0 +1,231 @@
+package ru.practicum.shareit.booking.occupancy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingInterval;
+import ru.practicum.shareit.booking.repository.BookingPeriod;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Индекс занятости вещей в памяти сервера поверх {@link ItemIntervalIndex}.
+ * <p>
+ * При старте загружает из базы подтверждённые и ожидающие бронирования, которые ещё не закончились,
+ * и дальше обновляется после фиксации транзакций, создающих бронирования или меняющих их статус.
+ * Индекс полон начиная с момента {@link #horizon()}: запросы о периодах раньше него (и все запросы, пока индекс
+ * выключен через {@code shareit.booking.occupancy.enabled}) должны идти в базу - см. {@link #covers}.
+ * Закончившиеся интервалы периодически удаляются, горизонт при этом сдвигается вперёд.
+ * <p>
+ * Индекс служит только для чтения занятости. Решения о записи (пересечение подтверждённых бронирований)
+ * по-прежнему принимаются по базе под блокировкой вещи: индекс обновляется после фиксации и может отставать.
+ */
+@Slf4j
+@Component
+public class BookingOccupancyIndex {
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+    private static final List<BookingStatus> OCCUPYING_STATUSES = List.of(BookingStatus.APPROVED, BookingStatus.WAITING);
+
+    private final BookingRepository bookingRepository;
+    private final boolean enabled;
+    private final long retainHours;
+    private volatile ItemIntervalIndex index = new ItemIntervalIndex();
+    private volatile LocalDateTime horizon;
+
+    public record ConsistencyReport(int checkedItems, long checkedIntervals, int mismatchedItems) {
+    }
+
+    public BookingOccupancyIndex(BookingRepository bookingRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${shareit.booking.occupancy.enabled:true}") boolean enabled,
+                                 @Value("${shareit.booking.occupancy.retain-hours:24}") long retainHours) {
+        this.bookingRepository = bookingRepository;
+        this.enabled = enabled;
+        this.retainHours = retainHours;
+        meterRegistry.gauge("shareit.booking.occupancy.intervals", this, o -> o.stats().intervals());
+        meterRegistry.gauge("shareit.booking.occupancy.bytes", this, o -> o.stats().estimatedBytes());
+    }
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Заново строит индекс из базы. Рассчитан на старт приложения: изменения, зафиксированные
+     * во время загрузки, могут не попасть в индекс до ближайшей сверки.
+     */
+    public void rebuild() {
+        LocalDateTime loadedFrom = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        index = load(loadedFrom);
+        horizon = loadedFrom;
+
+        ItemIntervalIndex.Stats stats = index.stats();
+        log.info("Booking occupancy index built: {} items, {} intervals, ~{} KB",
+                stats.items(), stats.intervals(), stats.estimatedBytes() / 1024);
+    }
+
+    /**
+     * Выключает индекс до следующего {@link #rebuild()}: все запросы снова идут в базу.
+     */
+    public void clear() {
+        horizon = null;
+        index = new ItemIntervalIndex();
+    }
+
+    public LocalDateTime horizon() {
+        return horizon;
+    }
+
+    /**
+     * Можно ли отвечать по индексу на запрос о периоде, начинающемся в from.
+     */
+    public boolean covers(LocalDateTime from) {
+        LocalDateTime current = horizon;
+        return current != null && !from.isBefore(current);
+    }
+
+    public boolean overlaps(Long itemId, LocalDateTime from, LocalDateTime to, boolean includeWaiting) {
+        return index.overlaps(itemId, from, to, includeWaiting);
+    }
+
+    public Set<Long> busyItemIds(Collection<Long> itemIds, LocalDateTime from, LocalDateTime to,
+                                 boolean includeWaiting) {
+        return index.busyItemIds(itemIds, from, to, includeWaiting);
+    }
+
+    public List<BookingPeriod> periods(Long itemId, LocalDateTime from, LocalDateTime to, boolean includeWaiting) {
+        return index.periods(itemId, from, to, includeWaiting);
+    }
+
+    public ItemIntervalIndex.Stats stats() {
+        return index.stats();
+    }
+
+    public void onBookingSaved(Booking booking) {
+        if (horizon == null) {
+            return;
+        }
+        // Снимок берём сразу, а в индекс кладём только после фиксации транзакции
+        long bookingId = booking.getId();
+        long itemId = booking.getItem().getId();
+        LocalDateTime start = booking.getStart();
+        LocalDateTime end = booking.getEnd();
+        BookingStatus status = booking.getStatus();
+        afterCommit(() -> index.put(bookingId, itemId, start, end, status));
+    }
+
+    public void onItemDeleted(Long itemId) {
+        if (horizon != null) {
+            afterCommit(() -> index.removeItem(itemId));
+        }
+    }
+
+    @Scheduled(cron = "${shareit.booking.occupancy.prune-cron:0 0 * * * *}")
+    public void pruneScheduled() {
+        if (horizon != null) {
+            prune(LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Удаляет интервалы, закончившиеся раньше чем за retain-hours до now, и сдвигает горизонт.
+     */
+    public int prune(LocalDateTime now) {
+        LocalDateTime cutoff = now.minusHours(retainHours).truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime current = horizon;
+        if (current == null || !cutoff.isAfter(current)) {
+            return 0;
+        }
+        // Сначала сдвигаем горизонт, чтобы запросы о старых периодах уже шли в базу
+        horizon = cutoff;
+        int pruned = index.pruneEndedBefore(cutoff);
+        log.debug("Pruned {} booking intervals ended before {}", pruned, cutoff);
+        return pruned;
+    }
+
+    @Scheduled(cron = "${shareit.booking.occupancy.verify-cron:0 15 4 * * *}")
+    public void verifyScheduled() {
+        if (horizon != null) {
+            verify();
+        }
+    }
+
+    /**
+     * Сверяет индекс с базой. Расхождения перепроверяются по каждой вещи отдельно (чтобы не считать ошибкой
+     * изменение, зафиксированное во время сверки), подтвердившиеся исправляются данными из базы.
+     */
+    public ConsistencyReport verify() {
+        LocalDateTime from = horizon;
+        if (from == null) {
+            return new ConsistencyReport(0, 0, 0);
+        }
+        ItemIntervalIndex current = index;
+        ItemIntervalIndex expected = load(from);
+        int mismatched = 0;
+        for (Long itemId : current.differingItemIds(expected)) {
+            ItemIntervalIndex fresh = new ItemIntervalIndex();
+            putAll(fresh, bookingRepository.findIntervalsByItemId(itemId, OCCUPYING_STATUSES, from));
+            if (!current.sameItem(itemId, fresh)) {
+                mismatched++;
+                current.replaceItem(itemId, fresh);
+                log.warn("Booking occupancy index was out of sync for item {}, reloaded from database", itemId);
+            }
+        }
+        ItemIntervalIndex.Stats stats = expected.stats();
+        if (mismatched == 0) {
+            log.debug("Booking occupancy index is consistent: {} items, {} intervals", stats.items(), stats.intervals());
+        }
+        return new ConsistencyReport(stats.items(), stats.intervals(), mismatched);
+    }
+
+    private ItemIntervalIndex load(LocalDateTime endAfter) {
+        ItemIntervalIndex loaded = new ItemIntervalIndex();
+        long lastId = 0;
+        List<BookingInterval> batch;
+        do {
+            batch = bookingRepository.findIntervalsAfterId(OCCUPYING_STATUSES, endAfter, lastId,
+                    Limit.of(LOAD_BATCH_SIZE));
+            putAll(loaded, batch);
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).id();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+        return loaded;
+    }
+
+    private static void putAll(ItemIntervalIndex target, List<BookingInterval> intervals) {
+        for (BookingInterval interval : intervals) {
+            target.put(interval.id(), interval.itemId(), interval.start(), interval.end(), interval.status());
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,320 @@
+package ru.practicum.shareit.booking.occupancy;
+
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingPeriod;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Занятость вещей в памяти: подтверждённые и ожидающие подтверждения бронирования по каждой вещи.
+ * <p>
+ * Интервалы одной вещи хранятся в отсортированных по началу примитивных массивах секунд эпохи
+ * (начало округляется вниз, конец - вверх, поэтому индекс может лишь переоценить занятость на доли секунды).
+ * Рядом хранится префиксный максимум концов: интервалы, пересекающие [from, to), ищутся бинарным поиском
+ * по началу и просмотром назад, пока максимум концов больше from, - O(log n + k) на вещь.
+ * <p>
+ * Класс потокобезопасен: массивы вещи неизменяемы и заменяются целиком (copy-on-write),
+ * поэтому чтение идёт без блокировок, а изменения одной вещи сериализуются самой картой.
+ */
+public class ItemIntervalIndex {
+
+    private final Map<Long, Intervals> intervalsByItemId = new ConcurrentHashMap<>();
+
+    public record Stats(int items, long intervals, long estimatedBytes) {
+    }
+
+    /**
+     * Добавляет бронирование или обновляет его статус и даты. Бронирования в статусах, не занимающих вещь,
+     * из индекса удаляются.
+     */
+    public void put(long bookingId, long itemId, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        boolean occupies = status == BookingStatus.APPROVED || status == BookingStatus.WAITING;
+        intervalsByItemId.compute(itemId, (id, current) -> {
+            Intervals base = current != null ? current.without(bookingId) : Intervals.EMPTY;
+            Intervals updated = occupies
+                    ? base.with(bookingId, floorSeconds(start), ceilSeconds(end), status == BookingStatus.APPROVED)
+                    : base;
+            return updated.size() > 0 ? updated : null;
+        });
+    }
+
+    public void removeItem(long itemId) {
+        intervalsByItemId.remove(itemId);
+    }
+
+    /**
+     * Заменяет все интервалы вещи, например, прочитанными из базы.
+     */
+    public void replaceItem(long itemId, ItemIntervalIndex source) {
+        Intervals intervals = source.intervalsByItemId.get(itemId);
+        if (intervals != null) {
+            intervalsByItemId.put(itemId, intervals);
+        } else {
+            intervalsByItemId.remove(itemId);
+        }
+    }
+
+    public void clear() {
+        intervalsByItemId.clear();
+    }
+
+    /**
+     * Удаляет интервалы, закончившиеся не позже момента before, и возвращает их число.
+     */
+    public int pruneEndedBefore(LocalDateTime before) {
+        long cutoff = floorSeconds(before);
+        int[] pruned = new int[1];
+        for (Long itemId : intervalsByItemId.keySet()) {
+            intervalsByItemId.computeIfPresent(itemId, (id, current) -> {
+                Intervals kept = current.endingAfter(cutoff);
+                pruned[0] += current.size() - kept.size();
+                return kept.size() > 0 ? kept : null;
+            });
+        }
+        return pruned[0];
+    }
+
+    /**
+     * Есть ли у вещи бронирование, пересекающее [from, to).
+     */
+    public boolean overlaps(long itemId, LocalDateTime from, LocalDateTime to, boolean includeWaiting) {
+        Intervals intervals = intervalsByItemId.get(itemId);
+        return intervals != null
+                && intervals.hasOverlapping(floorSeconds(from), ceilSeconds(to), includeWaiting);
+    }
+
+    /**
+     * Вещи из списка, занятые в [from, to).
+     */
+    public Set<Long> busyItemIds(Collection<Long> itemIds, LocalDateTime from, LocalDateTime to,
+                                 boolean includeWaiting) {
+        Set<Long> busy = new HashSet<>();
+        for (Long itemId : itemIds) {
+            if (overlaps(itemId, from, to, includeWaiting)) {
+                busy.add(itemId);
+            }
+        }
+        return busy;
+    }
+
+    /**
+     * Периоды бронирований вещи, пересекающие [from, to), по порядку начала.
+     */
+    public List<BookingPeriod> periods(long itemId, LocalDateTime from, LocalDateTime to, boolean includeWaiting) {
+        Intervals intervals = intervalsByItemId.get(itemId);
+        if (intervals == null) {
+            return List.of();
+        }
+        List<BookingPeriod> periods = new ArrayList<>();
+        intervals.forEachOverlapping(floorSeconds(from), ceilSeconds(to), includeWaiting,
+                i -> periods.add(new BookingPeriod(toDateTime(intervals.starts[i]), toDateTime(intervals.ends[i]))));
+        // Просмотр шёл от поздних начал к ранним
+        Collections.reverse(periods);
+        return periods;
+    }
+
+    /**
+     * Вещи, интервалы которых в этом индексе и в другом различаются.
+     */
+    public Set<Long> differingItemIds(ItemIntervalIndex other) {
+        Set<Long> differing = new HashSet<>();
+        Set<Long> itemIds = new HashSet<>(intervalsByItemId.keySet());
+        itemIds.addAll(other.intervalsByItemId.keySet());
+        for (Long itemId : itemIds) {
+            Intervals mine = intervalsByItemId.get(itemId);
+            Intervals theirs = other.intervalsByItemId.get(itemId);
+            if (mine == null || theirs == null || !mine.sameAs(theirs)) {
+                differing.add(itemId);
+            }
+        }
+        return differing;
+    }
+
+    public boolean sameItem(long itemId, ItemIntervalIndex other) {
+        Intervals mine = intervalsByItemId.get(itemId);
+        Intervals theirs = other.intervalsByItemId.get(itemId);
+        return mine == null ? theirs == null : theirs != null && mine.sameAs(theirs);
+    }
+
+    public Stats stats() {
+        int items = 0;
+        long intervals = 0;
+        long bytes = 0;
+        for (Intervals list : intervalsByItemId.values()) {
+            items++;
+            intervals += list.size();
+            // объект Intervals, пять массивов с заголовками и запись в ConcurrentHashMap с ключом Long
+            bytes += 32 + 5 * 16 + (8L * 4 + 1) * list.size() + 64;
+        }
+        return new Stats(items, intervals, bytes);
+    }
+
+    static long floorSeconds(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    static long ceilSeconds(LocalDateTime dateTime) {
+        long seconds = dateTime.toEpochSecond(ZoneOffset.UTC);
+        return dateTime.getNano() > 0 ? seconds + 1 : seconds;
+    }
+
+    private static LocalDateTime toDateTime(long epochSeconds) {
+        return LocalDateTime.ofEpochSecond(epochSeconds, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Неизменяемые интервалы одной вещи, отсортированные по (начало, id бронирования).
+     */
+    private static final class Intervals {
+
+        private static final Intervals EMPTY = new Intervals(new long[0], new long[0], new long[0], new long[0],
+                new boolean[0]);
+
+        private final long[] ids;
+        private final long[] starts;
+        private final long[] ends;
+        // maxEnds[i] - наибольший конец среди интервалов 0..i
+        private final long[] maxEnds;
+        private final boolean[] approved;
+
+        private Intervals(long[] ids, long[] starts, long[] ends, long[] maxEnds, boolean[] approved) {
+            this.ids = ids;
+            this.starts = starts;
+            this.ends = ends;
+            this.maxEnds = maxEnds;
+            this.approved = approved;
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        Intervals with(long id, long start, long end, boolean isApproved) {
+            int size = size();
+            int insertAt = 0;
+            while (insertAt < size && (starts[insertAt] < start || (starts[insertAt] == start && ids[insertAt] < id))) {
+                insertAt++;
+            }
+            long[] newIds = insert(ids, insertAt, id);
+            long[] newStarts = insert(starts, insertAt, start);
+            long[] newEnds = insert(ends, insertAt, end);
+            boolean[] newApproved = new boolean[size + 1];
+            System.arraycopy(approved, 0, newApproved, 0, insertAt);
+            newApproved[insertAt] = isApproved;
+            System.arraycopy(approved, insertAt, newApproved, insertAt + 1, size - insertAt);
+            return new Intervals(newIds, newStarts, newEnds, prefixMax(newEnds), newApproved);
+        }
+
+        Intervals without(long id) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    int removed = i;
+                    return retain(position -> position != removed);
+                }
+            }
+            return this;
+        }
+
+        Intervals endingAfter(long cutoff) {
+            for (long end : ends) {
+                if (end <= cutoff) {
+                    return retain(position -> ends[position] > cutoff);
+                }
+            }
+            return this;
+        }
+
+        boolean hasOverlapping(long from, long to, boolean includeWaiting) {
+            for (int i = lastStartingBefore(to); i >= 0 && maxEnds[i] > from; i--) {
+                if (ends[i] > from && (includeWaiting || approved[i])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void forEachOverlapping(long from, long to, boolean includeWaiting, IntConsumer action) {
+            for (int i = lastStartingBefore(to); i >= 0 && maxEnds[i] > from; i--) {
+                if (ends[i] > from && (includeWaiting || approved[i])) {
+                    action.accept(i);
+                }
+            }
+        }
+
+        // Последняя позиция с началом < to: все интервалы левее неё тоже начинаются раньше конца окна
+        private int lastStartingBefore(long to) {
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (starts[middle] < to) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low - 1;
+        }
+
+        boolean sameAs(Intervals other) {
+            return Arrays.equals(ids, other.ids)
+                    && Arrays.equals(starts, other.starts)
+                    && Arrays.equals(ends, other.ends)
+                    && Arrays.equals(approved, other.approved);
+        }
+
+        private Intervals retain(IntPredicate keep) {
+            int kept = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (keep.test(i)) {
+                    kept++;
+                }
+            }
+            long[] newIds = new long[kept];
+            long[] newStarts = new long[kept];
+            long[] newEnds = new long[kept];
+            boolean[] newApproved = new boolean[kept];
+            int count = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (keep.test(i)) {
+                    newIds[count] = ids[i];
+                    newStarts[count] = starts[i];
+                    newEnds[count] = ends[i];
+                    newApproved[count] = approved[i];
+                    count++;
+                }
+            }
+            return new Intervals(newIds, newStarts, newEnds, prefixMax(newEnds), newApproved);
+        }
+
+        private static long[] insert(long[] values, int position, long value) {
+            long[] result = new long[values.length + 1];
+            System.arraycopy(values, 0, result, 0, position);
+            result[position] = value;
+            System.arraycopy(values, position, result, position + 1, values.length - position);
+            return result;
+        }
+
+        private static long[] prefixMax(long[] ends) {
+            long[] maxEnds = new long[ends.length];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < ends.length; i++) {
+                max = Math.max(max, ends[i]);
+                maxEnds[i] = max;
+            }
+            return maxEnds;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.booking.repository;
+
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.ArchivedBooking;
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static ru.practicum.shareit.booking.repository.BookingRepository.EXPORT_FETCH_SIZE;
+import static ru.practicum.shareit.booking.repository.BookingRepository.FETCH_ITEM_AND_BOOKER;
+
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<ArchivedBooking> findWithItemAndBookerById(Long id);
+
+    // Копирование бронирований из bookings в архив одним INSERT ... SELECT
+    @Modifying(flushAutomatically = true)
+    @Query(value = "insert into bookings_archive " +
+            "(id, start_date, end_date, item_id, booker_id, owner_id, status, archived_at) " +
+            "select id, start_date, end_date, item_id, booker_id, owner_id, status, :archivedAt " +
+            "from bookings where id in (:ids)", nativeQuery = true)
+    int copyFromBookings(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    // Периоды архивных бронирований вещи, пересекающие [from, to), по индексу idx_bookings_archive_item_status_start
+    @Query("select new ru.practicum.shareit.booking.repository.BookingPeriod(b.start, b.end) " +
+            "from ArchivedBooking b " +
+            "where b.item.id = :itemId " +
+            "and b.status in :statuses " +
+            "and b.start < :to " +
+            "and b.end > :from " +
+            "order by b.start")
+    List<BookingPeriod> findPeriodsByItemId(@Param("itemId") Long itemId,
+                                            @Param("statuses") Collection<BookingStatus> statuses,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+
+    // Какие из вещей заняты в [from, to) по архивным бронированиям
+    @Query("select distinct b.item.id " +
+            "from ArchivedBooking b " +
+            "where b.item.id in :itemIds " +
+            "and b.status in :statuses " +
+            "and b.start < :to " +
+            "and b.end > :from")
+    List<Long> findBusyItemIds(@Param("itemIds") Collection<Long> itemIds,
+                               @Param("statuses") Collection<BookingStatus> statuses,
+                               @Param("from") LocalDateTime from,
+                               @Param("to") LocalDateTime to);
+
+    // Выгрузка архивной истории курсором, в том же порядке, что и у горячей таблицы
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")})
+    @Query("select b from ArchivedBooking b " +
+            FETCH_ITEM_AND_BOOKER +
+            "where b.booker.id = :bookerId " +
+            "order by b.start desc, b.id desc")
+    Stream<ArchivedBooking> streamByBookerId(@Param("bookerId") Long bookerId);
+
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")})
+    @Query("select b from ArchivedBooking b " +
+            FETCH_ITEM_AND_BOOKER +
+            "where b.ownerId = :ownerId " +
+            "order by b.start desc, b.id desc")
+    Stream<ArchivedBooking> streamByItemOwnerId(@Param("ownerId") Long ownerId);
+}
@@ -0,0 +1,160 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.BookerTimelineEntry;
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static ru.practicum.shareit.booking.repository.BookingRepository.AFTER_CURSOR;
+
+public interface BookerTimelineRepository extends JpaRepository<BookerTimelineEntry, Long> {
+
+    String SELECT_ROW = "select new ru.practicum.shareit.booking.repository.BookerTimelineRow(" +
+            "b.id, b.start, b.end, b.status, b.itemId, b.itemName, b.bookerId, b.bookerName) " +
+            "from BookerTimelineEntry b ";
+
+    // Все запросы ленты - диапазон покрывающего индекса idx_booker_timeline_booker_start по (booker_id, start desc, id desc),
+    // фильтры по состоянию проверяются на строках индекса
+    @Query(SELECT_ROW +
+            "where b.bookerId = :bookerId " +
+            AFTER_CURSOR)
+    List<BookerTimelineRow> findByBookerId(@Param("bookerId") Long bookerId,
+                                           @Param("cursorStart") LocalDateTime cursorStart,
+                                           @Param("cursorId") Long cursorId,
+                                           Pageable page);
+
+    @Query(SELECT_ROW +
+            "where b.bookerId = :bookerId " +
+            "and b.start <= :now and b.end >= :now " +
+            AFTER_CURSOR)
+    List<BookerTimelineRow> findCurrentByBookerId(@Param("bookerId") Long bookerId,
+                                                  @Param("now") LocalDateTime now,
+                                                  @Param("cursorStart") LocalDateTime cursorStart,
+                                                  @Param("cursorId") Long cursorId,
+                                                  Pageable page);
+
+    @Query(SELECT_ROW +
+            "where b.bookerId = :bookerId " +
+            "and b.end < :now " +
+            AFTER_CURSOR)
+    List<BookerTimelineRow> findPastByBookerId(@Param("bookerId") Long bookerId,
+                                               @Param("now") LocalDateTime now,
+                                               @Param("cursorStart") LocalDateTime cursorStart,
+                                               @Param("cursorId") Long cursorId,
+                                               Pageable page);
+
+    @Query(SELECT_ROW +
+            "where b.bookerId = :bookerId " +
+            "and b.start > :now " +
+            AFTER_CURSOR)
+    List<BookerTimelineRow> findFutureByBookerId(@Param("bookerId") Long bookerId,
+                                                 @Param("now") LocalDateTime now,
+                                                 @Param("cursorStart") LocalDateTime cursorStart,
+                                                 @Param("cursorId") Long cursorId,
+                                                 Pageable page);
+
+    @Query(SELECT_ROW +
+            "where b.bookerId = :bookerId " +
+            "and b.status = :status " +
+            AFTER_CURSOR)
+    List<BookerTimelineRow> findByBookerIdAndStatus(@Param("bookerId") Long bookerId,
+                                                    @Param("status") BookingStatus status,
+                                                    @Param("cursorStart") LocalDateTime cursorStart,
+                                                    @Param("cursorId") Long cursorId,
+                                                    Pageable page);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update BookerTimelineEntry b set b.status = :status where b.id in :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") BookingStatus status);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update BookerTimelineEntry b set b.itemName = :name where b.itemId = :itemId")
+    int renameItem(@Param("itemId") Long itemId, @Param("name") String name);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update BookerTimelineEntry b set b.bookerName = :name where b.bookerId = :bookerId")
+    int renameBooker(@Param("bookerId") Long bookerId, @Param("name") String name);
+
+    @Modifying(flushAutomatically = true)
+    @Query("delete from BookerTimelineEntry b where b.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true)
+    @Query("delete from BookerTimelineEntry b")
+    int deleteAllRows();
+
+    // Строка ленты строится из бронирования, вещи и арендатора одним INSERT ... SELECT - так же при записи,
+    // перестроении и исправлении расхождений
+    String INSERT_ROWS = "insert into booker_timeline " +
+            "(booking_id, booker_id, start_date, end_date, status, item_id, item_name, booker_name) " +
+            "select b.id, b.booker_id, b.start_date, b.end_date, b.status, b.item_id, i.name, u.name ";
+
+    String JOIN_ITEM_AND_BOOKER = "join items i on i.id = b.item_id join users u on u.id = b.booker_id ";
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = INSERT_ROWS +
+            "from bookings b " +
+            JOIN_ITEM_AND_BOOKER +
+            "where b.id in (:ids)", nativeQuery = true)
+    int copyFromBookings(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = INSERT_ROWS +
+            "from bookings_archive b " +
+            JOIN_ITEM_AND_BOOKER +
+            "where b.id in (:ids)", nativeQuery = true)
+    int copyFromArchive(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = INSERT_ROWS +
+            "from bookings b " +
+            JOIN_ITEM_AND_BOOKER, nativeQuery = true)
+    int copyAllFromBookings();
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = INSERT_ROWS +
+            "from bookings_archive b " +
+            JOIN_ITEM_AND_BOOKER, nativeQuery = true)
+    int copyAllFromArchive();
+
+    // Поиск расхождений с источниками; каждый запрос возвращает не больше limit id
+    String DIFFERS = "where t.booker_id <> b.booker_id or t.start_date <> b.start_date or t.end_date <> b.end_date " +
+            "or t.status <> b.status or t.item_id <> b.item_id or t.item_name <> i.name or t.booker_name <> u.name ";
+
+    @Query(value = "select b.id from bookings b " +
+            "where not exists (select 1 from booker_timeline t where t.booking_id = b.id) " +
+            "limit :limit", nativeQuery = true)
+    List<Long> findMissingFromBookings(@Param("limit") int limit);
+
+    @Query(value = "select b.id from bookings_archive b " +
+            "where not exists (select 1 from booker_timeline t where t.booking_id = b.id) " +
+            "limit :limit", nativeQuery = true)
+    List<Long> findMissingFromArchive(@Param("limit") int limit);
+
+    @Query(value = "select t.booking_id from booker_timeline t " +
+            "join bookings b on b.id = t.booking_id " +
+            JOIN_ITEM_AND_BOOKER +
+            DIFFERS +
+            "limit :limit", nativeQuery = true)
+    List<Long> findStaleFromBookings(@Param("limit") int limit);
+
+    @Query(value = "select t.booking_id from booker_timeline t " +
+            "join bookings_archive b on b.id = t.booking_id " +
+            JOIN_ITEM_AND_BOOKER +
+            DIFFERS +
+            "limit :limit", nativeQuery = true)
+    List<Long> findStaleFromArchive(@Param("limit") int limit);
+
+    @Query(value = "select t.booking_id from booker_timeline t " +
+            "where not exists (select 1 from bookings b where b.id = t.booking_id) " +
+            "and not exists (select 1 from bookings_archive a where a.id = t.booking_id) " +
+            "limit :limit", nativeQuery = true)
+    List<Long> findOrphaned(@Param("limit") int limit);
+}
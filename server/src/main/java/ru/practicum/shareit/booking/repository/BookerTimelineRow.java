@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка ленты арендатора без загрузки сущностей: чтения не наполняют контекст персистентности,
+ * поэтому массовые UPDATE ленты не оставляют в нём устаревших копий.
+ */
+public record BookerTimelineRow(Long id,
+                                LocalDateTime start,
+                                LocalDateTime end,
+                                BookingStatus status,
+                                Long itemId,
+                                String itemName,
+                                Long bookerId,
+                                String bookerName) {
+}
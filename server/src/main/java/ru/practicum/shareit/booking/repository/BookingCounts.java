@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.repository;
+
+/**
+ * Число бронирований пользователя в каждом из состояний {@link ru.practicum.shareit.booking.BookingState}.
+ */
+public interface BookingCounts {
+
+    Long getAll();
+
+    Long getCurrent();
+
+    Long getPast();
+
+    Long getFuture();
+
+    Long getWaiting();
+
+    Long getRejected();
+}
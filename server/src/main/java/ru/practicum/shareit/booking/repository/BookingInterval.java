@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Интервал бронирования вещи со статусом, без загрузки сущностей - для индекса занятости в памяти.
+ */
+public record BookingInterval(Long id, Long itemId, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+}
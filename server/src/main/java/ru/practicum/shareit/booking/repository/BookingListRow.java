@@ -0,0 +1,29 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка списка бронирований из горячей таблицы или архива, прочитанная одним запросом с union all
+ * (см. {@link BookingRepository#findMergedByItemOwnerId}): сущности не загружаются, название вещи
+ * и имя арендатора берутся тем же запросом.
+ */
+public interface BookingListRow {
+
+    Long getId();
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+
+    BookingStatus getStatus();
+
+    Long getItemId();
+
+    String getItemName();
+
+    Long getBookerId();
+
+    String getBookerName();
+}
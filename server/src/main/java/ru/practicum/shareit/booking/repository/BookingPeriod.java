@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Период бронирования без самой сущности - для расчётов занятости вещи.
+ */
+public record BookingPeriod(LocalDateTime start, LocalDateTime end) {
+}
@@ -1,60 +1,187 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Sort;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    // Все бронирования пользователя (как арендатора)
-    List<Booking> findByBookerId(Long bookerId, Sort sort);
+    // Бронирование вместе с вещью и арендатором (для проверки прав и маппинга)
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<Booking> findWithItemAndBookerById(Long id);
 
-    // Текущие бронирования пользователя
-    List<Booking> findByBookerIdAndStartLessThanEqualAndEndGreaterThanEqual(
-            Long bookerId, LocalDateTime start, LocalDateTime end, Sort sort);
+    // Смена статуса, только если бронирование не менялось с прочитанной версии и статус прежний.
+    // Возвращает число изменённых строк (0 или 1); контекст очищается, т.к. загруженные сущности устарели
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b " +
+            "set b.status = :newStatus, b.version = b.version + 1 " +
+            "where b.id = :id " +
+            "and b.version = :version " +
+            "and b.status = :expectedStatus")
+    int updateStatus(@Param("id") Long id,
+                     @Param("version") Long version,
+                     @Param("expectedStatus") BookingStatus expectedStatus,
+                     @Param("newStatus") BookingStatus newStatus);
 
-    // Прошедшие бронирования пользователя
-    List<Booking> findByBookerIdAndEndBefore(Long bookerId, LocalDateTime end, Sort sort);
+    // Вещь и арендатор нужны маппингу в DTO: загружаем их тем же запросом, без N+1
+    String FETCH_ITEM_AND_BOOKER = "join fetch b.item i join fetch b.booker ";
 
-    // Будущие бронирования пользователя
-    List<Booking> findByBookerIdAndStartAfter(Long bookerId, LocalDateTime start, Sort sort);
+    // Условие keyset-пагинации по (start desc, id desc): строки строго после курсора
+    String AFTER_CURSOR = "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId)) " +
+            "order by b.start desc, b.id desc";
 
-    // Бронирования пользователя по статусу
-    List<Booking> findByBookerIdAndStatus(Long bookerId, BookingStatus status, Sort sort);
+    // Текущие бронирования пользователя
+    @Query("select b from Booking b " +
+            FETCH_ITEM_AND_BOOKER +
+            "where b.booker.id = :bookerId " +
+            "and b.start <= :now and b.end >= :now " +
+            AFTER_CURSOR)
+    List<Booking> findCurrentByBookerId(@Param("bookerId") Long bookerId,
+                                        @Param("now") LocalDateTime now,
+                                        @Param("cursorStart") LocalDateTime cursorStart,
+                                        @Param("cursorId") Long cursorId,
+                                        Pageable page);
 
-    // Все бронирования для вещей владельца
-    List<Booking> findByItemOwnerId(Long ownerId, Sort sort);
+    // Будущие бронирования пользователя
+    @Query("select b from Booking b " +
+            FETCH_ITEM_AND_BOOKER +
+            "where b.booker.id = :bookerId " +
+            "and b.start > :now " +
+            AFTER_CURSOR)
+    List<Booking> findFutureByBookerId(@Param("bookerId") Long bookerId,
+                                       @Param("now") LocalDateTime now,
+                                       @Param("cursorStart") LocalDateTime cursorStart,
+                                       @Param("cursorId") Long cursorId,
+                                       Pageable page);
 
     // Текущие бронирования для вещей владельца
-    List<Booking> findByItemOwnerIdAndStartLessThanEqualAndEndGreaterThanEqual(
-            Long ownerId, LocalDateTime start, LocalDateTime end, Sort sort);
-
-    // Прошедшие бронирования для вещей владельца
-    List<Booking> findByItemOwnerIdAndEndBefore(Long ownerId, LocalDateTime now, Sort sort);
+    @Query("select b from Booking b " +
+            FETCH_ITEM_AND_BOOKER +
+            "where b.ownerId = :ownerId " +
+            "and b.start <= :now and b.end >= :now " +
+            AFTER_CURSOR)
+    List<Booking> findCurrentByItemOwnerId(@Param("ownerId") Long ownerId,
+                                           @Param("now") LocalDateTime now,
+                                           @Param("cursorStart") LocalDateTime cursorStart,
+                                           @Param("cursorId") Long cursorId,
+                                           Pageable page);
 
     // Будущие бронирования для вещей владельца
-    List<Booking> findByItemOwnerIdAndStartAfter(Long ownerId, LocalDateTime now, Sort sort);
+    @Query("select b from Booking b " +
+            FETCH_ITEM_AND_BOOKER +
+            "where b.ownerId = :ownerId " +
+            "and b.start > :now " +
+            AFTER_CURSOR)
+    List<Booking> findFutureByItemOwnerId(@Param("ownerId") Long ownerId,
+                                          @Param("now") LocalDateTime now,
+                                          @Param("cursorStart") LocalDateTime cursorStart,
+                                          @Param("cursorId") Long cursorId,
+                                          Pageable page);
 
-    // Бронирования для вещей владельца по статусу
-    List<Booking> findByItemOwnerIdAndStatus(Long ownerId, BookingStatus status, Sort sort);
+    // Завершённые состояния (ALL, PAST, WAITING, REJECTED) читаются из горячей таблицы и архива одним запросом:
+    // ветки union all идут по индексам (booker_id|owner_id, start_date desc) с тем же условием курсора,
+    // а сортировка, limit и offset выполняются в базе, поэтому в приложение приходит только сама страница
+    String MERGED_SELECT = "select b.id as \"id\", b.start_date as \"start\", b.end_date as \"end\", " +
+            "b.status as \"status\", b.item_id as \"itemId\", i.name as \"itemName\", " +
+            "b.booker_id as \"bookerId\", u.name as \"bookerName\" " +
+            "from (select id, start_date, end_date, status, item_id, booker_id from bookings where ";
+    String MERGED_ARCHIVE = "      union all " +
+            "      select id, start_date, end_date, status, item_id, booker_id from bookings_archive where ";
+    String MERGED_AFTER_CURSOR = "and (start_date < :cursorStart or (start_date = :cursorStart and id < :cursorId)) ";
+    String MERGED_ORDER = ") b join items i on i.id = b.item_id join users u on u.id = b.booker_id " +
+            "order by b.start_date desc, b.id desc";
+    String BY_BOOKER = "booker_id = :bookerId ";
+    String BY_OWNER = "owner_id = :ownerId ";
+    // Условие на start избыточно, но отсекает будущие секции в PostgreSQL
+    String PAST = "and start_date < :now and end_date < :now ";
+    String WITH_STATUS = "and status = :status ";
 
-    // Последнее и следующее бронирование для вещи
-    @Query("select b from Booking b " +
-            "where b.item.id = :itemId " +
-            "and b.status = :status " +
-            "and b.start <= :now " +
-            "order by b.start desc " +
-            "limit 1")
-    Booking findFirstLastBooking(@Param("itemId") Long itemId,
-                                 @Param("status") BookingStatus status,
-                                 @Param("now") LocalDateTime now);
+    @Query(value = MERGED_SELECT + BY_BOOKER + MERGED_AFTER_CURSOR +
+            MERGED_ARCHIVE + BY_BOOKER + MERGED_AFTER_CURSOR +
+            MERGED_ORDER, nativeQuery = true)
+    List<BookingListRow> findMergedByBookerId(@Param("bookerId") Long bookerId,
+                                              @Param("cursorStart") LocalDateTime cursorStart,
+                                              @Param("cursorId") Long cursorId,
+                                              Pageable page);
+
+    @Query(value = MERGED_SELECT + BY_BOOKER + PAST + MERGED_AFTER_CURSOR +
+            MERGED_ARCHIVE + BY_BOOKER + PAST + MERGED_AFTER_CURSOR +
+            MERGED_ORDER, nativeQuery = true)
+    List<BookingListRow> findMergedPastByBookerId(@Param("bookerId") Long bookerId,
+                                                  @Param("now") LocalDateTime now,
+                                                  @Param("cursorStart") LocalDateTime cursorStart,
+                                                  @Param("cursorId") Long cursorId,
+                                                  Pageable page);
+
+    @Query(value = MERGED_SELECT + BY_BOOKER + WITH_STATUS + MERGED_AFTER_CURSOR +
+            MERGED_ARCHIVE + BY_BOOKER + WITH_STATUS + MERGED_AFTER_CURSOR +
+            MERGED_ORDER, nativeQuery = true)
+    List<BookingListRow> findMergedByBookerIdAndStatus(@Param("bookerId") Long bookerId,
+                                                       @Param("status") String status,
+                                                       @Param("cursorStart") LocalDateTime cursorStart,
+                                                       @Param("cursorId") Long cursorId,
+                                                       Pageable page);
+
+    @Query(value = MERGED_SELECT + BY_OWNER + MERGED_AFTER_CURSOR +
+            MERGED_ARCHIVE + BY_OWNER + MERGED_AFTER_CURSOR +
+            MERGED_ORDER, nativeQuery = true)
+    List<BookingListRow> findMergedByItemOwnerId(@Param("ownerId") Long ownerId,
+                                                 @Param("cursorStart") LocalDateTime cursorStart,
+                                                 @Param("cursorId") Long cursorId,
+                                                 Pageable page);
+
+    @Query(value = MERGED_SELECT + BY_OWNER + PAST + MERGED_AFTER_CURSOR +
+            MERGED_ARCHIVE + BY_OWNER + PAST + MERGED_AFTER_CURSOR +
+            MERGED_ORDER, nativeQuery = true)
+    List<BookingListRow> findMergedPastByItemOwnerId(@Param("ownerId") Long ownerId,
+                                                     @Param("now") LocalDateTime now,
+                                                     @Param("cursorStart") LocalDateTime cursorStart,
+                                                     @Param("cursorId") Long cursorId,
+                                                     Pageable page);
 
+    @Query(value = MERGED_SELECT + BY_OWNER + WITH_STATUS + MERGED_AFTER_CURSOR +
+            MERGED_ARCHIVE + BY_OWNER + WITH_STATUS + MERGED_AFTER_CURSOR +
+            MERGED_ORDER, nativeQuery = true)
+    List<BookingListRow> findMergedByItemOwnerIdAndStatus(@Param("ownerId") Long ownerId,
+                                                          @Param("status") String status,
+                                                          @Param("cursorStart") LocalDateTime cursorStart,
+                                                          @Param("cursorId") Long cursorId,
+                                                          Pageable page);
+
+    // Последнее бронирование вещи ищется и в горячей таблице, и в архиве: у давно не сдававшейся вещи
+    // оно уже перенесено в bookings_archive. Каждая ветка union all идёт по индексу (item_id, status, start_date),
+    // при совпадении начала выбирается меньший id
+    String LAST_SELECT = "select b.id as \"id\", b.item_id as \"itemId\", b.booker_id as \"bookerId\", " +
+            "b.start_date as \"start\", b.end_date as \"end\" from (";
+
+    @Query(value = LAST_SELECT +
+            "select id, item_id, booker_id, start_date, end_date from bookings " +
+            "where item_id = :itemId and status = :status and start_date <= :now " +
+            "union all " +
+            "select id, item_id, booker_id, start_date, end_date from bookings_archive " +
+            "where item_id = :itemId and status = :status and start_date <= :now" +
+            ") b order by b.start_date desc, b.id limit 1", nativeQuery = true)
+    Optional<LastBookingRow> findLastBooking(@Param("itemId") Long itemId,
+                                             @Param("status") String status,
+                                             @Param("now") LocalDateTime now);
+
+    // Следующее бронирование - только в горячей таблице: в архив попадают уже закончившиеся
     @Query("select b from Booking b " +
             "where b.item.id = :itemId " +
             "and b.status = :status " +
@@ -65,7 +192,237 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
                                  @Param("status") BookingStatus status,
                                  @Param("now") LocalDateTime now);
 
-    // Проверка возможности оставить комментарий
-    boolean existsByBookerIdAndItemIdAndStatusAndEndBefore(
-            Long bookerId, Long itemId, BookingStatus status, LocalDateTime now);
+    // Последние бронирования сразу для набора вещей: по одному из горячей таблицы и из архива на вещь,
+    // из двух кандидатов выбирает вызывающий
+    @Query(value = LAST_SELECT +
+            "select id, item_id, booker_id, start_date, end_date from bookings b " +
+            "where b.item_id in (:itemIds) and b.status = :status " +
+            "and b.start_date = (select max(b2.start_date) from bookings b2 " +
+            "                    where b2.item_id = b.item_id and b2.status = :status and b2.start_date <= :now) " +
+            "union all " +
+            "select id, item_id, booker_id, start_date, end_date from bookings_archive b " +
+            "where b.item_id in (:itemIds) and b.status = :status " +
+            "and b.start_date = (select max(b2.start_date) from bookings_archive b2 " +
+            "                    where b2.item_id = b.item_id and b2.status = :status and b2.start_date <= :now)" +
+            ") b", nativeQuery = true)
+    List<LastBookingRow> findLastBookingsByItemIds(@Param("itemIds") Collection<Long> itemIds,
+                                                   @Param("status") String status,
+                                                   @Param("now") LocalDateTime now);
+
+    // Следующие бронирования сразу для набора вещей (по одному на вещь)
+    @Query("select b from Booking b " +
+            "where b.item.id in :itemIds " +
+            "and b.status = :status " +
+            "and b.start = (select min(b2.start) from Booking b2 " +
+            "               where b2.item.id = b.item.id " +
+            "               and b2.status = :status " +
+            "               and b2.start > :now)")
+    List<Booking> findNextBookingsByItemIds(@Param("itemIds") Collection<Long> itemIds,
+                                            @Param("status") BookingStatus status,
+                                            @Param("now") LocalDateTime now);
+
+    // Есть ли бронирования вещи с данным статусом, пересекающиеся с периодом [start, end)
+    @Query("select count(b) > 0 from Booking b " +
+            "where b.item.id = :itemId " +
+            "and b.status = :status " +
+            "and b.start < :end " +
+            "and b.end > :start")
+    boolean existsOverlapping(@Param("itemId") Long itemId,
+                              @Param("status") BookingStatus status,
+                              @Param("start") LocalDateTime start,
+                              @Param("end") LocalDateTime end);
+
+    // Бронирования со статусом status, пересекающие период, сразу по нескольким вещам
+    @Query("select b from Booking b " +
+            "where b.item.id in :itemIds " +
+            "and b.status = :status " +
+            "and b.start < :end " +
+            "and b.end > :start")
+    List<Booking> findOverlappingByItemIds(@Param("itemIds") Collection<Long> itemIds,
+                                           @Param("status") BookingStatus status,
+                                           @Param("start") LocalDateTime start,
+                                           @Param("end") LocalDateTime end);
+
+    // Пакетное решение по ожидающим бронированиям одним UPDATE: approvedIds подтверждаются, остальные из ids
+    // отклоняются. Строки, успевшие выйти из WAITING, не меняются - вызывающий сверяет число изменённых строк
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b " +
+            "set b.status = case when b.id in :approvedIds then :approved else :rejected end, " +
+            "b.version = b.version + 1 " +
+            "where b.id in :ids " +
+            "and b.status = :waiting")
+    int decideWaiting(@Param("ids") Collection<Long> ids,
+                      @Param("approvedIds") Collection<Long> approvedIds,
+                      @Param("waiting") BookingStatus waiting,
+                      @Param("approved") BookingStatus approved,
+                      @Param("rejected") BookingStatus rejected);
+
+    // Периоды бронирований вещи с нужными статусами, пересекающие [from, to), по порядку начала.
+    // Покрывается индексом idx_bookings_item_status_start; в PostgreSQL условие на start отсекает поздние секции.
+    // Для прошлых периодов то же читается из архива (ArchivedBookingRepository#findPeriodsByItemId)
+    @Query("select new ru.practicum.shareit.booking.repository.BookingPeriod(b.start, b.end) " +
+            "from Booking b " +
+            "where b.item.id = :itemId " +
+            "and b.status in :statuses " +
+            "and b.start < :to " +
+            "and b.end > :from " +
+            "order by b.start")
+    List<BookingPeriod> findPeriodsByItemId(@Param("itemId") Long itemId,
+                                            @Param("statuses") Collection<BookingStatus> statuses,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+
+    // Какие из вещей заняты в [from, to): один запрос на весь список по индексу idx_bookings_item_status_start,
+    // на каждую вещь возвращается не больше одного id. Архив - ArchivedBookingRepository#findBusyItemIds
+    @Query("select distinct b.item.id " +
+            "from Booking b " +
+            "where b.item.id in :itemIds " +
+            "and b.status in :statuses " +
+            "and b.start < :to " +
+            "and b.end > :from")
+    List<Long> findBusyItemIds(@Param("itemIds") Collection<Long> itemIds,
+                               @Param("statuses") Collection<BookingStatus> statuses,
+                               @Param("from") LocalDateTime from,
+                               @Param("to") LocalDateTime to);
+
+    // Постраничная выгрузка интервалов с нужными статусами, не закончившихся к endAfter, по возрастанию id
+    // (для построения индекса занятости в памяти)
+    @Query("select new ru.practicum.shareit.booking.repository.BookingInterval(b.id, b.item.id, b.start, b.end, b.status) " +
+            "from Booking b " +
+            "where b.status in :statuses " +
+            "and b.end > :endAfter " +
+            "and b.id > :lastId " +
+            "order by b.id")
+    List<BookingInterval> findIntervalsAfterId(@Param("statuses") Collection<BookingStatus> statuses,
+                                               @Param("endAfter") LocalDateTime endAfter,
+                                               @Param("lastId") Long lastId,
+                                               Limit limit);
+
+    // Те же интервалы одной вещи (для сверки индекса с базой)
+    @Query("select new ru.practicum.shareit.booking.repository.BookingInterval(b.id, b.item.id, b.start, b.end, b.status) " +
+            "from Booking b " +
+            "where b.item.id = :itemId " +
+            "and b.status in :statuses " +
+            "and b.end > :endAfter")
+    List<BookingInterval> findIntervalsByItemId(@Param("itemId") Long itemId,
+                                                @Param("statuses") Collection<BookingStatus> statuses,
+                                                @Param("endAfter") LocalDateTime endAfter);
+
+    // Выгрузка всей истории курсором: строки читаются порциями по EXPORT_FETCH_SIZE, сущности только для чтения
+    String EXPORT_FETCH_SIZE = "500";
+
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")})
+    @Query("select b from Booking b " +
+            FETCH_ITEM_AND_BOOKER +
+            "where b.booker.id = :bookerId " +
+            "order by b.start desc, b.id desc")
+    Stream<Booking> streamByBookerId(@Param("bookerId") Long bookerId);
+
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")})
+    @Query("select b from Booking b " +
+            FETCH_ITEM_AND_BOOKER +
+            "where b.ownerId = :ownerId " +
+            "order by b.start desc, b.id desc")
+    Stream<Booking> streamByItemOwnerId(@Param("ownerId") Long ownerId);
+
+    // Бронирования с нужными статусами, начинающиеся в (from, to] (для таймеров начала);
+    // в PostgreSQL условие на start_date ограничивает чтение одной-двумя секциями
+    @Query("select new ru.practicum.shareit.booking.repository.BookingInterval(b.id, b.item.id, b.start, b.end, b.status) " +
+            "from Booking b " +
+            "where b.status in :statuses " +
+            "and b.start > :from " +
+            "and b.start <= :to")
+    List<BookingInterval> findStartingBetween(@Param("statuses") Collection<BookingStatus> statuses,
+                                              @Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to);
+
+    // Бронирования со статусом status, заканчивающиеся в (from, to] (для таймеров окончания)
+    @Query("select new ru.practicum.shareit.booking.repository.BookingInterval(b.id, b.item.id, b.start, b.end, b.status) " +
+            "from Booking b " +
+            "where b.status = :status " +
+            "and b.end > :from " +
+            "and b.end <= :to")
+    List<BookingInterval> findEndingBetween(@Param("status") BookingStatus status,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+
+    // Id бронирований в статусе status, уже начавшихся к now (просроченные ожидающие подтверждения)
+    @Query("select b.id from Booking b " +
+            "where b.status = :status " +
+            "and b.start <= :now " +
+            "order by b.id")
+    List<Long> findStartedIdsByStatus(@Param("status") BookingStatus status,
+                                      @Param("now") LocalDateTime now,
+                                      Pageable page);
+
+    // Блокировка бронирований до конца транзакции в порядке id, чтобы параллельные транзакции не ждали по кругу
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Booking b where b.id in :ids order by b.id")
+    List<Booking> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Перевод ожидающих бронирований в статус newStatus одним UPDATE; строки, успевшие выйти из WAITING, не меняются
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b " +
+            "set b.status = :newStatus, b.version = b.version + 1 " +
+            "where b.id in :ids " +
+            "and b.status = :waiting")
+    int updateWaitingStatus(@Param("ids") Collection<Long> ids,
+                            @Param("waiting") BookingStatus waiting,
+                            @Param("newStatus") BookingStatus newStatus);
+
+    // Счётчики по всем состояниям одним проходом: условная агрегация по горячей таблице и архиву,
+    // читаются только даты и статус, сущности не загружаются
+    String COUNT_BY_STATE = "select count(*) as \"all\", " +
+            "coalesce(sum(case when b.start_date <= :now and b.end_date >= :now then 1 else 0 end), 0) as \"current\", " +
+            "coalesce(sum(case when b.end_date < :now then 1 else 0 end), 0) as \"past\", " +
+            "coalesce(sum(case when b.start_date > :now then 1 else 0 end), 0) as \"future\", " +
+            "coalesce(sum(case when b.status = 'WAITING' then 1 else 0 end), 0) as \"waiting\", " +
+            "coalesce(sum(case when b.status = 'REJECTED' then 1 else 0 end), 0) as \"rejected\" ";
+
+    @Query(value = COUNT_BY_STATE +
+            "from (select start_date, end_date, status from bookings where booker_id = :bookerId " +
+            "      union all " +
+            "      select start_date, end_date, status from bookings_archive where booker_id = :bookerId) b",
+            nativeQuery = true)
+    BookingCounts countByBookerId(@Param("bookerId") Long bookerId, @Param("now") LocalDateTime now);
+
+    @Query(value = COUNT_BY_STATE +
+            "from (select start_date, end_date, status from bookings where owner_id = :ownerId " +
+            "      union all " +
+            "      select start_date, end_date, status from bookings_archive where owner_id = :ownerId) b",
+            nativeQuery = true)
+    BookingCounts countByItemOwnerId(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now);
+
+    // Id бронирований для переноса в архив: закончившиеся до endedBefore и отклонённые, уже закончившиеся к now.
+    // Условия на start избыточны, но отсекают будущие секции в PostgreSQL
+    @Query("select b.id from Booking b " +
+            "where (b.start < :endedBefore and b.end < :endedBefore) " +
+            "or (b.status = :rejected and b.start < :now and b.end < :now) " +
+            "order by b.id")
+    List<Long> findArchivableIds(@Param("endedBefore") LocalDateTime endedBefore,
+                                 @Param("rejected") BookingStatus rejected,
+                                 @Param("now") LocalDateTime now,
+                                 Pageable page);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Booking b where b.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Проверка возможности оставить комментарий: учитываются и бронирования, перенесённые в архив
+    @Query("select count(u) > 0 from User u " +
+            "where u.id = :bookerId " +
+            "and (exists (select b.id from Booking b " +
+            "             where b.booker.id = :bookerId and b.item.id = :itemId " +
+            "             and b.status = :status and b.end < :now) " +
+            "  or exists (select a.id from ArchivedBooking a " +
+            "             where a.booker.id = :bookerId and a.item.id = :itemId " +
+            "             and a.status = :status and a.end < :now))")
+    boolean existsByBookerIdAndItemIdAndStatusAndEndBefore(@Param("bookerId") Long bookerId,
+                                                           @Param("itemId") Long itemId,
+                                                           @Param("status") BookingStatus status,
+                                                           @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Последнее бронирование вещи из горячей таблицы или архива (см. {@link BookingRepository#findLastBooking}):
+ * только поля, которые показываются владельцу в lastBooking.
+ */
+public interface LastBookingRow {
+
+    Long getId();
+
+    Long getItemId();
+
+    Long getBookerId();
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+}
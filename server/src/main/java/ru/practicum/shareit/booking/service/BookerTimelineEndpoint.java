@@ -0,0 +1,40 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Обслуживание ленты арендатора через actuator:
+ * GET /actuator/bookertimeline - расхождения с источниками без исправления,
+ * POST /actuator/bookertimeline/repair - исправление расхождений,
+ * POST /actuator/bookertimeline/rebuild - полное перестроение.
+ */
+@Component
+@Endpoint(id = "bookertimeline")
+@RequiredArgsConstructor
+public class BookerTimelineEndpoint {
+
+    private final BookerTimelineProjector projector;
+
+    @ReadOperation
+    public BookerTimelineProjector.DriftReport drift() {
+        return projector.verify(false);
+    }
+
+    @WriteOperation
+    public Map<String, Object> run(@Selector String operation) {
+        return switch (operation) {
+            case "repair" -> Map.of("repaired", projector.verify(true));
+            case "rebuild" -> Map.of("rows", projector.rebuild());
+            default -> throw new InvalidEndpointRequestException("Unknown operation: " + operation,
+                    "Supported operations: repair, rebuild");
+        };
+    }
+}
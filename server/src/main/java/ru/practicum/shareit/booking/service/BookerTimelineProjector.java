@@ -0,0 +1,150 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookerTimelineRepository;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Поддерживает ленту бронирований арендатора {@code booker_timeline} - денормализованную модель чтения
+ * для списков бронирований арендатора.
+ * <p>
+ * Лента обновляется в той же транзакции, что и источник: создание бронирования, смена его статуса,
+ * переименование вещи или пользователя. Удаление вещи или пользователя каскадно удаляет строки внешними ключами,
+ * перенос в архив ленту не меняет. Поэтому лента согласована с источниками сразу после фиксации.
+ * <p>
+ * На случай записей в обход сервисов есть {@link #rebuild()} (полное перестроение одной транзакцией)
+ * и {@link #verify} (поиск и исправление расхождений, по расписанию {@code shareit.booking.timeline.verify-cron}),
+ * доступные и через actuator-эндпоинт {@link BookerTimelineEndpoint}.
+ */
+@Slf4j
+@Component
+public class BookerTimelineProjector {
+
+    private final BookerTimelineRepository timelineRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int verifyLimit;
+    private final Counter driftCounter;
+
+    public record DriftReport(int missing, int stale, int orphaned) {
+
+        public int total() {
+            return missing + stale + orphaned;
+        }
+    }
+
+    public BookerTimelineProjector(BookerTimelineRepository timelineRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${shareit.booking.timeline.enabled:true}") boolean enabled,
+                                   @Value("${shareit.booking.timeline.verify-limit:1000}") int verifyLimit) {
+        this.timelineRepository = timelineRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.verifyLimit = verifyLimit;
+        this.driftCounter = Counter.builder("shareit.booking.timeline.drift")
+                .description("Booker timeline rows found out of sync with source tables")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Отвечать ли на списки бронирований арендатора по ленте. Лента поддерживается и при выключенном чтении,
+     * чтобы его можно было включить без перестроения.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onBookingCreated(Long bookingId) {
+        timelineRepository.copyFromBookings(List.of(bookingId));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onStatusChanged(Collection<Long> bookingIds, BookingStatus status) {
+        if (!bookingIds.isEmpty()) {
+            timelineRepository.updateStatus(bookingIds, status);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onItemRenamed(Long itemId, String name) {
+        timelineRepository.renameItem(itemId, name);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onUserRenamed(Long userId, String name) {
+        timelineRepository.renameBooker(userId, name);
+    }
+
+    /**
+     * Перестраивает ленту из горячей таблицы и архива одной транзакцией: до фиксации читатели видят прежнюю ленту.
+     * Возвращает число строк в новой ленте.
+     */
+    public int rebuild() {
+        Integer rows = transactionTemplate.execute(status -> {
+            timelineRepository.deleteAllRows();
+            return timelineRepository.copyAllFromBookings() + timelineRepository.copyAllFromArchive();
+        });
+        log.info("Booker timeline rebuilt: {} rows", rows);
+        return rows != null ? rows : 0;
+    }
+
+    @Scheduled(cron = "${shareit.booking.timeline.verify-cron:0 45 4 * * *}")
+    public void verifyScheduled() {
+        verify(true);
+    }
+
+    /**
+     * Сверяет ленту с бронированиями, вещами и пользователями. При repair найденные расхождения исправляются:
+     * недостающие и устаревшие строки строятся заново из источников, строки без источника удаляются.
+     * За один вызов каждого вида расхождений находится не больше {@code verify-limit}.
+     */
+    public DriftReport verify(boolean repair) {
+        DriftReport report = transactionTemplate.execute(status -> {
+            Set<Long> missing = new LinkedHashSet<>(timelineRepository.findMissingFromBookings(verifyLimit));
+            missing.addAll(timelineRepository.findMissingFromArchive(verifyLimit));
+            Set<Long> stale = new LinkedHashSet<>(timelineRepository.findStaleFromBookings(verifyLimit));
+            stale.addAll(timelineRepository.findStaleFromArchive(verifyLimit));
+            List<Long> orphaned = timelineRepository.findOrphaned(verifyLimit);
+            if (!repair) {
+                return new DriftReport(missing.size(), stale.size(), orphaned.size());
+            }
+
+            Set<Long> reload = new LinkedHashSet<>(missing);
+            reload.addAll(stale);
+            Set<Long> delete = new LinkedHashSet<>(stale);
+            delete.addAll(orphaned);
+            if (!delete.isEmpty()) {
+                timelineRepository.deleteAllByIdIn(delete);
+            }
+            if (!reload.isEmpty()) {
+                timelineRepository.copyFromBookings(reload);
+                timelineRepository.copyFromArchive(reload);
+            }
+            return new DriftReport(missing.size(), stale.size(), orphaned.size());
+        });
+        if (report.total() > 0) {
+            driftCounter.increment(report.total());
+            log.warn("Booker timeline is out of sync{}: {} missing, {} stale, {} orphaned rows",
+                    repair ? ", repaired" : "", report.missing(), report.stale(), report.orphaned());
+        } else {
+            log.debug("Booker timeline is consistent with source tables");
+        }
+        return report;
+    }
+}
@@ -0,0 +1,108 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Переносит завершённые бронирования из горячей таблицы bookings в bookings_archive.
+ * <p>
+ * В архив уходят бронирования, закончившиеся более {@code shareit.booking.archive.after-months} месяцев назад,
+ * и отклонённые бронирования, как только они закончились (CURRENT и FUTURE архив не затрагивают).
+ * Перенос идёт пачками по {@code batch-size}, каждая пачка - отдельная транзакция (INSERT ... SELECT и DELETE),
+ * между пачками выдерживается пауза {@code pause-ms}, за один запуск - не больше {@code max-batches} пачек.
+ */
+@Slf4j
+@Component
+public class BookingArchiver {
+
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int afterMonths;
+    private final int batchSize;
+    private final long pauseMs;
+    private final int maxBatches;
+
+    public BookingArchiver(BookingRepository bookingRepository,
+                           ArchivedBookingRepository archivedBookingRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${shareit.booking.archive.enabled:true}") boolean enabled,
+                           @Value("${shareit.booking.archive.after-months:6}") int afterMonths,
+                           @Value("${shareit.booking.archive.batch-size:500}") int batchSize,
+                           @Value("${shareit.booking.archive.pause-ms:100}") long pauseMs,
+                           @Value("${shareit.booking.archive.max-batches:200}") int maxBatches) {
+        this.bookingRepository = bookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.afterMonths = afterMonths;
+        this.batchSize = batchSize;
+        this.pauseMs = pauseMs;
+        this.maxBatches = maxBatches;
+    }
+
+    @Scheduled(cron = "${shareit.booking.archive.cron:0 30 3 * * *}")
+    public void archiveScheduled() {
+        if (enabled) {
+            archive(LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Выполняет один запуск архивации относительно момента now и возвращает число перенесённых бронирований.
+     */
+    public int archive(LocalDateTime now) {
+        LocalDateTime endedBefore = now.minusMonths(afterMonths);
+        int archived = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Integer moved = transactionTemplate.execute(status -> archiveBatch(endedBefore, now));
+            archived += moved;
+            if (moved < batchSize) {
+                break;
+            }
+            if (!pause()) {
+                break;
+            }
+        }
+        if (archived > 0) {
+            log.info("Archived {} bookings ended before {} or rejected", archived, endedBefore);
+        }
+        return archived;
+    }
+
+    private int archiveBatch(LocalDateTime endedBefore, LocalDateTime now) {
+        List<Long> ids = bookingRepository.findArchivableIds(endedBefore, BookingStatus.REJECTED, now,
+                PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archivedBookingRepository.copyFromBookings(ids, now);
+        return bookingRepository.deleteAllByIdIn(ids);
+    }
+
+    private boolean pause() {
+        if (pauseMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Booking archiving interrupted");
+            return false;
+        }
+    }
+}
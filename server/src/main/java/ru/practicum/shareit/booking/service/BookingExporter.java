@@ -0,0 +1,101 @@
+package ru.practicum.shareit.booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.ArchivedBooking;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Выгрузка всей истории бронирований пользователя в NDJSON (один {@link BookingResponseDto} на строку).
+ * <p>
+ * Горячая таблица и архив читаются курсорами, упорядоченными по (start desc, id desc), и сливаются на лету,
+ * поэтому в памяти держится не больше порции выборки: строки пишутся в поток сразу, а контекст персистентности
+ * очищается после каждой порции. Чтение идёт в одной read-only транзакции на всё время выгрузки.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingExporter {
+
+    private static final int CLEAR_EVERY = Integer.parseInt(BookingRepository.EXPORT_FETCH_SIZE);
+    private static final byte[] LINE_SEPARATOR = {'\n'};
+
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Проверяет пользователя до начала выгрузки, пока ответ ещё можно вернуть с кодом ошибки.
+     */
+    public void requireUser(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("User not found with id: " + userId);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportByBooker(Long bookerId, OutputStream out) throws IOException {
+        try (Stream<Booking> bookings = bookingRepository.streamByBookerId(bookerId);
+             Stream<ArchivedBooking> archived = archivedBookingRepository.streamByBookerId(bookerId)) {
+            long written = write(bookings, archived, out);
+            log.info("Exported {} bookings of booker {}", written, bookerId);
+            return written;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportByOwner(Long ownerId, OutputStream out) throws IOException {
+        try (Stream<Booking> bookings = bookingRepository.streamByItemOwnerId(ownerId);
+             Stream<ArchivedBooking> archived = archivedBookingRepository.streamByItemOwnerId(ownerId)) {
+            long written = write(bookings, archived, out);
+            log.info("Exported {} bookings of owner {}", written, ownerId);
+            return written;
+        }
+    }
+
+    private long write(Stream<Booking> bookings, Stream<ArchivedBooking> archived, OutputStream out)
+            throws IOException {
+        Iterator<BookingResponseDto> hot = bookings.map(BookingMapper::toResponseDto).iterator();
+        Iterator<BookingResponseDto> cold = archived.map(BookingMapper::toResponseDto).iterator();
+        BookingResponseDto nextHot = hot.hasNext() ? hot.next() : null;
+        BookingResponseDto nextCold = cold.hasNext() ? cold.next() : null;
+        long written = 0;
+        while (nextHot != null || nextCold != null) {
+            BookingResponseDto next;
+            if (nextCold == null || (nextHot != null && BookingServiceImpl.NEWEST_FIRST.compare(nextHot, nextCold) <= 0)) {
+                next = nextHot;
+                nextHot = hot.hasNext() ? hot.next() : null;
+            } else {
+                next = nextCold;
+                nextCold = cold.hasNext() ? cold.next() : null;
+            }
+            out.write(objectMapper.writeValueAsBytes(next));
+            out.write(LINE_SEPARATOR);
+            written++;
+            if (written % CLEAR_EVERY == 0) {
+                // Уже выгруженные бронирования, вещи и пользователи больше не нужны
+                entityManager.clear();
+                out.flush();
+            }
+        }
+        out.flush();
+        return written;
+    }
+}
@@ -0,0 +1,314 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.occupancy.BookingOccupancyIndex;
+import ru.practicum.shareit.booking.repository.BookingInterval;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.outbox.DomainEventType;
+import ru.practicum.shareit.outbox.OutboxPublisher;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Таймеры начала и окончания бронирований на {@link HierarchicalTimingWheel}.
+ * <p>
+ * Колесо держит таймеры только на ближайшие {@code shareit.booking.lifecycle.lookahead-minutes}: они подгружаются
+ * из базы при старте и каждые {@code refill-ms}, а бронирования, созданные или подтверждённые в этом окне,
+ * ставятся на таймер сразу после фиксации транзакции. Колесо продвигается каждые {@code tick-ms}.
+ * <p>
+ * Когда наступает начало бронирования, ожидающее подтверждения бронирование отменяется (CANCELED,
+ * событие BOOKING_EXPIRED), а для подтверждённого публикуется BOOKING_STARTED; по окончании подтверждённого -
+ * BOOKING_ENDED. Сработавшие таймеры обрабатываются пачками по {@code batch-size}, каждая пачка - одна транзакция
+ * с блокировкой строк, поэтому отмена не гонится с подтверждением владельцем. Ожидающие бронирования, начало
+ * которых пропущено (например, пока сервер не работал), отменяются при старте и при каждой подгрузке;
+ * события начала и окончания за такие периоды не публикуются. На нескольких узлах события начала и окончания
+ * могут прийти повторно - получатели outbox и так обрабатывают события не менее одного раза.
+ */
+@Slf4j
+@Component
+public class BookingLifecycleScheduler {
+
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_LEVELS = 4;
+
+    enum Transition {
+        START,
+        END
+    }
+
+    record LifecycleTimer(long bookingId, Transition transition) {
+    }
+
+    private final BookingRepository bookingRepository;
+    private final OutboxPublisher outboxPublisher;
+    private final BookingOccupancyIndex occupancyIndex;
+    private final BookerTimelineProjector timelineProjector;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long tickMs;
+    private final Duration lookahead;
+    private final int batchSize;
+    private final Set<LifecycleTimer> scheduled = ConcurrentHashMap.newKeySet();
+    private final Counter expiredCounter;
+    private final Counter startedCounter;
+    private final Counter endedCounter;
+    private volatile HierarchicalTimingWheel<LifecycleTimer> wheel;
+    private volatile LocalDateTime loadedUntil;
+
+    public BookingLifecycleScheduler(BookingRepository bookingRepository,
+                                     OutboxPublisher outboxPublisher,
+                                     BookingOccupancyIndex occupancyIndex,
+                                     BookerTimelineProjector timelineProjector,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${shareit.booking.lifecycle.enabled:true}") boolean enabled,
+                                     @Value("${shareit.booking.lifecycle.tick-ms:1000}") long tickMs,
+                                     @Value("${shareit.booking.lifecycle.lookahead-minutes:60}") long lookaheadMinutes,
+                                     @Value("${shareit.booking.lifecycle.batch-size:100}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.outboxPublisher = outboxPublisher;
+        this.occupancyIndex = occupancyIndex;
+        this.timelineProjector = timelineProjector;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.tickMs = tickMs;
+        this.lookahead = Duration.ofMinutes(lookaheadMinutes);
+        this.batchSize = batchSize;
+        this.wheel = newWheel();
+        this.expiredCounter = Counter.builder("shareit.booking.lifecycle.expired")
+                .description("WAITING bookings canceled because their start has passed")
+                .register(meterRegistry);
+        this.startedCounter = Counter.builder("shareit.booking.lifecycle.started")
+                .description("Booking started events published")
+                .register(meterRegistry);
+        this.endedCounter = Counter.builder("shareit.booking.lifecycle.ended")
+                .description("Booking ended events published")
+                .register(meterRegistry);
+        meterRegistry.gauge("shareit.booking.lifecycle.timers", this, o -> o.wheel.size());
+    }
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            LocalDateTime now = LocalDateTime.now();
+            expireOverdue(now);
+            refill(now);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.lifecycle.tick-ms:1000}")
+    public void tickScheduled() {
+        if (enabled) {
+            fire(LocalDateTime.now());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.lifecycle.refill-ms:600000}",
+            initialDelayString = "${shareit.booking.lifecycle.refill-ms:600000}")
+    public void refillScheduled() {
+        if (enabled) {
+            LocalDateTime now = LocalDateTime.now();
+            expireOverdue(now);
+            refill(now);
+        }
+    }
+
+    /**
+     * Ставит на таймеры начала и окончания бронирования из следующего окна подгрузки.
+     */
+    public void refill(LocalDateTime now) {
+        LocalDateTime from = loadedUntil != null && loadedUntil.isAfter(now) ? loadedUntil : now;
+        LocalDateTime until = now.plus(lookahead);
+        if (!until.isAfter(from)) {
+            return;
+        }
+        List<BookingInterval> starting = bookingRepository.findStartingBetween(
+                List.of(BookingStatus.WAITING, BookingStatus.APPROVED), from, until);
+        for (BookingInterval interval : starting) {
+            schedule(new LifecycleTimer(interval.id(), Transition.START), interval.start());
+        }
+        List<BookingInterval> ending = bookingRepository.findEndingBetween(BookingStatus.APPROVED, from, until);
+        for (BookingInterval interval : ending) {
+            schedule(new LifecycleTimer(interval.id(), Transition.END), interval.end());
+        }
+        loadedUntil = until;
+        log.debug("Scheduled {} booking starts and {} ends until {}", starting.size(), ending.size(), until);
+    }
+
+    /**
+     * Продвигает колесо до момента now и обрабатывает сработавшие таймеры.
+     */
+    public void fire(LocalDateTime now) {
+        List<LifecycleTimer> due = wheel.advance(toMillis(now));
+        if (due.isEmpty()) {
+            return;
+        }
+        List<Long> started = new ArrayList<>();
+        List<Long> ended = new ArrayList<>();
+        for (LifecycleTimer timer : due) {
+            scheduled.remove(timer);
+            (timer.transition() == Transition.START ? started : ended).add(timer.bookingId());
+        }
+        inBatches(started, batch -> processStarts(batch, now));
+        inBatches(ended, batch -> processEnds(batch, now));
+    }
+
+    /**
+     * Отменяет все ожидающие подтверждения бронирования, начало которых уже наступило.
+     */
+    public int expireOverdue(LocalDateTime now) {
+        int expired = 0;
+        List<Long> ids;
+        do {
+            ids = bookingRepository.findStartedIdsByStatus(BookingStatus.WAITING, now, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            List<Long> batch = ids;
+            Integer count = transactionTemplate.execute(status -> processStarts(batch, now));
+            expired += count;
+        } while (ids.size() == batchSize);
+        if (expired > 0) {
+            log.info("Canceled {} WAITING bookings whose start has passed", expired);
+        }
+        return expired;
+    }
+
+    /**
+     * Ставит на таймеры бронирование, созданное или изменённое в текущей транзакции, после её фиксации.
+     */
+    public void onBookingSaved(Booking booking) {
+        if (!enabled) {
+            return;
+        }
+        long bookingId = booking.getId();
+        LocalDateTime start = booking.getStart();
+        LocalDateTime end = booking.getEnd();
+        BookingStatus status = booking.getStatus();
+        afterCommit(() -> {
+            LocalDateTime until = LocalDateTime.now().plus(lookahead);
+            if ((status == BookingStatus.WAITING || status == BookingStatus.APPROVED) && !start.isAfter(until)) {
+                schedule(new LifecycleTimer(bookingId, Transition.START), start);
+            }
+            if (status == BookingStatus.APPROVED && !end.isAfter(until)) {
+                schedule(new LifecycleTimer(bookingId, Transition.END), end);
+            }
+        });
+    }
+
+    /**
+     * Сбрасывает все таймеры и окно подгрузки.
+     */
+    public void clear() {
+        wheel = newWheel();
+        scheduled.clear();
+        loadedUntil = null;
+    }
+
+    public int pendingTimers() {
+        return wheel.size();
+    }
+
+    private int processStarts(List<Long> ids, LocalDateTime now) {
+        List<Booking> expiring = new ArrayList<>();
+        for (Booking booking : bookingRepository.findAllByIdForUpdate(ids)) {
+            if (booking.getStart().isAfter(now)) {
+                continue;
+            }
+            if (booking.getStatus() == BookingStatus.WAITING) {
+                expiring.add(booking);
+            } else if (booking.getStatus() == BookingStatus.APPROVED) {
+                outboxPublisher.publish(DomainEventType.BOOKING_STARTED, booking.getId(),
+                        BookingServiceImpl.eventPayload(booking));
+                startedCounter.increment();
+            }
+        }
+        if (expiring.isEmpty()) {
+            return 0;
+        }
+        // Строки заблокированы выше, поэтому обновятся все
+        List<Long> expiringIds = expiring.stream().map(Booking::getId).toList();
+        bookingRepository.updateWaitingStatus(expiringIds, BookingStatus.WAITING, BookingStatus.CANCELED);
+        timelineProjector.onStatusChanged(expiringIds, BookingStatus.CANCELED);
+        for (Booking booking : expiring) {
+            booking.setStatus(BookingStatus.CANCELED);
+            occupancyIndex.onBookingSaved(booking);
+            outboxPublisher.publish(DomainEventType.BOOKING_EXPIRED, booking.getId(),
+                    BookingServiceImpl.eventPayload(booking));
+        }
+        expiredCounter.increment(expiring.size());
+        return expiring.size();
+    }
+
+    private int processEnds(List<Long> ids, LocalDateTime now) {
+        int ended = 0;
+        for (Booking booking : bookingRepository.findAllById(ids)) {
+            if (booking.getStatus() == BookingStatus.APPROVED && !booking.getEnd().isAfter(now)) {
+                outboxPublisher.publish(DomainEventType.BOOKING_ENDED, booking.getId(),
+                        BookingServiceImpl.eventPayload(booking));
+                ended++;
+            }
+        }
+        endedCounter.increment(ended);
+        return ended;
+    }
+
+    private void inBatches(List<Long> ids, Function<List<Long>, Integer> action) {
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            try {
+                transactionTemplate.execute(status -> action.apply(batch));
+            } catch (RuntimeException e) {
+                // Просроченные ожидающие бронирования подберёт следующая подгрузка; события этой пачки теряются
+                log.error("Failed to process booking lifecycle timers for bookings {}", batch, e);
+            }
+        }
+    }
+
+    private void schedule(LifecycleTimer timer, LocalDateTime at) {
+        if (scheduled.add(timer)) {
+            wheel.schedule(toMillis(at), timer);
+        }
+    }
+
+    private HierarchicalTimingWheel<LifecycleTimer> newWheel() {
+        return new HierarchicalTimingWheel<>(tickMs, WHEEL_SIZE, WHEEL_LEVELS, System.currentTimeMillis());
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
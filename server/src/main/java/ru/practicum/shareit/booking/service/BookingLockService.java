@@ -0,0 +1,154 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.exception.ConflictException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Полосатые (striped) блокировки по id вещи для операций, меняющих её бронирования.
+ * <p>
+ * Вещь отображается на одну из {@code shareit.booking.lock.stripes} блокировок, поэтому операции над
+ * одной вещью выполняются по очереди, а над разными вещами (почти всегда попадающими в разные полосы) -
+ * параллельно. Блокировка удерживается до завершения текущей транзакции, чтобы следующая операция
+ * увидела уже зафиксированные данные. Если блокировку не удалось получить за
+ * {@code shareit.booking.lock.timeout-ms}, выбрасывается {@link ConflictException}.
+ */
+@Slf4j
+@Component
+public class BookingLockService {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final long timeoutMs;
+    private final Timer waitTimer;
+    private final Counter contendedCounter;
+    private final Counter timeoutCounter;
+
+    public BookingLockService(@Value("${shareit.booking.lock.stripes:64}") int stripeCount,
+                              @Value("${shareit.booking.lock.timeout-ms:2000}") long timeoutMs,
+                              MeterRegistry meterRegistry) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.timeoutMs = timeoutMs;
+        this.waitTimer = Timer.builder("shareit.booking.lock.wait")
+                .description("Time spent waiting for an item booking lock")
+                .register(meterRegistry);
+        this.contendedCounter = Counter.builder("shareit.booking.lock.contended")
+                .description("Item booking lock acquisitions that had to wait")
+                .register(meterRegistry);
+        this.timeoutCounter = Counter.builder("shareit.booking.lock.timeouts")
+                .description("Item booking lock acquisitions that timed out")
+                .register(meterRegistry);
+        meterRegistry.gauge("shareit.booking.lock.held", this, BookingLockService::heldCount);
+    }
+
+    /**
+     * Захватывает блокировку вещи и отпускает её после фиксации или отката текущей транзакции.
+     */
+    public void lockUntilTransactionEnd(Long itemId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Item lock requires an active transaction");
+        }
+        ReentrantLock lock = acquire(itemId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Захватывает блокировки нескольких вещей до завершения текущей транзакции. Полосы берутся
+     * в порядке возрастания номера, поэтому пакеты с пересекающимися вещами не ждут друг друга по кругу.
+     */
+    public void lockAllUntilTransactionEnd(Collection<Long> itemIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Item lock requires an active transaction");
+        }
+        TreeMap<Integer, Long> itemByStripe = new TreeMap<>();
+        for (Long itemId : itemIds) {
+            itemByStripe.putIfAbsent(stripeIndex(itemId), itemId);
+        }
+        List<ReentrantLock> locked = new ArrayList<>(itemByStripe.size());
+        try {
+            for (Long itemId : itemByStripe.values()) {
+                locked.add(acquire(itemId));
+            }
+        } catch (RuntimeException e) {
+            locked.forEach(ReentrantLock::unlock);
+            throw e;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                locked.forEach(ReentrantLock::unlock);
+            }
+        });
+    }
+
+    /**
+     * Захватывает блокировку вещи. Вызывающий обязан вызвать {@code unlock()} у возвращённой блокировки.
+     */
+    public ReentrantLock acquire(Long itemId) {
+        ReentrantLock lock = stripeFor(itemId);
+        if (lock.tryLock()) {
+            return lock;
+        }
+        contendedCounter.increment();
+        long startedAt = System.nanoTime();
+        try {
+            if (!lock.tryLock(timeoutMs, TimeUnit.MILLISECONDS)) {
+                timeoutCounter.increment();
+                log.warn("Timed out after {} ms waiting for booking lock of item {}", timeoutMs, itemId);
+                throw new ConflictException("Item " + itemId + " is busy, please retry");
+            }
+            return lock;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Interrupted while waiting for item " + itemId);
+        } finally {
+            waitTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    int stripeIndex(Long itemId) {
+        int hash = Long.hashCode(itemId);
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private ReentrantLock stripeFor(Long itemId) {
+        return stripes[stripeIndex(itemId)];
+    }
+
+    private double heldCount() {
+        int held = 0;
+        for (ReentrantLock lock : stripes) {
+            if (lock.isLocked()) {
+                held++;
+            }
+        }
+        return held;
+    }
+}
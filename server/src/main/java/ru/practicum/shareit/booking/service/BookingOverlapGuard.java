@@ -0,0 +1,113 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * Не допускает пересечения подтверждённых бронирований одной вещи.
+ * <p>
+ * Подтверждения одной вещи сериализуются блокировкой строки вещи, после чего пересечение проверяется запросом.
+ * Бронирования разных вещей друг друга не ждут. В PostgreSQL таблица бронирований секционирована по start_date,
+ * и exclusion-ограничение на каждой секции (см. schema-postgresql.sql) ловит пересечения только внутри секции,
+ * поэтому блокировка нужна на любой СУБД, а нарушение ограничения лишь дополнительно переводится
+ * в {@link ConflictException}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingOverlapGuard {
+
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+
+    /**
+     * Проверяет, что период не пересекается с уже подтверждёнными бронированиями вещи.
+     */
+    public void checkNoApprovedOverlap(Long itemId, LocalDateTime start, LocalDateTime end) {
+        if (bookingRepository.existsOverlapping(itemId, BookingStatus.APPROVED, start, end)) {
+            throw new ConflictException("Item " + itemId + " is already booked for the requested period");
+        }
+    }
+
+    /**
+     * Готовит подтверждение бронирования: блокирует строку вещи,
+     * затем проверяет пересечение с уже подтверждёнными бронированиями.
+     */
+    public void prepareApproval(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        itemRepository.findByIdForUpdate(itemId)
+                .orElseThrow(() -> new NotFoundException("Item not found with id: " + itemId));
+        checkNoApprovedOverlap(itemId, booking.getStart(), booking.getEnd());
+    }
+
+    /**
+     * Готовит пакетное подтверждение и возвращает id бронирований, которые подтвердить нельзя:
+     * их период пересекается с уже подтверждёнными бронированиями вещи или с бронированием,
+     * стоящим раньше в этом же пакете. Все вещи пакета проверяются одним запросом.
+     */
+    public Set<Long> prepareApprovals(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return Set.of();
+        }
+        Set<Long> itemIds = new TreeSet<>();
+        LocalDateTime from = LocalDateTime.MAX;
+        LocalDateTime to = LocalDateTime.MIN;
+        for (Booking booking : bookings) {
+            itemIds.add(booking.getItem().getId());
+            from = booking.getStart().isBefore(from) ? booking.getStart() : from;
+            to = booking.getEnd().isAfter(to) ? booking.getEnd() : to;
+        }
+        itemRepository.findAllByIdForUpdate(itemIds);
+
+        Map<Long, List<Booking>> approvedByItemId = new HashMap<>();
+        for (Booking approved : bookingRepository.findOverlappingByItemIds(itemIds, BookingStatus.APPROVED, from, to)) {
+            approvedByItemId.computeIfAbsent(approved.getItem().getId(), id -> new ArrayList<>()).add(approved);
+        }
+        Set<Long> conflicting = new HashSet<>();
+        for (Booking booking : bookings) {
+            List<Booking> approved = approvedByItemId.computeIfAbsent(booking.getItem().getId(), id -> new ArrayList<>());
+            boolean overlaps = approved.stream().anyMatch(other ->
+                    other.getStart().isBefore(booking.getEnd()) && other.getEnd().isAfter(booking.getStart()));
+            if (overlaps) {
+                conflicting.add(booking.getId());
+            } else {
+                approved.add(booking);
+            }
+        }
+        return conflicting;
+    }
+
+    /**
+     * Выполняет запись, переводя нарушение ограничения на пересечение в {@link ConflictException}.
+     */
+    public <T> T translateConflict(Long itemId, Supplier<T> write) {
+        return translateConflict("Item " + itemId + " is already booked for the requested period", write);
+    }
+
+    public <T> T translateConflict(String conflictMessage, Supplier<T> write) {
+        try {
+            return write.get();
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Concurrent approval conflict: {}", e.getMessage());
+            throw new ConflictException(conflictMessage);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Заранее создаёт месячные секции таблицы bookings в PostgreSQL (функция create_bookings_partition
+ * из schema-postgresql.sql), чтобы новые бронирования не копились в секции по умолчанию.
+ * На других СУБД таблица не секционирована, и компонент ничего не делает.
+ */
+@Slf4j
+@Component
+public class BookingPartitionMaintainer {
+
+    private static final String CREATE_PARTITIONS = "select create_bookings_partition(" +
+            "date_trunc('month', now()) + make_interval(months => m)) " +
+            "from generate_series(0, ?) m";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final boolean partitioned;
+
+    public BookingPartitionMaintainer(JdbcTemplate jdbcTemplate,
+                                      @Value("${shareit.booking.partitions.months-ahead:3}") int monthsAhead,
+                                      @Value("${spring.datasource.url}") String datasourceUrl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.partitioned = DatabaseDriver.fromJdbcUrl(datasourceUrl) == DatabaseDriver.POSTGRESQL;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${shareit.booking.partitions.cron:0 0 3 * * *}")
+    public void ensureFuturePartitions() {
+        if (!partitioned) {
+            return;
+        }
+        jdbcTemplate.queryForList(CREATE_PARTITIONS, monthsAhead);
+        log.info("Booking partitions ensured for {} months ahead", monthsAhead);
+    }
+}
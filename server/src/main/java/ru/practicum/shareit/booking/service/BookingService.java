@@ -1,7 +1,10 @@
 package ru.practicum.shareit.booking.service;
 
 import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.dto.BookingBulkApproveDto;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 
 import java.util.List;
@@ -12,9 +15,26 @@ public interface BookingService {
 
     BookingResponseDto approve(Long ownerId, Long bookingId, Boolean approved);
 
+    /**
+     * Пакетно подтверждает или отклоняет бронирования владельца вещей. Результат - по одному элементу
+     * на каждое решение в исходном порядке; бронирования, которые обработать нельзя, не мешают остальным.
+     */
+    List<BookingDecisionResultDto> approveAll(Long ownerId, BookingBulkApproveDto bulkDto);
+
     BookingResponseDto getById(Long userId, Long bookingId);
 
-    List<BookingResponseDto> getAllByBooker(Long bookerId, BookingState state);
+    /**
+     * Страница бронирований пользователя, упорядоченных по (start desc, id desc).
+     * Если передан cursor, страница начинается сразу после него, а from игнорируется.
+     */
+    List<BookingResponseDto> getAllByBooker(Long bookerId, BookingState state, int from, int size, String cursor);
+
+    List<BookingResponseDto> getAllByOwner(Long ownerId, BookingState state, int from, int size, String cursor);
+
+    /**
+     * Число бронирований пользователя в каждом состоянии (с учётом архива) - одним агрегирующим запросом.
+     */
+    BookingCountsDto getCountsByBooker(Long bookerId);
 
-    List<BookingResponseDto> getAllByOwner(Long ownerId, BookingState state);
+    BookingCountsDto getCountsByOwner(Long ownerId);
 }
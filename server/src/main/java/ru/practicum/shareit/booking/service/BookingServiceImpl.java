@@ -2,26 +2,48 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.ArchivedBooking;
 import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingCursor;
 import ru.practicum.shareit.booking.BookingState;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.OffsetPageRequest;
+import ru.practicum.shareit.booking.dto.BookingBulkApproveDto;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.occupancy.BookingOccupancyIndex;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookerTimelineRepository;
+import ru.practicum.shareit.booking.repository.BookerTimelineRow;
+import ru.practicum.shareit.booking.repository.BookingCounts;
+import ru.practicum.shareit.booking.repository.BookingListRow;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.DomainEventType;
+import ru.practicum.shareit.outbox.OutboxPublisher;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -30,9 +52,25 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
 
+    private static final int MAX_BULK_DECISIONS = 100;
+
+    // Порядок выдачи списков: как в запросах репозиториев, (start desc, id desc)
+    static final Comparator<BookingResponseDto> NEWEST_FIRST = Comparator
+            .comparing(BookingResponseDto::getStart)
+            .thenComparing(BookingResponseDto::getId)
+            .reversed();
+
     private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final BookingOverlapGuard overlapGuard;
+    private final BookingLockService bookingLockService;
+    private final OutboxPublisher outboxPublisher;
+    private final BookingOccupancyIndex occupancyIndex;
+    private final BookingLifecycleScheduler lifecycleScheduler;
+    private final BookerTimelineProjector timelineProjector;
+    private final BookerTimelineRepository timelineRepository;
 
     @Override
     @Transactional
@@ -60,16 +98,27 @@ public class BookingServiceImpl implements BookingService {
             throw new NotFoundException("Owner cannot book their own item");
         }
 
+        // Serialize booking changes of this item until the transaction ends
+        bookingLockService.lockUntilTransactionEnd(item.getId());
+
+        // Validate period is not taken by an approved booking
+        overlapGuard.checkNoApprovedOverlap(item.getId(), bookingCreateDto.getStart(), bookingCreateDto.getEnd());
+
         // Create booking
         Booking booking = Booking.builder()
                 .start(bookingCreateDto.getStart())
                 .end(bookingCreateDto.getEnd())
                 .item(item)
                 .booker(booker)
+                .ownerId(item.getOwner().getId())
                 .status(BookingStatus.WAITING)
                 .build();
 
         Booking savedBooking = bookingRepository.save(booking);
+        timelineProjector.onBookingCreated(savedBooking.getId());
+        occupancyIndex.onBookingSaved(savedBooking);
+        lifecycleScheduler.onBookingSaved(savedBooking);
+        outboxPublisher.publish(DomainEventType.BOOKING_CREATED, savedBooking.getId(), eventPayload(savedBooking));
         log.info("Created booking with id: {}", savedBooking.getId());
 
         return BookingMapper.toResponseDto(savedBooking);
@@ -78,7 +127,7 @@ public class BookingServiceImpl implements BookingService {
     @Override
     @Transactional
     public BookingResponseDto approve(Long ownerId, Long bookingId, Boolean approved) {
-        Booking booking = bookingRepository.findById(bookingId)
+        Booking booking = bookingRepository.findWithItemAndBookerById(bookingId)
                 .orElseThrow(() -> new NotFoundException("Booking not found with id: " + bookingId));
 
         // Validate user is the owner
@@ -86,23 +135,117 @@ public class BookingServiceImpl implements BookingService {
             throw new ForbiddenException("Only item owner can approve booking");
         }
 
+        // Serialize booking changes of this item until the transaction ends; a status changed
+        // after the booking was read is caught by the versioned update below
+        bookingLockService.lockUntilTransactionEnd(booking.getItem().getId());
+
         // Validate booking status
         if (booking.getStatus() != BookingStatus.WAITING) {
             throw new ValidationException("Only WAITING bookings can be approved or rejected");
         }
 
         // Update status
-        booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        Booking updatedBooking = bookingRepository.save(booking);
+        if (approved) {
+            overlapGuard.prepareApproval(booking);
+        }
+        transitionFromWaiting(booking, approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
+        timelineProjector.onStatusChanged(List.of(bookingId), booking.getStatus());
+        occupancyIndex.onBookingSaved(booking);
+        lifecycleScheduler.onBookingSaved(booking);
+        outboxPublisher.publish(approved ? DomainEventType.BOOKING_APPROVED : DomainEventType.BOOKING_REJECTED,
+                bookingId, eventPayload(booking));
 
         log.info("Booking {} {} by owner {}", bookingId, approved ? "approved" : "rejected", ownerId);
-        return BookingMapper.toResponseDto(updatedBooking);
+        return BookingMapper.toResponseDto(booking);
+    }
+
+    @Override
+    @Transactional
+    public List<BookingDecisionResultDto> approveAll(Long ownerId, BookingBulkApproveDto bulkDto) {
+        Map<Long, Boolean> decisions = toDecisions(bulkDto);
+
+        // Одним запросом загружаем все бронирования пакета; владелец хранится в самой брони
+        Map<Long, Booking> bookingsById = bookingRepository.findAllById(decisions.keySet()).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        Map<Long, BookingDecisionResultDto> results = new LinkedHashMap<>();
+        List<Booking> toApprove = new ArrayList<>();
+        List<Long> toDecide = new ArrayList<>();
+        decisions.forEach((bookingId, approved) -> {
+            Booking booking = bookingsById.get(bookingId);
+            if (booking == null) {
+                results.put(bookingId, failed(bookingId, null, "Booking not found with id: " + bookingId));
+            } else if (!booking.getOwnerId().equals(ownerId)) {
+                results.put(bookingId, failed(bookingId, null, "Only item owner can approve booking"));
+            } else if (booking.getStatus() != BookingStatus.WAITING) {
+                results.put(bookingId, failed(bookingId, booking.getStatus(),
+                        "Only WAITING bookings can be approved or rejected"));
+            } else {
+                toDecide.add(bookingId);
+                if (approved) {
+                    toApprove.add(booking);
+                }
+            }
+        });
+
+        // Те же блокировки вещей, что и при одиночном подтверждении
+        bookingLockService.lockAllUntilTransactionEnd(toDecide.stream()
+                .map(id -> bookingsById.get(id).getItem().getId())
+                .toList());
+        Set<Long> conflicting = overlapGuard.prepareApprovals(toApprove);
+        for (Long bookingId : conflicting) {
+            Booking booking = bookingsById.get(bookingId);
+            results.put(bookingId, failed(bookingId, booking.getStatus(),
+                    "Item " + booking.getItem().getId() + " is already booked for the requested period"));
+        }
+        toDecide.removeAll(conflicting);
+        List<Long> approvedIds = toApprove.stream()
+                .map(Booking::getId)
+                .filter(id -> !conflicting.contains(id))
+                .toList();
+
+        if (!toDecide.isEmpty()) {
+            int updated = overlapGuard.translateConflict("One of the items is already booked for the requested period",
+                    () -> bookingRepository.decideWaiting(toDecide, approvedIds,
+                            BookingStatus.WAITING, BookingStatus.APPROVED, BookingStatus.REJECTED));
+            // Часть бронирований успели изменить параллельно: откатываем весь пакет, чтобы не вернуть неверные статусы
+            if (updated != toDecide.size()) {
+                throw new ConflictException("Bookings were modified concurrently, please retry");
+            }
+            timelineProjector.onStatusChanged(approvedIds, BookingStatus.APPROVED);
+            timelineProjector.onStatusChanged(toDecide.stream()
+                    .filter(id -> !decisions.get(id))
+                    .toList(), BookingStatus.REJECTED);
+            for (Long bookingId : toDecide) {
+                boolean approved = decisions.get(bookingId);
+                BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+                Booking booking = bookingsById.get(bookingId);
+                booking.setStatus(status);
+                occupancyIndex.onBookingSaved(booking);
+                lifecycleScheduler.onBookingSaved(booking);
+                outboxPublisher.publish(approved ? DomainEventType.BOOKING_APPROVED : DomainEventType.BOOKING_REJECTED,
+                        bookingId, eventPayload(booking));
+                results.put(bookingId, BookingDecisionResultDto.builder()
+                        .bookingId(bookingId)
+                        .success(true)
+                        .status(status)
+                        .build());
+            }
+        }
+
+        log.info("Owner {} decided {} of {} bookings in bulk", ownerId, toDecide.size(), decisions.size());
+        return decisions.keySet().stream()
+                .map(results::get)
+                .toList();
     }
 
     @Override
     public BookingResponseDto getById(Long userId, Long bookingId) {
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new NotFoundException("Booking not found with id: " + bookingId));
+        Booking booking = bookingRepository.findWithItemAndBookerById(bookingId).orElse(null);
+        if (booking == null) {
+            // Завершённое бронирование могло уйти в архив
+            return getArchivedById(userId, bookingId);
+        }
 
         // Validate user is booker or owner
         boolean isBooker = booking.getBooker().getId().equals(userId);
@@ -116,48 +259,201 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingResponseDto> getAllByBooker(Long bookerId, BookingState state) {
+    public List<BookingResponseDto> getAllByBooker(Long bookerId, BookingState state,
+                                                   int from, int size, String cursor) {
         // Validate user exists
         userRepository.findById(bookerId)
                 .orElseThrow(() -> new NotFoundException("User not found with id: " + bookerId));
 
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
+        if (timelineProjector.isEnabled()) {
+            return getTimelineByBooker(bookerId, state, from, size, cursor);
+        }
+
+        BookingCursor after = toCursor(cursor);
+        Pageable page = toPage(from, size, cursor);
         LocalDateTime now = LocalDateTime.now();
-        List<Booking> bookings = switch (state) {
-            case ALL -> bookingRepository.findByBookerId(bookerId, sort);
-            case CURRENT ->
-                    bookingRepository.findByBookerIdAndStartLessThanEqualAndEndGreaterThanEqual(bookerId, now, now, sort);
-            case PAST -> bookingRepository.findByBookerIdAndEndBefore(bookerId, now, sort);
-            case FUTURE -> bookingRepository.findByBookerIdAndStartAfter(bookerId, now, sort);
-            case WAITING -> bookingRepository.findByBookerIdAndStatus(bookerId, BookingStatus.WAITING, sort);
-            case REJECTED -> bookingRepository.findByBookerIdAndStatus(bookerId, BookingStatus.REJECTED, sort);
+        LocalDateTime cs = after.start();
+        Long ci = after.id();
+        // В архиве только закончившиеся бронирования: CURRENT и FUTURE читают одну горячую таблицу,
+        // остальные состояния - горячую таблицу и архив одним запросом
+        return switch (state) {
+            case ALL -> toRowDtos(bookingRepository.findMergedByBookerId(bookerId, cs, ci, page));
+            case CURRENT -> toDtos(bookingRepository.findCurrentByBookerId(bookerId, now, cs, ci, page));
+            case PAST -> toRowDtos(bookingRepository.findMergedPastByBookerId(bookerId, now, cs, ci, page));
+            case FUTURE -> toDtos(bookingRepository.findFutureByBookerId(bookerId, now, cs, ci, page));
+            case WAITING -> toRowDtos(bookingRepository.findMergedByBookerIdAndStatus(
+                    bookerId, BookingStatus.WAITING.name(), cs, ci, page));
+            case REJECTED -> toRowDtos(bookingRepository.findMergedByBookerIdAndStatus(
+                    bookerId, BookingStatus.REJECTED.name(), cs, ci, page));
         };
+    }
 
-        return bookings.stream()
-                .map(BookingMapper::toResponseDto)
-                .collect(Collectors.toList());
+    @Override
+    public List<BookingResponseDto> getAllByOwner(Long ownerId, BookingState state,
+                                                  int from, int size, String cursor) {
+        // Validate user exists
+        userRepository.findById(ownerId)
+                .orElseThrow(() -> new NotFoundException("User not found with id: " + ownerId));
+
+        BookingCursor after = toCursor(cursor);
+        Pageable page = toPage(from, size, cursor);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cs = after.start();
+        Long ci = after.id();
+        return switch (state) {
+            case ALL -> toRowDtos(bookingRepository.findMergedByItemOwnerId(ownerId, cs, ci, page));
+            case CURRENT -> toDtos(bookingRepository.findCurrentByItemOwnerId(ownerId, now, cs, ci, page));
+            case PAST -> toRowDtos(bookingRepository.findMergedPastByItemOwnerId(ownerId, now, cs, ci, page));
+            case FUTURE -> toDtos(bookingRepository.findFutureByItemOwnerId(ownerId, now, cs, ci, page));
+            case WAITING -> toRowDtos(bookingRepository.findMergedByItemOwnerIdAndStatus(
+                    ownerId, BookingStatus.WAITING.name(), cs, ci, page));
+            case REJECTED -> toRowDtos(bookingRepository.findMergedByItemOwnerIdAndStatus(
+                    ownerId, BookingStatus.REJECTED.name(), cs, ci, page));
+        };
+    }
+
+    @Override
+    public BookingCountsDto getCountsByBooker(Long bookerId) {
+        // Validate user exists
+        userRepository.findById(bookerId)
+                .orElseThrow(() -> new NotFoundException("User not found with id: " + bookerId));
+
+        return toCountsDto(bookingRepository.countByBookerId(bookerId, LocalDateTime.now()));
     }
 
     @Override
-    public List<BookingResponseDto> getAllByOwner(Long ownerId, BookingState state) {
+    public BookingCountsDto getCountsByOwner(Long ownerId) {
         // Validate user exists
         userRepository.findById(ownerId)
                 .orElseThrow(() -> new NotFoundException("User not found with id: " + ownerId));
 
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
+        return toCountsDto(bookingRepository.countByItemOwnerId(ownerId, LocalDateTime.now()));
+    }
+
+    /**
+     * Список бронирований арендатора по ленте booker_timeline: горячие и архивные бронирования лежат в ней вместе,
+     * поэтому страница читается одним диапазоном индекса, без join и слияния двух таблиц.
+     */
+    private List<BookingResponseDto> getTimelineByBooker(Long bookerId, BookingState state,
+                                                         int from, int size, String cursor) {
+        BookingCursor after = toCursor(cursor);
+        Pageable page = toPage(from, size, cursor);
         LocalDateTime now = LocalDateTime.now();
-        List<Booking> bookings = switch (state) {
-            case ALL -> bookingRepository.findByItemOwnerId(ownerId, sort);
-            case CURRENT ->
-                    bookingRepository.findByItemOwnerIdAndStartLessThanEqualAndEndGreaterThanEqual(ownerId, now, now, sort);
-            case PAST -> bookingRepository.findByItemOwnerIdAndEndBefore(ownerId, now, sort);
-            case FUTURE -> bookingRepository.findByItemOwnerIdAndStartAfter(ownerId, now, sort);
-            case WAITING -> bookingRepository.findByItemOwnerIdAndStatus(ownerId, BookingStatus.WAITING, sort);
-            case REJECTED -> bookingRepository.findByItemOwnerIdAndStatus(ownerId, BookingStatus.REJECTED, sort);
+        LocalDateTime cs = after.start();
+        Long ci = after.id();
+        List<BookerTimelineRow> rows = switch (state) {
+            case ALL -> timelineRepository.findByBookerId(bookerId, cs, ci, page);
+            case CURRENT -> timelineRepository.findCurrentByBookerId(bookerId, now, cs, ci, page);
+            case PAST -> timelineRepository.findPastByBookerId(bookerId, now, cs, ci, page);
+            case FUTURE -> timelineRepository.findFutureByBookerId(bookerId, now, cs, ci, page);
+            case WAITING -> timelineRepository.findByBookerIdAndStatus(bookerId, BookingStatus.WAITING, cs, ci, page);
+            case REJECTED -> timelineRepository.findByBookerIdAndStatus(bookerId, BookingStatus.REJECTED, cs, ci, page);
         };
+        return rows.stream()
+                .map(BookingMapper::toResponseDto)
+                .collect(Collectors.toList());
+    }
 
+    private BookingResponseDto getArchivedById(Long userId, Long bookingId) {
+        ArchivedBooking booking = archivedBookingRepository.findWithItemAndBookerById(bookingId)
+                .orElseThrow(() -> new NotFoundException("Booking not found with id: " + bookingId));
+        if (!booking.getBooker().getId().equals(userId) && !booking.getOwnerId().equals(userId)) {
+            throw new NotFoundException("Booking not found with id: " + bookingId);
+        }
+        return BookingMapper.toResponseDto(booking);
+    }
+
+    private static BookingCountsDto toCountsDto(BookingCounts counts) {
+        return BookingCountsDto.builder()
+                .all(counts.getAll())
+                .current(counts.getCurrent())
+                .past(counts.getPast())
+                .future(counts.getFuture())
+                .waiting(counts.getWaiting())
+                .rejected(counts.getRejected())
+                .build();
+    }
+
+    private static List<BookingResponseDto> toDtos(List<Booking> bookings) {
         return bookings.stream()
                 .map(BookingMapper::toResponseDto)
                 .collect(Collectors.toList());
     }
+
+    private static List<BookingResponseDto> toRowDtos(List<BookingListRow> rows) {
+        return rows.stream()
+                .map(BookingMapper::toResponseDto)
+                .collect(Collectors.toList());
+    }
+
+    private static BookingCursor toCursor(String cursor) {
+        return cursor != null ? BookingCursor.decode(cursor) : BookingCursor.FIRST;
+    }
+
+    private static Pageable toPage(int from, int size, String cursor) {
+        if (from < 0 || size <= 0) {
+            throw new ValidationException("Parameter from must be >= 0 and size must be > 0");
+        }
+        // С курсором смещение уже задано ключом, from не нужен
+        return new OffsetPageRequest(cursor != null ? 0 : from, size);
+    }
+
+    /**
+     * Переводит бронирование из WAITING в newStatus условным UPDATE по версии. Версия меняется только вместе
+     * со статусом, поэтому ноль изменённых строк означает, что решение по бронированию уже принято
+     * параллельно (или бронирование отменено планировщиком): вызывающий получает ConflictException без повторов.
+     */
+    private void transitionFromWaiting(Booking booking, BookingStatus newStatus) {
+        Long bookingId = booking.getId();
+        Long version = booking.getVersion();
+        int updated = overlapGuard.translateConflict(booking.getItem().getId(), () -> bookingRepository.updateStatus(
+                bookingId, version, BookingStatus.WAITING, newStatus));
+        if (updated == 0) {
+            throw new ConflictException("Booking " + bookingId + " was changed concurrently, please reload it");
+        }
+        // Сущность уже отсоединена от контекста, меняем только её копию в памяти для ответа
+        booking.setStatus(newStatus);
+        booking.setVersion(version + 1);
+    }
+
+    private static Map<Long, Boolean> toDecisions(BookingBulkApproveDto bulkDto) {
+        List<BookingDecisionDto> decisions = bulkDto.getDecisions();
+        if (decisions == null || decisions.isEmpty()) {
+            throw new ValidationException("Decisions must be specified");
+        }
+        if (decisions.size() > MAX_BULK_DECISIONS) {
+            throw new ValidationException("No more than " + MAX_BULK_DECISIONS + " decisions per request");
+        }
+        Map<Long, Boolean> result = new LinkedHashMap<>();
+        for (BookingDecisionDto decision : decisions) {
+            if (decision == null || decision.getBookingId() == null || decision.getApproved() == null) {
+                throw new ValidationException("Booking ID and decision must be specified");
+            }
+            if (result.put(decision.getBookingId(), decision.getApproved()) != null) {
+                throw new ValidationException("Duplicate decision for booking " + decision.getBookingId());
+            }
+        }
+        return result;
+    }
+
+    static Map<String, Object> eventPayload(Booking booking) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("bookingId", booking.getId());
+        payload.put("itemId", booking.getItem().getId());
+        payload.put("bookerId", booking.getBooker().getId());
+        payload.put("ownerId", booking.getOwnerId());
+        payload.put("status", booking.getStatus());
+        payload.put("start", booking.getStart());
+        payload.put("end", booking.getEnd());
+        return payload;
+    }
+
+    private static BookingDecisionResultDto failed(Long bookingId, BookingStatus status, String error) {
+        return BookingDecisionResultDto.builder()
+                .bookingId(bookingId)
+                .success(false)
+                .status(status)
+                .error(error)
+                .build();
+    }
 }
@@ -0,0 +1,176 @@
+package ru.practicum.shareit.booking.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Иерархическое колесо таймеров.
+ * <p>
+ * Время делится на тики по {@code tickMs}. Уровень 0 - кольцо из {@code wheelSize} ячеек по одному тику,
+ * каждая ячейка уровня L покрывает {@code wheelSize^L} тиков. Таймер кладётся на самый нижний уровень,
+ * в диапазон которого помещается его срок, а при прохождении границы ячейки верхнего уровня её таймеры
+ * перекладываются ниже. Таймеры дальше последнего уровня ждут в отдельном списке и перекладываются
+ * на каждом обороте верхнего колеса. Постановка таймера - O(1), продвижение - O(1) на тик плюс
+ * число сработавших и переложенных таймеров. Таймер никогда не срабатывает раньше срока,
+ * позже - не более чем на один тик после ближайшего {@link #advance}.
+ * <p>
+ * Класс потокобезопасен: все операции выполняются под {@link ReentrantLock}. Таймеры ставятся из потоков запросов,
+ * а ожидание монитора {@code synchronized} закрепляло бы виртуальный поток за несущим.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final long tickMs;
+    private final int bits;
+    private final int mask;
+    private final int levelCount;
+    private final List<List<Timer<T>>[]> levels = new ArrayList<>();
+    private final List<Timer<T>> overflow = new ArrayList<>();
+    private final List<Timer<T>> due = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private long currentTick;
+    private int size;
+
+    private record Timer<T>(long deadlineTick, T payload) {
+    }
+
+    /**
+     * @param wheelSize  число ячеек на уровне, степень двойки
+     * @param levelCount число уровней
+     * @param startMs    текущее время в миллисекундах
+     */
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, int levelCount, long startMs) {
+        if (tickMs <= 0 || wheelSize < 2 || Integer.bitCount(wheelSize) != 1 || levelCount < 1) {
+            throw new IllegalArgumentException("Invalid timing wheel parameters");
+        }
+        this.tickMs = tickMs;
+        this.bits = Integer.numberOfTrailingZeros(wheelSize);
+        this.mask = wheelSize - 1;
+        this.levelCount = levelCount;
+        for (int level = 0; level < levelCount; level++) {
+            @SuppressWarnings("unchecked")
+            List<Timer<T>>[] slots = new List[wheelSize];
+            for (int slot = 0; slot < wheelSize; slot++) {
+                slots[slot] = new ArrayList<>();
+            }
+            levels.add(slots);
+        }
+        this.currentTick = Math.floorDiv(startMs, tickMs);
+    }
+
+    /**
+     * Ставит таймер на момент deadlineMs. Просроченный таймер сработает при ближайшем {@link #advance}.
+     */
+    public void schedule(long deadlineMs, T payload) {
+        // Округляем вверх, чтобы не сработать раньше срока
+        long deadlineTick = Math.floorDiv(deadlineMs + tickMs - 1, tickMs);
+        lock.lock();
+        try {
+            place(new Timer<>(deadlineTick, payload));
+            size++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Продвигает колесо до момента nowMs и возвращает сработавшие таймеры.
+     */
+    public List<T> advance(long nowMs) {
+        lock.lock();
+        try {
+            long targetTick = Math.floorDiv(nowMs, tickMs);
+            if (targetTick - currentTick > capacityTicks()) {
+                // Большой скачок времени: перекладываем все таймеры заново вместо прохода по каждому тику
+                jumpTo(targetTick);
+            }
+            while (currentTick < targetTick) {
+                currentTick++;
+                if ((currentTick & lowBitsMask(levelCount)) == 0) {
+                    replace(overflow);
+                }
+                for (int level = levelCount - 1; level >= 1; level--) {
+                    if ((currentTick & lowBitsMask(level)) == 0) {
+                        replace(levels.get(level)[slotIndex(currentTick, level)]);
+                    }
+                }
+                List<Timer<T>> slot = levels.get(0)[slotIndex(currentTick, 0)];
+                due.addAll(slot);
+                slot.clear();
+            }
+            List<T> fired = new ArrayList<>(due.size());
+            for (Timer<T> timer : due) {
+                fired.add(timer.payload());
+            }
+            size -= due.size();
+            due.clear();
+            return fired;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void place(Timer<T> timer) {
+        long delta = timer.deadlineTick() - currentTick;
+        if (delta <= 0) {
+            due.add(timer);
+            return;
+        }
+        for (int level = 0; level < levelCount; level++) {
+            if (delta <= lowBitsMask(level + 1)) {
+                levels.get(level)[slotIndex(timer.deadlineTick(), level)].add(timer);
+                return;
+            }
+        }
+        overflow.add(timer);
+    }
+
+    private void replace(List<Timer<T>> timers) {
+        if (timers.isEmpty()) {
+            return;
+        }
+        List<Timer<T>> moved = new ArrayList<>(timers);
+        timers.clear();
+        for (Timer<T> timer : moved) {
+            place(timer);
+        }
+    }
+
+    private void jumpTo(long targetTick) {
+        List<Timer<T>> all = new ArrayList<>(overflow);
+        overflow.clear();
+        for (List<Timer<T>>[] slots : levels) {
+            for (List<Timer<T>> slot : slots) {
+                all.addAll(slot);
+                slot.clear();
+            }
+        }
+        currentTick = targetTick;
+        all.sort((a, b) -> Long.compare(a.deadlineTick(), b.deadlineTick()));
+        for (Timer<T> timer : all) {
+            place(timer);
+        }
+    }
+
+    private int slotIndex(long tick, int level) {
+        return (int) ((tick >>> (bits * level)) & mask);
+    }
+
+    // Маска младших разрядов номера тика для уровня: wheelSize^level - 1
+    private long lowBitsMask(int level) {
+        return (1L << (bits * level)) - 1;
+    }
+
+    private long capacityTicks() {
+        return lowBitsMask(levelCount);
+    }
+}
@@ -2,14 +2,19 @@ package ru.practicum.shareit.item.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityCheckDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityStatusDto;
 import ru.practicum.shareit.item.dto.ItemDetailDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 
@@ -38,6 +43,24 @@ public class ItemController {
         return itemService.getById(itemId, userId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getAvailability(@PathVariable Long itemId,
+                                               @RequestParam(required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                               @RequestParam(required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                               @RequestParam(defaultValue = "false") boolean includeWaiting) {
+        log.info("GET /items/{}/availability?from={}&to={}&includeWaiting={}", itemId, from, to, includeWaiting);
+        return itemService.getAvailability(itemId, from, to, includeWaiting);
+    }
+
+    @PostMapping("/availability")
+    public List<ItemAvailabilityStatusDto> checkAvailability(@RequestBody ItemAvailabilityCheckDto checkDto) {
+        log.info("POST /items/availability - Checking availability of {} items from {} to {}",
+                checkDto.getItemIds() != null ? checkDto.getItemIds().size() : 0, checkDto.getFrom(), checkDto.getTo());
+        return itemService.checkAvailability(checkDto);
+    }
+
     @GetMapping
     public List<ItemWithBookingsDto> getByOwner(@RequestHeader(USER_ID_HEADER) Long ownerId) {
         log.info("GET /items - Getting all items for owner: {}", ownerId);
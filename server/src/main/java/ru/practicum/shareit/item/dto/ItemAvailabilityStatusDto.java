@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemAvailabilityStatusDto {
+
+    private Long itemId;
+
+    // true, если в запрошенном периоде у вещи нет ни одного пересекающегося бронирования
+    private boolean free;
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.item.mapper;
 
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.repository.LastBookingRow;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDetailDto;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -29,7 +30,7 @@ public class ItemMapper {
                 .build();
     }
 
-    public ItemDetailDto toDetailDto(Item item, Booking lastBooking, Booking nextBooking, List<CommentDto> comments) {
+    public ItemDetailDto toDetailDto(Item item, LastBookingRow lastBooking, Booking nextBooking, List<CommentDto> comments) {
         if (item == null) {
             return null;
         }
@@ -53,7 +54,16 @@ public class ItemMapper {
                 .build();
     }
 
-    public ItemWithBookingsDto toWithBookingsDto(Item item, Booking lastBooking, Booking nextBooking) {
+    private ItemDetailDto.BookingShortDto toDetailBookingShortDto(LastBookingRow booking) {
+        return ItemDetailDto.BookingShortDto.builder()
+                .id(booking.getId())
+                .bookerId(booking.getBookerId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .build();
+    }
+
+    public ItemWithBookingsDto toWithBookingsDto(Item item, LastBookingRow lastBooking, Booking nextBooking) {
         if (item == null) {
             return null;
         }
@@ -76,6 +86,15 @@ public class ItemMapper {
                 .build();
     }
 
+    private ItemWithBookingsDto.BookingShortDto toBookingShortDto(LastBookingRow booking) {
+        return ItemWithBookingsDto.BookingShortDto.builder()
+                .id(booking.getId())
+                .bookerId(booking.getBookerId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .build();
+    }
+
     public Item toItem(ItemDto dto, User owner, ItemRequest request) {
         if (dto == null) {
             return null;
@@ -1,22 +1,53 @@
 package ru.practicum.shareit.item.repository;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
     List<Item> findByOwnerId(Long ownerId);
 
+    // Постраничная выгрузка по возрастанию id (для построения индексов в памяти)
+    List<Item> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
     @Query("select i from Item i " +
             "where (upper(i.name) like upper(concat('%', :text, '%')) " +
             "   or upper(i.description) like upper(concat('%', :text, '%'))) " +
             "and i.available = true")
     List<Item> search(@Param("text") String text);
 
+    // Полнотекстовый поиск (только PostgreSQL), query - выражение tsquery
+    @Query(value = "select i.id, i.name, i.description, i.is_available, i.owner_id, i.request_id " +
+            "from items i " +
+            "where i.search_vector @@ to_tsquery('simple', :query) " +
+            "and i.is_available = true " +
+            "order by ts_rank(i.search_vector, to_tsquery('simple', :query)) desc, i.id",
+            nativeQuery = true)
+    List<Item> searchFullText(@Param("query") String query);
+
+    // Блокировка строки вещи до конца транзакции
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id = :id")
+    Optional<Item> findByIdForUpdate(@Param("id") Long id);
+
+    // Блокировка нескольких вещей всегда в порядке id, чтобы параллельные транзакции не ждали друг друга по кругу
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id in :ids order by i.id")
+    List<Item> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Только id существующих вещей из списка, без загрузки сущностей
+    @Query("select i.id from Item i where i.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
     List<Item> findAllByRequestId(Long requestId);
 
     List<Item> findAllByRequestIdIn(List<Long> requestIds);
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Полнотекстовый поиск PostgreSQL по колонке {@code items.search_vector} (GIN-индекс).
+ * Каждое слово запроса ищется как префикс, результаты упорядочены по {@code ts_rank}.
+ * На других СУБД (H2 в тестах) поиск выполняется прежним LIKE-запросом.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "fulltext")
+public class FullTextItemSearchEngine implements ItemSearchEngine {
+
+    private final ItemRepository itemRepository;
+    private final boolean fullTextSupported;
+
+    public FullTextItemSearchEngine(ItemRepository itemRepository,
+                                    @Value("${spring.datasource.url}") String datasourceUrl) {
+        this.itemRepository = itemRepository;
+        this.fullTextSupported = DatabaseDriver.fromJdbcUrl(datasourceUrl) == DatabaseDriver.POSTGRESQL;
+        if (!fullTextSupported) {
+            log.warn("Full-text search is not supported for {}, falling back to LIKE search", datasourceUrl);
+        }
+    }
+
+    @Override
+    public List<ItemDto> search(String text) {
+        if (!fullTextSupported) {
+            return toDtos(itemRepository.search(text));
+        }
+        String query = toPrefixQuery(text);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+        return toDtos(itemRepository.searchFullText(query));
+    }
+
+    private static List<ItemDto> toDtos(List<Item> items) {
+        return items.stream()
+                .map(ItemMapper::toDto)
+                .toList();
+    }
+
+    /**
+     * Преобразует пользовательский текст в выражение tsquery вида {@code word1:* & word2:*}.
+     * Все символы, кроме букв и цифр, отбрасываются, поэтому операторы tsquery в запрос не попадают.
+     */
+    static String toPrefixQuery(String text) {
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+}
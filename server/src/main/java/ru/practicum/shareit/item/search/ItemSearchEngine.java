@@ -0,0 +1,27 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+/**
+ * Поиск доступных вещей по тексту в названии или описании.
+ * Реализация выбирается свойством {@code shareit.search.engine}.
+ */
+public interface ItemSearchEngine {
+
+    List<ItemDto> search(String text);
+
+    /**
+     * Вызывается после создания или изменения вещи. Движкам, которые ищут прямо в базе, делать ничего не нужно.
+     */
+    default void onItemSaved(Item item) {
+    }
+
+    /**
+     * Вызывается после удаления вещи.
+     */
+    default void onItemDeleted(Long itemId) {
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+/**
+ * Поиск подстроки через {@code upper(...) like '%text%'}. Используется по умолчанию.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "like", matchIfMissing = true)
+public class LikeItemSearchEngine implements ItemSearchEngine {
+
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<ItemDto> search(String text) {
+        return toDtos(itemRepository.search(text));
+    }
+
+    private static List<ItemDto> toDtos(List<Item> items) {
+        return items.stream()
+                .map(ItemMapper::toDto)
+                .toList();
+    }
+}
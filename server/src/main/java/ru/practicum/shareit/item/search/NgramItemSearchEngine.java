@@ -0,0 +1,106 @@
+package ru.practicum.shareit.item.search;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+/**
+ * Поиск по триграммному индексу в памяти сервера. Индекс строится из базы при старте
+ * и обновляется после фиксации транзакций, создающих, изменяющих или удаляющих вещи.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "ngram")
+public class NgramItemSearchEngine implements ItemSearchEngine {
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+    private final TrigramIndex index = new TrigramIndex();
+
+    @PostConstruct
+    public void rebuild() {
+        index.clear();
+        long lastId = 0;
+        List<Item> batch;
+        do {
+            batch = itemRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(LOAD_BATCH_SIZE));
+            for (Item item : batch) {
+                index.put(toIndexedItem(item), item.getAvailable());
+                lastId = item.getId();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+
+        TrigramIndex.Stats stats = index.stats();
+        log.info("Item trigram index built: {} items, {} trigrams, {} postings, ~{} KB",
+                stats.items(), stats.grams(), stats.postings(), stats.estimatedBytes() / 1024);
+    }
+
+    @Override
+    public List<ItemDto> search(String text) {
+        return index.search(text).stream()
+                .map(NgramItemSearchEngine::toDto)
+                .toList();
+    }
+
+    @Override
+    public void onItemSaved(Item item) {
+        // Снимок берём сразу, а в индекс кладём только после фиксации транзакции
+        TrigramIndex.IndexedItem indexed = toIndexedItem(item);
+        boolean available = Boolean.TRUE.equals(item.getAvailable());
+        afterCommit(() -> index.put(indexed, available));
+    }
+
+    @Override
+    public void onItemDeleted(Long itemId) {
+        afterCommit(() -> index.remove(itemId));
+    }
+
+    public TrigramIndex.Stats stats() {
+        return index.stats();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static TrigramIndex.IndexedItem toIndexedItem(Item item) {
+        return new TrigramIndex.IndexedItem(
+                item.getId(),
+                item.getName(),
+                item.getDescription(),
+                item.getOwner() != null ? item.getOwner().getId() : null,
+                item.getRequest() != null ? item.getRequest().getId() : null);
+    }
+
+    private static ItemDto toDto(TrigramIndex.IndexedItem item) {
+        return ItemDto.builder()
+                .id(item.id())
+                .name(item.name())
+                .description(item.description())
+                .available(true)
+                .ownerId(item.ownerId())
+                .requestId(item.requestId())
+                .build();
+    }
+}
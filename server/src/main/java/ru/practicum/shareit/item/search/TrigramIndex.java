@@ -0,0 +1,302 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс триграмм по названию и описанию вещей.
+ * <p>
+ * Каждой проиндексированной вещи выдаётся внутренний номер документа (int). Триграмма кодируется тремя
+ * символами в одном long, список документов для неё хранится отсортированным массивом int.
+ * Поиск пересекает списки всех триграмм запроса и проверяет кандидатов поиском подстроки,
+ * поэтому ложных срабатываний нет. Индексируются только доступные вещи.
+ * <p>
+ * Класс потокобезопасен: поиск идёт под блокировкой чтения, изменения - под блокировкой записи.
+ */
+public class TrigramIndex {
+
+    private static final int GRAM_LENGTH = 3;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Postings> postingsByGram = new HashMap<>();
+    private final Map<Long, Integer> docIdsByItemId = new HashMap<>();
+    private IndexedItem[] docs = new IndexedItem[1024];
+    private int[] freeDocIds = new int[16];
+    private int freeDocCount;
+    private int nextDocId;
+
+    public record IndexedItem(long id, String name, String description, Long ownerId, Long requestId) {
+    }
+
+    public record Stats(int items, int grams, long postings, long estimatedBytes) {
+    }
+
+    /**
+     * Добавляет вещь в индекс или обновляет её. Недоступная вещь удаляется из индекса.
+     */
+    public void put(IndexedItem item, boolean available) {
+        if (!available) {
+            remove(item.id());
+            return;
+        }
+        long[] grams = grams(item.name(), item.description());
+        lock.writeLock().lock();
+        try {
+            Integer existing = docIdsByItemId.get(item.id());
+            if (existing != null) {
+                IndexedItem previous = docs[existing];
+                long[] previousGrams = grams(previous.name(), previous.description());
+                docs[existing] = item;
+                updatePostings(existing, previousGrams, grams);
+                return;
+            }
+            int docId = allocateDocId();
+            docs[docId] = item;
+            docIdsByItemId.put(item.id(), docId);
+            for (long gram : grams) {
+                postingsByGram.computeIfAbsent(gram, g -> new Postings()).add(docId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long itemId) {
+        lock.writeLock().lock();
+        try {
+            Integer docId = docIdsByItemId.remove(itemId);
+            if (docId == null) {
+                return;
+            }
+            IndexedItem previous = docs[docId];
+            for (long gram : grams(previous.name(), previous.description())) {
+                removePosting(gram, docId);
+            }
+            docs[docId] = null;
+            releaseDocId(docId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postingsByGram.clear();
+            docIdsByItemId.clear();
+            docs = new IndexedItem[1024];
+            freeDocCount = 0;
+            nextDocId = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает вещи, у которых название или описание содержит текст (без учёта регистра),
+     * в порядке внутренних номеров документов.
+     */
+    public List<IndexedItem> search(String text) {
+        String query = text.toLowerCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            List<IndexedItem> result = new ArrayList<>();
+            if (query.length() < GRAM_LENGTH) {
+                // Слишком короткий запрос не даёт ни одной триграммы - проверяем все документы
+                for (int docId = 0; docId < nextDocId; docId++) {
+                    addIfMatches(result, docs[docId], query);
+                }
+                return result;
+            }
+            int[] candidates = intersect(grams(query));
+            for (int docId : candidates) {
+                addIfMatches(result, docs[docId], query);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Stats stats() {
+        lock.readLock().lock();
+        try {
+            long postings = 0;
+            long postingBytes = 0;
+            for (Postings list : postingsByGram.values()) {
+                postings += list.size;
+                // заголовок массива + ёмкость, сам объект Postings и запись в HashMap с ключом Long
+                postingBytes += 16 + 4L * list.docIds.length + 16 + 64;
+            }
+            long docBytes = 16 + 4L * docs.length + 64L * docIdsByItemId.size();
+            return new Stats(docIdsByItemId.size(), postingsByGram.size(), postings, postingBytes + docBytes);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addIfMatches(List<IndexedItem> result, IndexedItem doc, String query) {
+        if (doc != null && (contains(doc.name(), query) || contains(doc.description(), query))) {
+            result.add(doc);
+        }
+    }
+
+    private static boolean contains(String value, String query) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(query);
+    }
+
+    private int[] intersect(long[] grams) {
+        Postings[] lists = new Postings[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            Postings list = postingsByGram.get(grams[i]);
+            if (list == null || list.size == 0) {
+                return new int[0];
+            }
+            lists[i] = list;
+        }
+        // Начинаем с самого короткого списка, чтобы промежуточный результат был минимальным
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+        int[] result = Arrays.copyOf(lists[0].docIds, lists[0].size);
+        int resultSize = result.length;
+        for (int i = 1; i < lists.length && resultSize > 0; i++) {
+            resultSize = intersectInto(result, resultSize, lists[i]);
+        }
+        return Arrays.copyOf(result, resultSize);
+    }
+
+    private static int intersectInto(int[] result, int resultSize, Postings other) {
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < resultSize && j < other.size) {
+            int a = result[i];
+            int b = other.docIds[j];
+            if (a == b) {
+                result[size++] = a;
+                i++;
+                j++;
+            } else if (a < b) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return size;
+    }
+
+    private void updatePostings(int docId, long[] previousGrams, long[] grams) {
+        // Оба массива отсортированы: проходим их одновременно и трогаем только изменившиеся триграммы
+        int i = 0;
+        int j = 0;
+        while (i < previousGrams.length || j < grams.length) {
+            if (j == grams.length || (i < previousGrams.length && previousGrams[i] < grams[j])) {
+                removePosting(previousGrams[i++], docId);
+            } else if (i == previousGrams.length || grams[j] < previousGrams[i]) {
+                postingsByGram.computeIfAbsent(grams[j++], g -> new Postings()).add(docId);
+            } else {
+                i++;
+                j++;
+            }
+        }
+    }
+
+    private void removePosting(long gram, int docId) {
+        Postings list = postingsByGram.get(gram);
+        if (list != null) {
+            list.remove(docId);
+            if (list.size == 0) {
+                postingsByGram.remove(gram);
+            }
+        }
+    }
+
+    private int allocateDocId() {
+        if (freeDocCount > 0) {
+            return freeDocIds[--freeDocCount];
+        }
+        if (nextDocId == docs.length) {
+            docs = Arrays.copyOf(docs, docs.length * 2);
+        }
+        return nextDocId++;
+    }
+
+    private void releaseDocId(int docId) {
+        if (freeDocCount == freeDocIds.length) {
+            freeDocIds = Arrays.copyOf(freeDocIds, freeDocIds.length * 2);
+        }
+        freeDocIds[freeDocCount++] = docId;
+    }
+
+    /**
+     * Отсортированные уникальные триграммы всех переданных строк (в нижнем регистре).
+     */
+    static long[] grams(String... values) {
+        int total = 0;
+        for (String value : values) {
+            if (value != null) {
+                total += Math.max(0, value.length() - GRAM_LENGTH + 1);
+            }
+        }
+        long[] grams = new long[total];
+        int count = 0;
+        for (String value : values) {
+            if (value == null) {
+                continue;
+            }
+            String lower = value.toLowerCase(Locale.ROOT);
+            for (int i = 0; i + GRAM_LENGTH <= lower.length(); i++) {
+                grams[count++] = ((long) lower.charAt(i) << 32)
+                        | ((long) lower.charAt(i + 1) << 16)
+                        | lower.charAt(i + 2);
+            }
+        }
+        Arrays.sort(grams, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || grams[unique - 1] != grams[i]) {
+                grams[unique++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, unique);
+    }
+
+    /**
+     * Отсортированный список номеров документов на примитивном массиве.
+     */
+    private static final class Postings {
+        private int[] docIds = new int[4];
+        private int size;
+
+        void add(int docId) {
+            int position = Arrays.binarySearch(docIds, 0, size, docId);
+            if (position >= 0) {
+                return;
+            }
+            int insertAt = -position - 1;
+            if (size == docIds.length) {
+                docIds = Arrays.copyOf(docIds, size + (size >> 1) + 1);
+            }
+            System.arraycopy(docIds, insertAt, docIds, insertAt + 1, size - insertAt);
+            docIds[insertAt] = docId;
+            size++;
+        }
+
+        void remove(int docId) {
+            int position = Arrays.binarySearch(docIds, 0, size, docId);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(docIds, position + 1, docIds, position, size - position - 1);
+            size--;
+            if (docIds.length > 16 && size < docIds.length / 4) {
+                docIds = Arrays.copyOf(docIds, docIds.length / 2);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.experimental.UtilityClass;
+import ru.practicum.shareit.booking.repository.BookingPeriod;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto.PeriodDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Строит календарь занятости вещи: сливает пересекающиеся и смежные периоды бронирований
+ * в занятые интервалы и вычисляет свободные промежутки между ними.
+ */
+@UtilityClass
+class AvailabilityCalendar {
+
+    /**
+     * @param periods периоды бронирований, отсортированные по началу; могут выходить за границы [from, to)
+     */
+    ItemAvailabilityDto build(Long itemId, LocalDateTime from, LocalDateTime to, List<BookingPeriod> periods) {
+        List<PeriodDto> occupied = new ArrayList<>();
+        LocalDateTime start = null;
+        LocalDateTime end = null;
+        for (BookingPeriod period : periods) {
+            LocalDateTime clippedStart = period.start().isBefore(from) ? from : period.start();
+            LocalDateTime clippedEnd = period.end().isAfter(to) ? to : period.end();
+            if (!clippedStart.isBefore(clippedEnd)) {
+                continue;
+            }
+            if (end != null && !clippedStart.isAfter(end)) {
+                end = clippedEnd.isAfter(end) ? clippedEnd : end;
+            } else {
+                if (end != null) {
+                    occupied.add(new PeriodDto(start, end));
+                }
+                start = clippedStart;
+                end = clippedEnd;
+            }
+        }
+        if (end != null) {
+            occupied.add(new PeriodDto(start, end));
+        }
+
+        List<PeriodDto> free = new ArrayList<>();
+        LocalDateTime freeStart = from;
+        for (PeriodDto busy : occupied) {
+            if (freeStart.isBefore(busy.getStart())) {
+                free.add(new PeriodDto(freeStart, busy.getStart()));
+            }
+            freeStart = busy.getEnd();
+        }
+        if (freeStart.isBefore(to)) {
+            free.add(new PeriodDto(freeStart, to));
+        }
+
+        return ItemAvailabilityDto.builder()
+                .itemId(itemId)
+                .from(from)
+                .to(to)
+                .free(free)
+                .occupied(occupied)
+                .build();
+    }
+}
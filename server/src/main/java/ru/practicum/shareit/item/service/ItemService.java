@@ -1,10 +1,14 @@
 package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityCheckDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityStatusDto;
 import ru.practicum.shareit.item.dto.ItemDetailDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 
@@ -23,4 +27,17 @@ public interface ItemService {
     Collection<ItemDto> search(String text);
 
     CommentDto addComment(Long userId, Long itemId, CommentDto commentDto);
+
+    /**
+     * Свободные и занятые интервалы вещи в периоде [from, to). Занятость считается по подтверждённым
+     * бронированиям, а при includeWaiting - ещё и по ожидающим подтверждения.
+     * Без from период начинается сейчас, без to - длится 30 дней.
+     */
+    ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to, boolean includeWaiting);
+
+    /**
+     * Признак свободна/занята для каждой вещи из списка в периоде [from, to) - в порядке запроса, без повторов.
+     * Занятость считается так же, как в {@link #getAvailability}, но одним запросом на весь список.
+     */
+    List<ItemAvailabilityStatusDto> checkAvailability(ItemAvailabilityCheckDto checkDto);
 }
@@ -6,11 +6,19 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.occupancy.BookingOccupancyIndex;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingPeriod;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.LastBookingRow;
+import ru.practicum.shareit.booking.service.BookerTimelineProjector;
 import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityCheckDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityStatusDto;
 import ru.practicum.shareit.item.dto.ItemDetailDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
@@ -20,15 +28,29 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.outbox.DomainEventType;
+import ru.practicum.shareit.outbox.OutboxPublisher;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -36,11 +58,19 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
 
+    private static final Duration DEFAULT_AVAILABILITY_PERIOD = Duration.ofDays(30);
+    private static final Duration MAX_AVAILABILITY_PERIOD = Duration.ofDays(366);
+
     private final ItemRepository itemRepository;
     private final UserService userService;
     private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchEngine itemSearchEngine;
+    private final OutboxPublisher outboxPublisher;
+    private final BookingOccupancyIndex occupancyIndex;
+    private final BookerTimelineProjector timelineProjector;
 
     @Override
     @Transactional
@@ -55,6 +85,8 @@ public class ItemServiceImpl implements ItemService {
 
         Item item = ItemMapper.toItem(itemDto, owner, itemRequest);
         Item savedItem = itemRepository.save(item);
+        itemSearchEngine.onItemSaved(savedItem);
+        outboxPublisher.publish(DomainEventType.ITEM_CREATED, savedItem.getId(), eventPayload(savedItem));
 
         log.info("Created item with id: {} for owner: {}", savedItem.getId(), ownerId);
         return ItemMapper.toDto(savedItem);
@@ -66,13 +98,13 @@ public class ItemServiceImpl implements ItemService {
                 .orElseThrow(() -> new NotFoundException("Item not found with id: " + id));
 
         LocalDateTime now = LocalDateTime.now();
-        Booking lastBooking = null;
+        LastBookingRow lastBooking = null;
         Booking nextBooking = null;
 
         // Показываем бронирования только владельцу
         if (item.getOwner().getId().equals(userId)) {
-            lastBooking = bookingRepository.findFirstLastBooking(
-                    item.getId(), BookingStatus.APPROVED, now);
+            lastBooking = bookingRepository.findLastBooking(
+                    item.getId(), BookingStatus.APPROVED.name(), now).orElse(null);
 
             nextBooking = bookingRepository.findFirstNextBooking(
                     item.getId(), BookingStatus.APPROVED, now);
@@ -92,22 +124,30 @@ public class ItemServiceImpl implements ItemService {
         userService.findUserEntityById(ownerId); // validates owner exists
 
         List<Item> items = itemRepository.findByOwnerId(ownerId);
-        LocalDateTime now = LocalDateTime.now();
+        if (items.isEmpty()) {
+            return List.of();
+        }
 
-        return items.stream()
-                .map(item -> {
-                    Booking lastBooking = bookingRepository.findFirstLastBooking(
-                            item.getId(), BookingStatus.APPROVED, now);
+        // Последнее (с архивом) и следующее бронирование для всех вещей владельца двумя запросами
+        List<Long> itemIds = items.stream()
+                .map(Item::getId)
+                .toList();
+        LocalDateTime now = LocalDateTime.now();
 
-                    Booking nextBooking = bookingRepository.findFirstNextBooking(
-                            item.getId(), BookingStatus.APPROVED, now);
+        Map<Long, LastBookingRow> lastBookings = latestByItemId(
+                bookingRepository.findLastBookingsByItemIds(itemIds, BookingStatus.APPROVED.name(), now));
+        Map<Long, Booking> nextBookings = groupByItemId(
+                bookingRepository.findNextBookingsByItemIds(itemIds, BookingStatus.APPROVED, now));
 
-                    return ItemMapper.toWithBookingsDto(item, lastBooking, nextBooking);
-                })
+        return items.stream()
+                .map(item -> ItemMapper.toWithBookingsDto(item,
+                        lastBookings.get(item.getId()),
+                        nextBookings.get(item.getId())))
                 .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional
     public ItemDto update(Long ownerId, Long itemId, ItemDto itemDto) {
         userService.findUserEntityById(ownerId); // validates owner exists
 
@@ -120,6 +160,7 @@ public class ItemServiceImpl implements ItemService {
         }
 
         // Partial update - only update non-null fields
+        boolean renamed = itemDto.getName() != null && !itemDto.getName().equals(existingItem.getName());
         if (itemDto.getName() != null) {
             existingItem.setName(itemDto.getName());
         }
@@ -133,11 +174,17 @@ public class ItemServiceImpl implements ItemService {
         }
 
         Item updatedItem = itemRepository.save(existingItem);
+        if (renamed) {
+            timelineProjector.onItemRenamed(itemId, updatedItem.getName());
+        }
+        itemSearchEngine.onItemSaved(updatedItem);
+        outboxPublisher.publish(DomainEventType.ITEM_UPDATED, itemId, eventPayload(updatedItem));
         log.info("Updated item with id: {}", itemId);
         return ItemMapper.toDto(updatedItem);
     }
 
     @Override
+    @Transactional
     public void delete(Long ownerId, Long itemId) {
         userService.findUserEntityById(ownerId); // validates owner exists
 
@@ -149,6 +196,9 @@ public class ItemServiceImpl implements ItemService {
         }
 
         itemRepository.deleteById(itemId);
+        itemSearchEngine.onItemDeleted(itemId);
+        occupancyIndex.onItemDeleted(itemId);
+        outboxPublisher.publish(DomainEventType.ITEM_DELETED, itemId, Map.of("itemId", itemId, "ownerId", ownerId));
         log.info("Deleted item with id: {}", itemId);
     }
 
@@ -158,9 +208,7 @@ public class ItemServiceImpl implements ItemService {
             return java.util.Collections.emptyList();
         }
 
-        return itemRepository.search(text).stream()
-                .map(ItemMapper::toDto)
-                .collect(Collectors.toList());
+        return itemSearchEngine.search(text);
     }
 
     @Override
@@ -181,8 +229,126 @@ public class ItemServiceImpl implements ItemService {
 
         Comment comment = CommentMapper.toComment(commentDto, item, author);
         Comment savedComment = commentRepository.save(comment);
+        outboxPublisher.publish(DomainEventType.COMMENT_ADDED, itemId,
+                Map.of("commentId", savedComment.getId(), "itemId", itemId, "authorId", userId));
 
         log.info("User {} added comment to item {}", userId, itemId);
         return CommentMapper.toDto(savedComment);
     }
+
+    @Override
+    public ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to,
+                                               boolean includeWaiting) {
+        LocalDateTime periodStart = from != null ? from : LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime periodEnd = to != null ? to : periodStart.plus(DEFAULT_AVAILABILITY_PERIOD);
+        validateAvailabilityPeriod(periodStart, periodEnd);
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException("Item not found with id: " + itemId);
+        }
+
+        // Пока период не раньше горизонта индекса, занятость читается из памяти, иначе - из базы
+        List<BookingPeriod> periods = occupancyIndex.covers(periodStart)
+                ? occupancyIndex.periods(itemId, periodStart, periodEnd, includeWaiting)
+                : storedPeriods(itemId, occupyingStatuses(includeWaiting), periodStart, periodEnd);
+        return AvailabilityCalendar.build(itemId, periodStart, periodEnd, periods);
+    }
+
+    @Override
+    public List<ItemAvailabilityStatusDto> checkAvailability(ItemAvailabilityCheckDto checkDto) {
+        if (checkDto.getItemIds() == null || checkDto.getItemIds().isEmpty()) {
+            throw new ValidationException("Item IDs must be specified");
+        }
+        if (checkDto.getFrom() == null || checkDto.getTo() == null) {
+            throw new ValidationException("Start and end dates must be specified");
+        }
+        validateAvailabilityPeriod(checkDto.getFrom(), checkDto.getTo());
+
+        // Порядок ответа совпадает с порядком запроса, повторы схлопываются
+        Set<Long> itemIds = new LinkedHashSet<>(checkDto.getItemIds());
+        Set<Long> existingIds = new HashSet<>(itemRepository.findExistingIds(itemIds));
+        if (existingIds.size() < itemIds.size()) {
+            List<Long> missingIds = itemIds.stream()
+                    .filter(id -> !existingIds.contains(id))
+                    .toList();
+            throw new NotFoundException("Items not found with ids: " + missingIds);
+        }
+
+        Set<Long> busyIds = occupancyIndex.covers(checkDto.getFrom())
+                ? occupancyIndex.busyItemIds(itemIds, checkDto.getFrom(), checkDto.getTo(), checkDto.isIncludeWaiting())
+                : storedBusyItemIds(itemIds, occupyingStatuses(checkDto.isIncludeWaiting()),
+                        checkDto.getFrom(), checkDto.getTo());
+        return itemIds.stream()
+                .map(id -> new ItemAvailabilityStatusDto(id, !busyIds.contains(id)))
+                .toList();
+    }
+
+    // Прошлые периоды могут быть уже перенесены в архив, поэтому занятость читается из обеих таблиц
+    private List<BookingPeriod> storedPeriods(Long itemId, List<BookingStatus> statuses,
+                                              LocalDateTime from, LocalDateTime to) {
+        List<BookingPeriod> archived = archivedBookingRepository.findPeriodsByItemId(itemId, statuses, from, to);
+        List<BookingPeriod> hot = bookingRepository.findPeriodsByItemId(itemId, statuses, from, to);
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        return Stream.concat(archived.stream(), hot.stream())
+                .sorted(Comparator.comparing(BookingPeriod::start))
+                .toList();
+    }
+
+    private Set<Long> storedBusyItemIds(Set<Long> itemIds, List<BookingStatus> statuses,
+                                        LocalDateTime from, LocalDateTime to) {
+        Set<Long> busyIds = new HashSet<>(bookingRepository.findBusyItemIds(itemIds, statuses, from, to));
+        if (busyIds.size() < itemIds.size()) {
+            List<Long> freeIds = itemIds.stream()
+                    .filter(id -> !busyIds.contains(id))
+                    .toList();
+            busyIds.addAll(archivedBookingRepository.findBusyItemIds(freeIds, statuses, from, to));
+        }
+        return busyIds;
+    }
+
+    private static void validateAvailabilityPeriod(LocalDateTime from, LocalDateTime to) {
+        if (!to.isAfter(from)) {
+            throw new ValidationException("Parameter to must be after from");
+        }
+        if (Duration.between(from, to).compareTo(MAX_AVAILABILITY_PERIOD) > 0) {
+            throw new ValidationException("Availability period must not exceed " + MAX_AVAILABILITY_PERIOD.toDays() + " days");
+        }
+    }
+
+    private static List<BookingStatus> occupyingStatuses(boolean includeWaiting) {
+        return includeWaiting
+                ? List.of(BookingStatus.APPROVED, BookingStatus.WAITING)
+                : List.of(BookingStatus.APPROVED);
+    }
+
+    // На вещь приходит по кандидату из горячей таблицы и из архива: берётся более позднее начало,
+    // при совпадении - меньший id
+    private Map<Long, LastBookingRow> latestByItemId(List<LastBookingRow> bookings) {
+        Comparator<LastBookingRow> latest = Comparator.comparing(LastBookingRow::getStart)
+                .thenComparing(LastBookingRow::getId, Comparator.reverseOrder());
+        return bookings.stream()
+                .collect(Collectors.toMap(
+                        LastBookingRow::getItemId,
+                        Function.identity(),
+                        BinaryOperator.maxBy(latest)));
+    }
+
+    private Map<Long, Booking> groupByItemId(List<Booking> bookings) {
+        // При совпадении дат начала оставляем бронирование с меньшим id
+        return bookings.stream()
+                .collect(Collectors.toMap(
+                        booking -> booking.getItem().getId(),
+                        Function.identity(),
+                        (first, second) -> first.getId() <= second.getId() ? first : second));
+    }
+
+    private static Map<String, Object> eventPayload(Item item) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("itemId", item.getId());
+        payload.put("ownerId", item.getOwner().getId());
+        payload.put("available", item.getAvailable());
+        payload.put("requestId", item.getRequest() != null ? item.getRequest().getId() : null);
+        return payload;
+    }
 }
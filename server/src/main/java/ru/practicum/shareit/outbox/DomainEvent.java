@@ -0,0 +1,14 @@
+package ru.practicum.shareit.outbox;
+
+import java.time.LocalDateTime;
+
+/**
+ * Событие в том виде, в каком его получают подписчики. Id монотонно растёт и позволяет
+ * подписчику отбросить повторную доставку.
+ */
+public record DomainEvent(Long id,
+                          DomainEventType type,
+                          Long aggregateId,
+                          String payload,
+                          LocalDateTime createdAt) {
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.outbox;
+
+/**
+ * Подписчик доменных событий внутри процесса. События доставляются в порядке записи в outbox,
+ * не реже одного раза: после сбоя или перезапуска событие может прийти повторно.
+ * Исключение из {@link #onEvent} оставляет событие неопубликованным, и оно будет доставлено снова.
+ */
+public interface DomainEventSubscriber {
+
+    void onEvent(DomainEvent event);
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.outbox;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum DomainEventType {
+    BOOKING_CREATED("BOOKING"),
+    BOOKING_APPROVED("BOOKING"),
+    BOOKING_REJECTED("BOOKING"),
+    BOOKING_EXPIRED("BOOKING"),
+    BOOKING_STARTED("BOOKING"),
+    BOOKING_ENDED("BOOKING"),
+    ITEM_CREATED("ITEM"),
+    ITEM_UPDATED("ITEM"),
+    ITEM_DELETED("ITEM"),
+    COMMENT_ADDED("ITEM");
+
+    // Тип агрегата, к которому относится событие; для комментария - вещь
+    private final String aggregateType;
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class LoggingDomainEventSubscriber implements DomainEventSubscriber {
+
+    @Override
+    public void onEvent(DomainEvent event) {
+        log.debug("Domain event {} {} for aggregate {}: {}",
+                event.id(), event.type(), event.aggregateId(), event.payload());
+    }
+}
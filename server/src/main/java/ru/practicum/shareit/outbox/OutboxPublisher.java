@@ -0,0 +1,42 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Записывает доменные события в outbox. Вызывается только внутри транзакции сервиса,
+ * поэтому событие фиксируется или откатывается вместе с изменением.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxPublisher {
+
+    private final OutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(DomainEventType type, Long aggregateId, Map<String, Object> payload) {
+        outboxRepository.save(OutboxEvent.builder()
+                .aggregateType(type.getAggregateType())
+                .aggregateId(aggregateId)
+                .eventType(type)
+                .payload(toJson(payload))
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    private String toJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize domain event payload", e);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package ru.practicum.shareit.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Фоновое реле outbox: пачками читает неопубликованные события и по порядку передаёт их подписчикам.
+ * <p>
+ * Пачка обрабатывается в одной транзакции: доставленные события помечаются опубликованными, на первом сбое
+ * подписчика обработка пачки останавливается, у события растёт счётчик попыток, и оно будет доставлено
+ * снова (всеми подписчиками) в следующем цикле. Всё состояние хранится в таблице, поэтому после
+ * перезапуска реле продолжает с первого неопубликованного события. После
+ * {@code shareit.outbox.max-attempts} попыток событие больше не доставляется, но остаётся в backlog.
+ * <p>
+ * Метрики: {@code shareit.outbox.backlog} (неопубликованные события), {@code shareit.outbox.lag}
+ * (возраст самого старого из них, секунды), {@code shareit.outbox.published}, {@code shareit.outbox.failures}
+ * и {@code shareit.outbox.batch} (время обработки пачки).
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxRepository outboxRepository;
+    private final ObjectProvider<DomainEventSubscriber> subscribers;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retention;
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final Counter publishedCounter;
+    private final Counter failureCounter;
+    private final Timer batchTimer;
+
+    public OutboxRelay(OutboxRepository outboxRepository,
+                       ObjectProvider<DomainEventSubscriber> subscribers,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${shareit.outbox.relay.enabled:true}") boolean enabled,
+                       @Value("${shareit.outbox.batch-size:100}") int batchSize,
+                       @Value("${shareit.outbox.max-attempts:10}") int maxAttempts,
+                       @Value("${shareit.outbox.retention-hours:24}") long retentionHours) {
+        this.outboxRepository = outboxRepository;
+        this.subscribers = subscribers;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retention = Duration.ofHours(retentionHours);
+        meterRegistry.gauge("shareit.outbox.backlog", backlog);
+        meterRegistry.gauge("shareit.outbox.lag", lagSeconds);
+        this.publishedCounter = Counter.builder("shareit.outbox.published")
+                .description("Domain events delivered to subscribers")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("shareit.outbox.failures")
+                .description("Failed domain event deliveries")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("shareit.outbox.batch")
+                .description("Time spent relaying one batch of domain events")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.poll-ms:1000}")
+    public void relayScheduled() {
+        if (!enabled) {
+            return;
+        }
+        // Разбираем накопившееся пачками, пока пачки полные
+        while (relay() == batchSize) {
+            log.debug("Outbox batch full, continuing");
+        }
+        refreshMetrics();
+    }
+
+    @Scheduled(cron = "${shareit.outbox.cleanup-cron:0 15 * * * *}")
+    public void cleanupScheduled() {
+        if (enabled) {
+            cleanup(LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Доставляет одну пачку событий и возвращает число опубликованных.
+     */
+    public int relay() {
+        Integer published = batchTimer.record(() -> transactionTemplate.execute(status -> relayBatch()));
+        return published != null ? published : 0;
+    }
+
+    public int cleanup(LocalDateTime now) {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxRepository.deletePublishedBefore(now.minus(retention)));
+        return deleted != null ? deleted : 0;
+    }
+
+    public void refreshMetrics() {
+        backlog.set(outboxRepository.countByPublishedAtIsNull());
+        LocalDateTime oldest = outboxRepository.findOldestPendingCreatedAt();
+        lagSeconds.set(oldest != null ? Math.max(0, Duration.between(oldest, LocalDateTime.now()).toSeconds()) : 0);
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> events = outboxRepository.findPendingForUpdate(maxAttempts, PageRequest.of(0, batchSize));
+        int published = 0;
+        for (OutboxEvent event : events) {
+            DomainEvent domainEvent = new DomainEvent(event.getId(), event.getEventType(), event.getAggregateId(),
+                    event.getPayload(), event.getCreatedAt());
+            try {
+                subscribers.orderedStream().forEach(subscriber -> subscriber.onEvent(domainEvent));
+            } catch (RuntimeException e) {
+                failureCounter.increment();
+                event.setAttempts(event.getAttempts() + 1);
+                event.setLastError(truncate(e.toString()));
+                log.warn("Failed to relay outbox event {} ({}), attempt {}: {}",
+                        event.getId(), event.getEventType(), event.getAttempts(), e.getMessage());
+                // Следующие события не обгоняют сбойное, чтобы подписчики видели их по порядку
+                break;
+            }
+            event.setPublishedAt(LocalDateTime.now());
+            publishedCounter.increment();
+            published++;
+        }
+        return published;
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.outbox;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Очередная пачка неопубликованных событий по порядку. Строки, заблокированные другим экземпляром
+    // сервера, пропускаются (timeout -2 = SKIP LOCKED), поэтому реле можно запускать на нескольких узлах
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from OutboxEvent e " +
+            "where e.publishedAt is null " +
+            "and e.attempts < :maxAttempts " +
+            "order by e.id")
+    List<OutboxEvent> findPendingForUpdate(@Param("maxAttempts") int maxAttempts, Pageable page);
+
+    long countByPublishedAtIsNull();
+
+    @Query("select min(e.createdAt) from OutboxEvent e where e.publishedAt is null")
+    LocalDateTime findOldestPendingCreatedAt();
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.publishedAt < :publishedBefore")
+    int deletePublishedBefore(@Param("publishedBefore") LocalDateTime publishedBefore);
+}
@@ -3,6 +3,8 @@ package ru.practicum.shareit.user.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.service.BookerTimelineProjector;
 import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.user.User;
@@ -19,6 +21,7 @@ import java.util.stream.Collectors;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final BookerTimelineProjector timelineProjector;
 
     @Override
     public UserDto create(UserDto userDto) {
@@ -52,11 +55,13 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional
     public UserDto update(Long id, UserDto userDto) {
         User existingUser = userRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("User not found with id: " + id));
 
         // Partial update - only update non-null fields
+        boolean renamed = userDto.getName() != null && !userDto.getName().equals(existingUser.getName());
         if (userDto.getName() != null) {
             existingUser.setName(userDto.getName());
         }
@@ -67,6 +72,9 @@ public class UserServiceImpl implements UserService {
         }
 
         User updatedUser = userRepository.save(existingUser);
+        if (renamed) {
+            timelineProjector.onUserRenamed(id, updatedUser.getName());
+        }
         log.info("Updated user with id: {}", id);
         return UserMapper.toDto(updatedUser);
     }
@@ -0,0 +1,95 @@
+-- Полнотекстовый поиск по вещам (только PostgreSQL)
+ALTER TABLE items
+    ADD COLUMN IF NOT EXISTS search_vector tsvector
+        GENERATED ALWAYS AS (to_tsvector('simple', name || ' ' || description)) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_items_search_vector ON items USING GIN (search_vector);
+
+-- Бронирования секционированы по месяцам start_date. Подтверждённые бронирования одной вещи не могут
+-- пересекаться по времени: exclusion-ограничение создаётся на каждой секции (на секционированную таблицу
+-- его повесить нельзя), пересечения между секциями исключает блокировка вещи в BookingOverlapGuard
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- Создаёт секцию bookings_YYYY_MM для месяца month_start, если её ещё нет. Строки этого месяца,
+-- попавшие в секцию по умолчанию, переносятся в новую секцию до её подключения
+CREATE OR REPLACE FUNCTION create_bookings_partition(month_start TIMESTAMP) RETURNS VOID AS '
+DECLARE
+    period_start   TIMESTAMP := date_trunc(''month'', month_start);
+    period_end     TIMESTAMP := date_trunc(''month'', month_start) + INTERVAL ''1 month'';
+    partition_name TEXT := ''bookings_'' || to_char(date_trunc(''month'', month_start), ''YYYY_MM'');
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN;
+    END IF;
+    EXECUTE format(''CREATE TABLE %I (LIKE bookings INCLUDING DEFAULTS)'', partition_name);
+    EXECUTE format(''ALTER TABLE %I ADD CONSTRAINT %I CHECK (start_date >= %L AND start_date < %L)'',
+                   partition_name, ''ck_'' || partition_name || ''_range'', period_start, period_end);
+    IF to_regclass(''bookings_default'') IS NOT NULL THEN
+        EXECUTE format(''WITH moved AS (DELETE FROM bookings_default WHERE start_date >= %L AND start_date < %L RETURNING *) ''
+                           || ''INSERT INTO %I SELECT * FROM moved'', period_start, period_end, partition_name);
+    END IF;
+    EXECUTE format(''ALTER TABLE %I ADD CONSTRAINT %I EXCLUDE USING gist ''
+                       || ''(item_id WITH =, tsrange(start_date, end_date) WITH &&) WHERE (status = ''''APPROVED'''')'',
+                   partition_name, ''ex_'' || partition_name || ''_approved_period'');
+    EXECUTE format(''ALTER TABLE bookings ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)'',
+                   partition_name, period_start, period_end);
+END' LANGUAGE plpgsql;
+
+-- Внешний ключ на владельца для баз, где owner_id добавлен в schema.sql к уже существующей таблице bookings
+DO '
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conrelid = ''bookings''::regclass AND conname = ''fk_booking_owner'') THEN
+        ALTER TABLE bookings ADD CONSTRAINT fk_booking_owner
+            FOREIGN KEY (owner_id) REFERENCES users (id) ON DELETE CASCADE;
+    END IF;
+END';
+
+-- Однократный перевод bookings, созданной schema.sql, в секционированную таблицу. Первичный ключ обязан
+-- включать ключ секционирования, поэтому он составной (id, start_date); id по-прежнему уникален за счёт identity.
+-- Секции создаются на всю историю и на три месяца вперёд, дальше их создаёт BookingPartitionMaintainer
+DO '
+DECLARE
+    month_start TIMESTAMP;
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = ''bookings''::regclass) = ''p'' THEN
+        RETURN;
+    END IF;
+
+    ALTER TABLE bookings RENAME TO bookings_unpartitioned;
+    CREATE TABLE bookings (LIKE bookings_unpartitioned INCLUDING DEFAULTS INCLUDING IDENTITY)
+        PARTITION BY RANGE (start_date);
+
+    CREATE TABLE bookings_default PARTITION OF bookings DEFAULT;
+    ALTER TABLE bookings_default ADD CONSTRAINT ex_bookings_default_approved_period
+        EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date) WITH &&) WHERE (status = ''APPROVED'');
+
+    SELECT date_trunc(''month'', COALESCE(min(start_date), now())) INTO month_start FROM bookings_unpartitioned;
+    WHILE month_start <= date_trunc(''month'', now()) + INTERVAL ''3 months'' LOOP
+        PERFORM create_bookings_partition(month_start);
+        month_start := month_start + INTERVAL ''1 month'';
+    END LOOP;
+
+    INSERT INTO bookings SELECT * FROM bookings_unpartitioned;
+    PERFORM setval(pg_get_serial_sequence(''bookings'', ''id''),
+                   (SELECT COALESCE(max(id), 0) + 1 FROM bookings), false);
+    DROP TABLE bookings_unpartitioned;
+
+    ALTER TABLE bookings ADD CONSTRAINT pk_booking PRIMARY KEY (id, start_date);
+    ALTER TABLE bookings ADD CONSTRAINT fk_booking_item FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE;
+    ALTER TABLE bookings ADD CONSTRAINT fk_booking_booker FOREIGN KEY (booker_id) REFERENCES users (id) ON DELETE CASCADE;
+    ALTER TABLE bookings ADD CONSTRAINT fk_booking_owner FOREIGN KEY (owner_id) REFERENCES users (id) ON DELETE CASCADE;
+
+    CREATE INDEX idx_bookings_item_status_start ON bookings (item_id, status, start_date);
+    CREATE INDEX idx_bookings_booker_start ON bookings (booker_id, start_date DESC);
+    CREATE INDEX idx_bookings_booker_end ON bookings (booker_id, end_date);
+    CREATE INDEX idx_bookings_booker_status ON bookings (booker_id, status);
+    CREATE INDEX idx_bookings_owner_start ON bookings (owner_id, start_date DESC);
+    CREATE INDEX idx_bookings_owner_status_start ON bookings (owner_id, status, start_date);
+    CREATE INDEX idx_bookings_owner_end ON bookings (owner_id, end_date);
+END';
+
+-- Для BookingLifecycleScheduler: поиск просроченных ожидающих бронирований и таймеров окончания
+-- без чтения всех секций целиком. Индекс на секционированной таблице создаётся и на всех её секциях
+CREATE INDEX IF NOT EXISTS idx_bookings_waiting_start ON bookings (start_date) WHERE status = 'WAITING';
+CREATE INDEX IF NOT EXISTS idx_bookings_approved_end ON bookings (end_date) WHERE status = 'APPROVED';
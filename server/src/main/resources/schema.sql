@@ -39,16 +39,77 @@ CREATE TABLE IF NOT EXISTS bookings
     end_date   TIMESTAMP WITHOUT TIME ZONE             NOT NULL,
     item_id    BIGINT                                  NOT NULL,
     booker_id  BIGINT                                  NOT NULL,
+    owner_id   BIGINT                                  NOT NULL,
     status     VARCHAR(50)                             NOT NULL,
+    version    BIGINT                                  NOT NULL DEFAULT 0,
     CONSTRAINT pk_booking PRIMARY KEY (id),
     CONSTRAINT fk_booking_item FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE,
-    CONSTRAINT fk_booking_booker FOREIGN KEY (booker_id) REFERENCES users (id) ON DELETE CASCADE
+    CONSTRAINT fk_booking_booker FOREIGN KEY (booker_id) REFERENCES users (id) ON DELETE CASCADE,
+    CONSTRAINT fk_booking_owner FOREIGN KEY (owner_id) REFERENCES users (id) ON DELETE CASCADE
 );
 
+-- Владелец вещи, скопированный в бронирование. На базах, созданных до появления колонки, CREATE TABLE IF NOT EXISTS
+-- её не добавит: колонка добавляется и заполняется из items здесь, внешний ключ - в schema-postgresql.sql
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS owner_id BIGINT;
+UPDATE bookings b
+SET owner_id = (SELECT i.owner_id FROM items i WHERE i.id = b.item_id)
+WHERE b.owner_id IS NULL;
+ALTER TABLE bookings ALTER COLUMN owner_id SET NOT NULL;
+-- Версия для условных переходов статуса (см. BookingRepository.updateStatus); в архиве её нет
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
 CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings (item_id, status, start_date);
 CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date DESC);
 CREATE INDEX IF NOT EXISTS idx_bookings_booker_end ON bookings (booker_id, end_date);
 CREATE INDEX IF NOT EXISTS idx_bookings_booker_status ON bookings (booker_id, status);
+CREATE INDEX IF NOT EXISTS idx_bookings_owner_start ON bookings (owner_id, start_date DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_owner_status_start ON bookings (owner_id, status, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_owner_end ON bookings (owner_id, end_date);
+
+-- Холодный архив завершённых бронирований (см. BookingArchiver)
+CREATE TABLE IF NOT EXISTS bookings_archive
+(
+    id          BIGINT                      NOT NULL,
+    start_date  TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    end_date    TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    item_id     BIGINT                      NOT NULL,
+    booker_id   BIGINT                      NOT NULL,
+    owner_id    BIGINT                      NOT NULL,
+    status      VARCHAR(50)                 NOT NULL,
+    archived_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_booking_archive PRIMARY KEY (id),
+    CONSTRAINT fk_booking_archive_item FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE,
+    CONSTRAINT fk_booking_archive_booker FOREIGN KEY (booker_id) REFERENCES users (id) ON DELETE CASCADE,
+    CONSTRAINT fk_booking_archive_owner FOREIGN KEY (owner_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_booker_start ON bookings_archive (booker_id, start_date DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_owner_start ON bookings_archive (owner_id, start_date DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_booker_item ON bookings_archive (booker_id, item_id, status, end_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_item_status_start ON bookings_archive (item_id, status, start_date);
+
+-- Денормализованная лента бронирований арендатора (см. BookerTimelineProjector): горячие и архивные бронирования
+-- вместе с названием вещи и именем арендатора, поддерживается в тех же транзакциях, что и источники
+CREATE TABLE IF NOT EXISTS booker_timeline
+(
+    booking_id  BIGINT                      NOT NULL,
+    booker_id   BIGINT                      NOT NULL,
+    start_date  TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    end_date    TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    status      VARCHAR(50)                 NOT NULL,
+    item_id     BIGINT                      NOT NULL,
+    item_name   VARCHAR(255)                NOT NULL,
+    booker_name VARCHAR(255)                NOT NULL,
+    CONSTRAINT pk_booker_timeline PRIMARY KEY (booking_id),
+    CONSTRAINT fk_booker_timeline_booker FOREIGN KEY (booker_id) REFERENCES users (id) ON DELETE CASCADE,
+    CONSTRAINT fk_booker_timeline_item FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE
+);
+
+-- Покрывающий индекс: страница ленты читается одним диапазоном индекса без обращения к таблице.
+-- Все колонки ключевые, потому что INCLUDE не поддерживается в H2
+CREATE INDEX IF NOT EXISTS idx_booker_timeline_booker_start
+    ON booker_timeline (booker_id, start_date DESC, booking_id DESC, end_date, status, item_id, item_name, booker_name);
+CREATE INDEX IF NOT EXISTS idx_booker_timeline_item ON booker_timeline (item_id);
 
 CREATE TABLE IF NOT EXISTS comments
 (
@@ -63,3 +124,20 @@ CREATE TABLE IF NOT EXISTS comments
 );
 
 CREATE INDEX IF NOT EXISTS idx_comments_item_created ON comments (item_id, created DESC);
+
+-- Outbox доменных событий (см. OutboxPublisher, OutboxRelay)
+CREATE TABLE IF NOT EXISTS outbox_events
+(
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    aggregate_type VARCHAR(50)                             NOT NULL,
+    aggregate_id   BIGINT                                  NOT NULL,
+    event_type     VARCHAR(50)                             NOT NULL,
+    payload        VARCHAR(4000)                           NOT NULL,
+    created_at     TIMESTAMP WITHOUT TIME ZONE             NOT NULL,
+    published_at   TIMESTAMP WITHOUT TIME ZONE,
+    attempts       INT                                     NOT NULL DEFAULT 0,
+    last_error     VARCHAR(1000),
+    CONSTRAINT pk_outbox_event PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_outbox_events_pending ON outbox_events (published_at, id);
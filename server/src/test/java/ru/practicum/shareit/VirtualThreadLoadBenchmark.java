@@ -0,0 +1,186 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Нагрузочное сравнение потоков платформы и виртуальных потоков на списках бронирований арендатора и владельца.
+ * Для каждого числа одновременных клиентов печатает пропускную способность, p50/p99 и среднее ожидание
+ * соединения из пула Hikari. С потоками платформы параллелизм ограничен пулом Tomcat (200 потоков),
+ * с виртуальными - пулом соединений: рост ожидания соединения при неизменной пропускной способности значит,
+ * что ограничителем стал пул Hikari, и дальше помогает только его размер (и то, что выдержит база).
+ * <p>
+ * Не входит в обычную сборку, запуск в обоих режимах:
+ * {@code mvn -pl server test -Dtest=VirtualThreadLoadBenchmark -Dbenchmark=true -Dbenchmark.virtual=false -Dsurefire.failIfNoSpecifiedTests=false}
+ * и то же с {@code -Dbenchmark.virtual=true}; размер пула - {@code -Dbenchmark.pool-size=10}.
+ * На H2 в памяти запросы почти не ждут ввода-вывода; задержку настоящей базы даёт пустая база PostgreSQL:
+ * {@code -Dbenchmark.datasource-url=jdbc:postgresql://localhost:5432/shareit_bench} вместе с
+ * {@code spring.datasource.driverClassName}, {@code username}, {@code password} и {@code spring.sql.init.platform=postgresql}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=${benchmark.datasource-url:jdbc:h2:mem:benchmark}",
+        "spring.threads.virtual.enabled=${benchmark.virtual:false}",
+        "spring.datasource.hikari.maximum-pool-size=${benchmark.pool-size:10}",
+        "logging.level.org.springframework.transaction.interceptor=INFO",
+        "logging.level.org.springframework.orm.jpa.JpaTransactionManager=INFO"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class VirtualThreadLoadBenchmark {
+
+    private static final int[] CLIENTS = {10, 50, 200, 800};
+    private static final int BOOKINGS = 50;
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(15);
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${spring.threads.virtual.enabled}")
+    private boolean virtual;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size}")
+    private int poolSize;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+
+    @Test
+    void bookingLists_underGrowingConcurrency() throws Exception {
+        Long ownerId = userService.create(UserDto.builder()
+                .name("Owner")
+                .email("bench-owner@example.com")
+                .build()).getId();
+        Long bookerId = userService.create(UserDto.builder()
+                .name("Booker")
+                .email("bench-booker@example.com")
+                .build()).getId();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < BOOKINGS; i++) {
+            Long itemId = itemService.create(ownerId, ItemDto.builder()
+                    .name("Item " + i)
+                    .description("Benchmark item")
+                    .available(true)
+                    .build()).getId();
+            bookingService.create(bookerId, BookingCreateDto.builder()
+                    .itemId(itemId)
+                    .start(start.plusDays(i))
+                    .end(start.plusDays(i + 1))
+                    .build());
+        }
+        List<HttpRequest> requests = List.of(
+                listRequest("/bookings?state=ALL&from=0&size=20", bookerId),
+                listRequest("/bookings/owner?state=ALL&from=0&size=20", ownerId));
+
+        run(CLIENTS[0], WARMUP, requests);
+
+        System.out.printf("%s threads, Hikari pool of %d connections%n", virtual ? "virtual" : "platform", poolSize);
+        System.out.printf("%8s %10s %10s %10s %16s %8s%n", "clients", "req/s", "p50 ms", "p99 ms", "pool wait ms", "errors");
+        for (int clients : CLIENTS) {
+            Result result = run(clients, MEASUREMENT, requests);
+            System.out.printf("%8d %10.0f %10.1f %10.1f %16.2f %8d%n", clients, result.requestsPerSecond(),
+                    result.p50Ms(), result.p99Ms(), result.poolWaitMs(), result.errors());
+            assertThat(result.errors()).isZero();
+        }
+    }
+
+    private Result run(int clients, Duration duration, List<HttpRequest> requests) throws InterruptedException {
+        Timer acquire = meterRegistry.get("hikaricp.connections.acquire").timer();
+        long acquiredBefore = acquire.count();
+        double acquireNanosBefore = acquire.totalTime(TimeUnit.NANOSECONDS);
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger errors = new AtomicInteger();
+        long started = System.nanoTime();
+        long deadline = started + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int client = 0; client < clients; client++) {
+                HttpRequest request = requests.get(client % requests.size());
+                executor.submit(() -> {
+                    List<Long> own = new ArrayList<>();
+                    while (System.nanoTime() < deadline) {
+                        long sent = System.nanoTime();
+                        HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                        own.add(System.nanoTime() - sent);
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    latencies.addAll(own);
+                    return null;
+                });
+            }
+        }
+        long elapsed = System.nanoTime() - started;
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        long acquired = acquire.count() - acquiredBefore;
+        double acquireNanos = acquire.totalTime(TimeUnit.NANOSECONDS) - acquireNanosBefore;
+        return new Result(sorted.length * 1e9 / elapsed,
+                percentileMs(sorted, 0.50),
+                percentileMs(sorted, 0.99),
+                acquired > 0 ? acquireNanos / acquired / 1e6 : 0,
+                errors.get());
+    }
+
+    private HttpRequest listRequest(String path, Long userId) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("X-Sharer-User-Id", String.valueOf(userId))
+                .GET()
+                .build();
+    }
+
+    private static double percentileMs(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    private record Result(double requestsPerSecond, double p50Ms, double p99Ms, double poolWaitMs, int errors) {
+    }
+}
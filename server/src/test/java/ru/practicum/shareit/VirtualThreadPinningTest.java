@@ -0,0 +1,145 @@
+package ru.practicum.shareit;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет, что горячие пути сервера на виртуальных потоках не закрепляют их за несущими потоками
+ * (блокировка внутри synchronized). Закрепления ловятся событием JFR {@code jdk.VirtualThreadPinned} без порога.
+ * <p>
+ * Данные пишутся в отдельную базу H2 и фиксируются, поэтому контекст закрывается после теста.
+ * Закрепления внутри драйвера H2 не учитываются: в работе сервер ходит в PostgreSQL.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:pinning",
+        "spring.threads.virtual.enabled=true",
+        "shareit.booking.occupancy.enabled=true",
+        "shareit.booking.lifecycle.enabled=true"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+class VirtualThreadPinningTest {
+
+    private static final int TASKS = 16;
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    private final AtomicInteger rounds = new AtomicInteger();
+
+    @Test
+    void bookingHotPaths_shouldNotPinCarrierThreads() throws Exception {
+        // Первый проход на потоке платформы: загрузка классов и прогрев кешей Hibernate в проверку не входят
+        bookingRoundTrip();
+
+        List<RecordedEvent> pinned = new CopyOnWriteArrayList<>();
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable(PINNED_EVENT).withThreshold(Duration.ZERO).withStackTrace();
+            recording.onEvent(PINNED_EVENT, pinned::add);
+            recording.startAsync();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < TASKS; i++) {
+                    futures.add(executor.submit(this::bookingRoundTrip));
+                }
+                for (Future<?> future : futures) {
+                    future.get(30, TimeUnit.SECONDS);
+                }
+            }
+            // Дожидается доставки всех записанных событий
+            recording.stop();
+        }
+
+        assertThat(pinned.stream()
+                .filter(VirtualThreadPinningTest::isApplicationPinning)
+                .map(VirtualThreadPinningTest::describe)
+                .toList())
+                .isEmpty();
+    }
+
+    // Создание, подтверждение и чтение бронирования своими пользователями и вещью: потоки не ждут блокировок друг друга
+    private void bookingRoundTrip() {
+        int round = rounds.incrementAndGet();
+        Long ownerId = userService.create(UserDto.builder()
+                .name("Owner " + round)
+                .email("owner" + round + "@example.com")
+                .build()).getId();
+        Long bookerId = userService.create(UserDto.builder()
+                .name("Booker " + round)
+                .email("booker" + round + "@example.com")
+                .build()).getId();
+        Long itemId = itemService.create(ownerId, ItemDto.builder()
+                .name("Drill " + round)
+                .description("Power drill")
+                .available(true)
+                .build()).getId();
+        // Начало в окне таймеров, чтобы после фиксации бронирование ставилось на колесо
+        LocalDateTime start = LocalDateTime.now().plusMinutes(30);
+        Long bookingId = bookingService.create(bookerId, BookingCreateDto.builder()
+                .itemId(itemId)
+                .start(start)
+                .end(start.plusDays(1))
+                .build()).getId();
+        bookingService.approve(ownerId, bookingId, true);
+        bookingService.getAllByBooker(bookerId, BookingState.ALL, 0, 10, null);
+        bookingService.getAllByOwner(ownerId, BookingState.ALL, 0, 10, null);
+        itemService.getById(itemId, bookerId);
+        itemService.search("drill");
+    }
+
+    private static boolean isApplicationPinning(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return false;
+        }
+        List<String> types = event.getStackTrace().getFrames().stream()
+                .map(frame -> frame.getMethod().getType().getName())
+                .toList();
+        return types.stream().anyMatch(type -> type.startsWith("ru.practicum.shareit."))
+                && types.stream().noneMatch(type -> type.startsWith("org.h2."));
+    }
+
+    private static String describe(RecordedEvent event) {
+        return event.getStackTrace().getFrames().stream()
+                .limit(20)
+                .map(VirtualThreadPinningTest::describe)
+                .collect(Collectors.joining("\n    at ", "pinned for " + event.getDuration().toMillis() + " ms\n    at ", ""));
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
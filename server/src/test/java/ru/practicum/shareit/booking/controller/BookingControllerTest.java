@@ -7,23 +7,38 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.BookingCursor;
 import ru.practicum.shareit.booking.BookingState;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingBulkApproveDto;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.service.BookingExporter;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(BookingController.class)
@@ -36,6 +51,8 @@ class BookingControllerTest {
     private ObjectMapper objectMapper;
     @MockBean
     private BookingService bookingService;
+    @MockBean
+    private BookingExporter bookingExporter;
 
     @Test
     void create_shouldReturnCreatedBooking_whenValidData() throws Exception {
@@ -169,7 +186,7 @@ class BookingControllerTest {
                 .status(BookingStatus.APPROVED)
                 .build();
 
-        when(bookingService.getAllByBooker(1L, BookingState.ALL))
+        when(bookingService.getAllByBooker(1L, BookingState.ALL, 0, 10, null))
                 .thenReturn(List.of(booking1, booking2));
 
         mockMvc.perform(get("/bookings")
@@ -179,12 +196,12 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$.length()").value(2));
 
-        verify(bookingService).getAllByBooker(1L, BookingState.ALL);
+        verify(bookingService).getAllByBooker(1L, BookingState.ALL, 0, 10, null);
     }
 
     @Test
     void getAllByBooker_shouldReturnBookings_withDefaultState() throws Exception {
-        when(bookingService.getAllByBooker(1L, BookingState.ALL))
+        when(bookingService.getAllByBooker(1L, BookingState.ALL, 0, 10, null))
                 .thenReturn(List.of());
 
         mockMvc.perform(get("/bookings")
@@ -192,7 +209,7 @@ class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isArray());
 
-        verify(bookingService).getAllByBooker(1L, BookingState.ALL);
+        verify(bookingService).getAllByBooker(1L, BookingState.ALL, 0, 10, null);
     }
 
     @Test
@@ -204,7 +221,7 @@ class BookingControllerTest {
                 .status(BookingStatus.WAITING)
                 .build();
 
-        when(bookingService.getAllByBooker(1L, BookingState.WAITING))
+        when(bookingService.getAllByBooker(1L, BookingState.WAITING, 0, 10, null))
                 .thenReturn(List.of(booking));
 
         mockMvc.perform(get("/bookings")
@@ -213,7 +230,7 @@ class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].status").value("WAITING"));
 
-        verify(bookingService).getAllByBooker(1L, BookingState.WAITING);
+        verify(bookingService).getAllByBooker(1L, BookingState.WAITING, 0, 10, null);
     }
 
     @Test
@@ -225,7 +242,7 @@ class BookingControllerTest {
                 .status(BookingStatus.WAITING)
                 .build();
 
-        when(bookingService.getAllByOwner(1L, BookingState.ALL))
+        when(bookingService.getAllByOwner(1L, BookingState.ALL, 0, 10, null))
                 .thenReturn(List.of(booking));
 
         mockMvc.perform(get("/bookings/owner")
@@ -235,7 +252,7 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$.length()").value(1));
 
-        verify(bookingService).getAllByOwner(1L, BookingState.ALL);
+        verify(bookingService).getAllByOwner(1L, BookingState.ALL, 0, 10, null);
     }
 
     @Test
@@ -247,7 +264,7 @@ class BookingControllerTest {
                 .status(BookingStatus.WAITING)
                 .build();
 
-        when(bookingService.getAllByOwner(1L, BookingState.WAITING))
+        when(bookingService.getAllByOwner(1L, BookingState.WAITING, 0, 10, null))
                 .thenReturn(List.of(booking));
 
         mockMvc.perform(get("/bookings/owner")
@@ -256,6 +273,118 @@ class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].status").value("WAITING"));
 
-        verify(bookingService).getAllByOwner(1L, BookingState.WAITING);
+        verify(bookingService).getAllByOwner(1L, BookingState.WAITING, 0, 10, null);
+    }
+
+    @Test
+    void getAllByBooker_shouldReturnNextCursorHeader_whenPageIsFull() throws Exception {
+        BookingResponseDto booking = BookingResponseDto.builder()
+                .id(7L)
+                .start(LocalDateTime.of(2024, 1, 15, 10, 0, 0))
+                .end(LocalDateTime.of(2024, 1, 20, 10, 0, 0))
+                .status(BookingStatus.APPROVED)
+                .build();
+
+        when(bookingService.getAllByBooker(1L, BookingState.ALL, 0, 1, null))
+                .thenReturn(List.of(booking));
+
+        mockMvc.perform(get("/bookings")
+                        .header(USER_ID_HEADER, 1L)
+                        .param("from", "0")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor",
+                        new BookingCursor(booking.getStart(), booking.getId()).encode()));
+    }
+
+    @Test
+    void getAllByOwner_shouldPassCursorAndOmitHeader_whenPageIsNotFull() throws Exception {
+        when(bookingService.getAllByOwner(1L, BookingState.ALL, 0, 10, "abc"))
+                .thenReturn(List.of());
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header(USER_ID_HEADER, 1L)
+                        .param("cursor", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+
+        verify(bookingService).getAllByOwner(1L, BookingState.ALL, 0, 10, "abc");
+    }
+
+    @Test
+    void approveAll_shouldReturnResultPerDecision() throws Exception {
+        BookingBulkApproveDto inputDto = BookingBulkApproveDto.builder()
+                .decisions(List.of(
+                        BookingDecisionDto.builder().bookingId(1L).approved(true).build(),
+                        BookingDecisionDto.builder().bookingId(2L).approved(false).build()))
+                .build();
+
+        when(bookingService.approveAll(eq(1L), any(BookingBulkApproveDto.class))).thenReturn(List.of(
+                BookingDecisionResultDto.builder().bookingId(1L).success(true).status(BookingStatus.APPROVED).build(),
+                BookingDecisionResultDto.builder().bookingId(2L).success(false).status(BookingStatus.APPROVED)
+                        .error("Only WAITING bookings can be approved or rejected").build()));
+
+        mockMvc.perform(patch("/bookings/bulk")
+                        .header(USER_ID_HEADER, 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(inputDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].bookingId").value(1))
+                .andExpect(jsonPath("$[0].success").value(true))
+                .andExpect(jsonPath("$[0].status").value("APPROVED"))
+                .andExpect(jsonPath("$[1].success").value(false))
+                .andExpect(jsonPath("$[1].error").value("Only WAITING bookings can be approved or rejected"));
+
+        verify(bookingService).approveAll(eq(1L), any(BookingBulkApproveDto.class));
+    }
+
+    @Test
+    void getCountsByOwner_shouldReturnCountPerState() throws Exception {
+        when(bookingService.getCountsByOwner(1L)).thenReturn(new BookingCountsDto(5, 1, 2, 2, 1, 1));
+
+        mockMvc.perform(get("/bookings/owner/counts")
+                        .header(USER_ID_HEADER, 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.all").value(5))
+                .andExpect(jsonPath("$.current").value(1))
+                .andExpect(jsonPath("$.past").value(2))
+                .andExpect(jsonPath("$.future").value(2))
+                .andExpect(jsonPath("$.waiting").value(1))
+                .andExpect(jsonPath("$.rejected").value(1));
+
+        verify(bookingService).getCountsByOwner(1L);
+    }
+
+    @Test
+    void exportByBooker_shouldStreamNdjson() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("{\"id\":2}\n{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        }).when(bookingExporter).exportByBooker(eq(1L), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/bookings/export")
+                        .header(USER_ID_HEADER, 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":2}\n{\"id\":1}\n"));
+
+        verify(bookingExporter).requireUser(1L);
+    }
+
+    @Test
+    void exportByOwner_shouldReturnNotFound_whenUserMissing() throws Exception {
+        doThrow(new NotFoundException("User not found with id: 99")).when(bookingExporter).requireUser(99L);
+
+        mockMvc.perform(get("/bookings/owner/export")
+                        .header(USER_ID_HEADER, 99L))
+                .andExpect(status().isNotFound());
+
+        verify(bookingExporter, never()).exportByOwner(any(), any());
     }
 }
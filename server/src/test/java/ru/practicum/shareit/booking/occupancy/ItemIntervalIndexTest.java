@@ -0,0 +1,113 @@
+package ru.practicum.shareit.booking.occupancy;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingPeriod;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemIntervalIndexTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private ItemIntervalIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ItemIntervalIndex();
+        index.put(1L, 10L, day(1), day(3), BookingStatus.APPROVED);
+        index.put(2L, 10L, day(5), day(6), BookingStatus.WAITING);
+        index.put(3L, 20L, day(2), day(4), BookingStatus.APPROVED);
+    }
+
+    @Test
+    void overlaps_shouldRespectStatusesAndHalfOpenBounds() {
+        assertThat(index.overlaps(10L, day(2), day(4), false)).isTrue();
+        assertThat(index.overlaps(10L, day(5), day(6), false)).isFalse();
+        assertThat(index.overlaps(10L, day(5), day(6), true)).isTrue();
+        // Смежные периоды не пересекаются
+        assertThat(index.overlaps(10L, day(3), day(5), true)).isFalse();
+        assertThat(index.overlaps(30L, day(0), day(9), true)).isFalse();
+    }
+
+    @Test
+    void overlaps_shouldFindLongIntervalStartedEarlier() {
+        index.put(4L, 10L, day(-10), day(20), BookingStatus.APPROVED);
+
+        assertThat(index.overlaps(10L, day(10), day(11), false)).isTrue();
+    }
+
+    @Test
+    void periods_shouldReturnOverlappingIntervalsByStart() {
+        index.put(4L, 10L, day(0), day(2), BookingStatus.WAITING);
+
+        assertThat(index.periods(10L, day(0), day(10), true)).containsExactly(
+                new BookingPeriod(day(0), day(2)),
+                new BookingPeriod(day(1), day(3)),
+                new BookingPeriod(day(5), day(6)));
+        assertThat(index.periods(10L, day(0), day(10), false)).containsExactly(
+                new BookingPeriod(day(1), day(3)));
+    }
+
+    @Test
+    void put_shouldUpdateStatusAndRemoveRejected() {
+        index.put(2L, 10L, day(5), day(6), BookingStatus.APPROVED);
+        assertThat(index.overlaps(10L, day(5), day(6), false)).isTrue();
+
+        index.put(1L, 10L, day(1), day(3), BookingStatus.REJECTED);
+        assertThat(index.periods(10L, day(0), day(10), true)).containsExactly(new BookingPeriod(day(5), day(6)));
+        assertThat(index.stats().intervals()).isEqualTo(2);
+    }
+
+    @Test
+    void busyItemIds_shouldReturnOnlyOccupiedItems() {
+        assertThat(index.busyItemIds(List.of(10L, 20L, 30L), day(3), day(4), false)).containsExactly(20L);
+    }
+
+    @Test
+    void put_shouldRoundSubSecondBoundsOutwards() {
+        index.put(4L, 30L, day(1).plusNanos(500), day(2).plusNanos(500), BookingStatus.APPROVED);
+
+        assertThat(index.periods(30L, day(0), day(3), false))
+                .containsExactly(new BookingPeriod(day(1), day(2).plusSeconds(1)));
+    }
+
+    @Test
+    void pruneEndedBefore_shouldDropFinishedIntervals() {
+        int pruned = index.pruneEndedBefore(day(4));
+
+        assertThat(pruned).isEqualTo(2);
+        assertThat(index.stats().items()).isEqualTo(1);
+        assertThat(index.overlaps(10L, day(5), day(6), true)).isTrue();
+    }
+
+    @Test
+    void differingItemIds_shouldCompareWithOtherIndex() {
+        ItemIntervalIndex other = new ItemIntervalIndex();
+        other.put(1L, 10L, day(1), day(3), BookingStatus.APPROVED);
+        other.put(2L, 10L, day(5), day(6), BookingStatus.APPROVED);
+        other.put(5L, 40L, day(1), day(2), BookingStatus.WAITING);
+
+        assertThat(index.differingItemIds(other)).containsExactlyInAnyOrder(10L, 20L, 40L);
+
+        index.replaceItem(10L, other);
+        assertThat(index.sameItem(10L, other)).isTrue();
+    }
+
+    @Test
+    void stats_shouldReportSizes() {
+        ItemIntervalIndex.Stats stats = index.stats();
+
+        assertThat(stats.items()).isEqualTo(2);
+        assertThat(stats.intervals()).isEqualTo(3);
+        assertThat(stats.estimatedBytes()).isPositive();
+    }
+
+    private static LocalDateTime day(int day) {
+        return BASE.plusDays(day);
+    }
+}
@@ -0,0 +1,209 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingCursor;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.repository.BookerTimelineRepository;
+import ru.practicum.shareit.booking.repository.BookerTimelineRow;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class BookerTimelineProjectorIntegrationTest {
+
+    @Autowired
+    private BookerTimelineProjector timelineProjector;
+
+    @Autowired
+    private BookerTimelineRepository timelineRepository;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingArchiver bookingArchiver;
+
+    @Autowired
+    private BookingLifecycleScheduler lifecycleScheduler;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    private Long ownerId;
+    private Long bookerId;
+    private Long itemId;
+
+    @BeforeEach
+    void setUp() {
+        lifecycleScheduler.clear();
+        ownerId = userService.create(UserDto.builder()
+                .name("Owner")
+                .email("owner@example.com")
+                .build()).getId();
+        bookerId = userService.create(UserDto.builder()
+                .name("Booker")
+                .email("booker@example.com")
+                .build()).getId();
+        itemId = itemService.create(ownerId, ItemDto.builder()
+                .name("Drill")
+                .description("Power drill")
+                .available(true)
+                .build()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        lifecycleScheduler.clear();
+    }
+
+    @Test
+    void bookingChanges_shouldBeProjectedInSameTransaction() {
+        Long approvedId = book(now.plusDays(1), now.plusDays(2));
+        Long rejectedId = book(now.plusDays(3), now.plusDays(4));
+        Long waitingId = book(now.plusDays(5), now.plusDays(6));
+        bookingService.approve(ownerId, approvedId, true);
+        bookingService.approve(ownerId, rejectedId, false);
+
+        List<BookerTimelineRow> rows = timeline();
+
+        assertThat(rows).extracting(BookerTimelineRow::id).containsExactly(waitingId, rejectedId, approvedId);
+        assertThat(rows).extracting(BookerTimelineRow::status)
+                .containsExactly(BookingStatus.WAITING, BookingStatus.REJECTED, BookingStatus.APPROVED);
+        assertThat(rows.getLast().itemName()).isEqualTo("Drill");
+        assertThat(rows.getLast().bookerName()).isEqualTo("Booker");
+        assertThat(timelineProjector.verify(false).total()).isZero();
+    }
+
+    @Test
+    void renames_shouldUpdateAllRowsOfItemAndBooker() {
+        book(now.plusDays(1), now.plusDays(2));
+        book(now.plusDays(3), now.plusDays(4));
+
+        itemService.update(ownerId, itemId, ItemDto.builder().name("Hammer drill").build());
+        userService.update(bookerId, UserDto.builder().name("New booker").build());
+
+        List<BookingResponseDto> bookings = bookingService.getAllByBooker(bookerId, BookingState.ALL, 0, 10, null);
+        assertThat(bookings).hasSize(2);
+        assertThat(bookings).allSatisfy(booking -> {
+            assertThat(booking.getItem().getName()).isEqualTo("Hammer drill");
+            assertThat(booking.getBooker().getName()).isEqualTo("New booker");
+        });
+    }
+
+    @Test
+    void expiredBookings_shouldBeCanceledInTimeline() {
+        Long overdueId = book(now.minusHours(1), now.plusDays(1));
+
+        lifecycleScheduler.expireOverdue(now);
+
+        assertThat(bookingService.getAllByBooker(bookerId, BookingState.ALL, 0, 10, null))
+                .extracting(BookingResponseDto::getId, BookingResponseDto::getStatus)
+                .containsExactly(tuple(overdueId, BookingStatus.CANCELED));
+    }
+
+    @Test
+    void archivedBookings_shouldStayInTimeline() {
+        Long oldId = book(now.minusYears(1), now.minusYears(1).plusDays(2));
+        bookingService.approve(ownerId, oldId, true);
+        Long futureId = book(now.plusDays(1), now.plusDays(2));
+
+        bookingArchiver.archive(now);
+
+        assertThat(bookingService.getAllByBooker(bookerId, BookingState.ALL, 0, 10, null))
+                .extracting(BookingResponseDto::getId)
+                .containsExactly(futureId, oldId);
+        assertThat(bookingService.getAllByBooker(bookerId, BookingState.PAST, 0, 10, null))
+                .extracting(BookingResponseDto::getId)
+                .containsExactly(oldId);
+        assertThat(timelineProjector.verify(false).total()).isZero();
+    }
+
+    @Test
+    void getAllByBooker_shouldPageTimelineWithCursor() {
+        Long firstId = book(now.plusDays(1), now.plusDays(2));
+        Long secondId = book(now.plusDays(3), now.plusDays(4));
+        Long thirdId = book(now.plusDays(5), now.plusDays(6));
+
+        List<BookingResponseDto> firstPage = bookingService.getAllByBooker(bookerId, BookingState.ALL, 0, 2, null);
+        BookingResponseDto last = firstPage.getLast();
+        String cursor = new BookingCursor(last.getStart(), last.getId()).encode();
+
+        assertThat(firstPage).extracting(BookingResponseDto::getId).containsExactly(thirdId, secondId);
+        assertThat(bookingService.getAllByBooker(bookerId, BookingState.ALL, 0, 2, cursor))
+                .extracting(BookingResponseDto::getId)
+                .containsExactly(firstId);
+        assertThat(bookingService.getAllByBooker(bookerId, BookingState.WAITING, 2, 2, null))
+                .extracting(BookingResponseDto::getId)
+                .containsExactly(firstId);
+    }
+
+    @Test
+    void verify_shouldReportAndRepairDrift() {
+        Long missingId = book(now.plusDays(1), now.plusDays(2));
+        Long staleId = book(now.plusDays(3), now.plusDays(4));
+        timelineRepository.deleteAllByIdIn(List.of(missingId));
+        timelineRepository.updateStatus(List.of(staleId), BookingStatus.APPROVED);
+
+        BookerTimelineProjector.DriftReport report = timelineProjector.verify(false);
+
+        assertThat(report).isEqualTo(new BookerTimelineProjector.DriftReport(1, 1, 0));
+        assertThat(timelineProjector.verify(false)).isEqualTo(report);
+
+        assertThat(timelineProjector.verify(true)).isEqualTo(report);
+        assertThat(timelineProjector.verify(false).total()).isZero();
+        assertThat(timeline()).extracting(BookerTimelineRow::id, BookerTimelineRow::status)
+                .containsExactly(tuple(staleId, BookingStatus.WAITING),
+                        tuple(missingId, BookingStatus.WAITING));
+    }
+
+    @Test
+    void rebuild_shouldRecreateTimelineFromHotAndArchivedBookings() {
+        Long oldId = book(now.minusYears(1), now.minusYears(1).plusDays(2));
+        Long futureId = book(now.plusDays(1), now.plusDays(2));
+        bookingArchiver.archive(now);
+        timelineRepository.deleteAllRows();
+
+        assertThat(timelineProjector.verify(false).missing()).isEqualTo(2);
+        assertThat(timelineProjector.rebuild()).isEqualTo(2);
+        assertThat(timeline()).extracting(BookerTimelineRow::id).containsExactly(futureId, oldId);
+    }
+
+    private List<BookerTimelineRow> timeline() {
+        return timelineRepository.findByBookerId(bookerId, BookingCursor.FIRST.start(), BookingCursor.FIRST.id(),
+                PageRequest.of(0, 10));
+    }
+
+    private Long book(LocalDateTime start, LocalDateTime end) {
+        return bookingService.create(bookerId, BookingCreateDto.builder()
+                .itemId(itemId)
+                .start(start)
+                .end(end)
+                .build()).getId();
+    }
+}
@@ -0,0 +1,239 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingCursor;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.OffsetPageRequest;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingListRow;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityCheckDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto.PeriodDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityStatusDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class BookingArchiverIntegrationTest {
+
+    @Autowired
+    private BookingArchiver bookingArchiver;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    private Long ownerId;
+    private Long bookerId;
+    private Long itemId;
+    private Long oldApprovedId;
+    private Long endedRejectedId;
+    private Long recentApprovedId;
+    private Long futureRejectedId;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = userService.create(UserDto.builder()
+                .name("Owner")
+                .email("owner@example.com")
+                .build()).getId();
+        bookerId = userService.create(UserDto.builder()
+                .name("Booker")
+                .email("booker@example.com")
+                .build()).getId();
+        itemId = itemService.create(ownerId, ItemDto.builder()
+                .name("Drill")
+                .description("Power drill")
+                .available(true)
+                .build()).getId();
+
+        oldApprovedId = book(now.minusYears(1), now.minusYears(1).plusDays(2), true);
+        endedRejectedId = book(now.minusDays(3), now.minusDays(2), false);
+        recentApprovedId = book(now.minusDays(10), now.minusDays(8), true);
+        futureRejectedId = book(now.plusDays(1), now.plusDays(2), false);
+    }
+
+    @Test
+    void archive_shouldMoveOldAndEndedRejectedBookings() {
+        int archived = bookingArchiver.archive(now);
+
+        assertThat(archived).isEqualTo(2);
+        assertThat(archivedBookingRepository.findAllById(List.of(oldApprovedId, endedRejectedId))).hasSize(2);
+        assertThat(bookingRepository.findAllById(List.of(oldApprovedId, endedRejectedId))).isEmpty();
+        assertThat(bookingRepository.findById(recentApprovedId)).isPresent();
+        assertThat(bookingRepository.findById(futureRejectedId)).isPresent();
+        assertThat(bookingArchiver.archive(now)).isZero();
+    }
+
+    @Test
+    void getAll_shouldMergeHotAndArchivedBookings() {
+        bookingArchiver.archive(now);
+
+        assertThat(ids(bookingService.getAllByBooker(bookerId, BookingState.ALL, 0, 10, null)))
+                .containsExactly(futureRejectedId, endedRejectedId, recentApprovedId, oldApprovedId);
+        assertThat(ids(bookingService.getAllByOwner(ownerId, BookingState.PAST, 0, 10, null)))
+                .containsExactly(endedRejectedId, recentApprovedId, oldApprovedId);
+        assertThat(ids(bookingService.getAllByBooker(bookerId, BookingState.REJECTED, 0, 10, null)))
+                .containsExactly(futureRejectedId, endedRejectedId);
+        assertThat(ids(bookingService.getAllByOwner(ownerId, BookingState.FUTURE, 0, 10, null)))
+                .containsExactly(futureRejectedId);
+    }
+
+    @Test
+    void getAll_shouldPageAcrossHotAndArchivedBookings() {
+        bookingArchiver.archive(now);
+
+        assertThat(ids(bookingService.getAllByBooker(bookerId, BookingState.ALL, 2, 2, null)))
+                .containsExactly(recentApprovedId, oldApprovedId);
+
+        List<BookingResponseDto> firstPage = bookingService.getAllByBooker(bookerId, BookingState.ALL, 0, 2, null);
+        BookingResponseDto last = firstPage.getLast();
+        String cursor = new BookingCursor(last.getStart(), last.getId()).encode();
+        assertThat(ids(bookingService.getAllByBooker(bookerId, BookingState.ALL, 0, 2, cursor)))
+                .containsExactly(recentApprovedId, oldApprovedId);
+
+        // Владелец читает горячую таблицу и архив одним запросом с union all, смещение не кратно размеру
+        assertThat(ids(bookingService.getAllByOwner(ownerId, BookingState.ALL, 1, 2, null)))
+                .containsExactly(endedRejectedId, recentApprovedId);
+        assertThat(ids(bookingService.getAllByOwner(ownerId, BookingState.ALL, 0, 3, cursor)))
+                .containsExactly(recentApprovedId, oldApprovedId);
+        assertThat(ids(bookingService.getAllByOwner(ownerId, BookingState.REJECTED, 1, 10, null)))
+                .containsExactly(endedRejectedId);
+    }
+
+    @Test
+    void findMergedByBooker_shouldReadHotAndArchivedRowsInOneQuery() {
+        bookingArchiver.archive(now);
+        BookingCursor first = BookingCursor.FIRST;
+
+        // Списки арендатора обычно идут по ленте booker_timeline, запросы слияния проверяются напрямую
+        List<BookingListRow> all = bookingRepository.findMergedByBookerId(
+                bookerId, first.start(), first.id(), new OffsetPageRequest(1, 2));
+        assertThat(all).extracting(BookingListRow::getId).containsExactly(endedRejectedId, recentApprovedId);
+        assertThat(all.getFirst().getStatus()).isEqualTo(BookingStatus.REJECTED);
+        assertThat(all.getFirst().getItemName()).isEqualTo("Drill");
+        assertThat(all.getFirst().getBookerName()).isEqualTo("Booker");
+        assertThat(all.getFirst().getStart()).isEqualTo(now.minusDays(3));
+        assertThat(bookingRepository.findMergedPastByBookerId(
+                bookerId, now, first.start(), first.id(), new OffsetPageRequest(0, 10)))
+                .extracting(BookingListRow::getId)
+                .containsExactly(endedRejectedId, recentApprovedId, oldApprovedId);
+        assertThat(bookingRepository.findMergedByBookerIdAndStatus(
+                bookerId, BookingStatus.REJECTED.name(), first.start(), first.id(), new OffsetPageRequest(0, 10)))
+                .extracting(BookingListRow::getId)
+                .containsExactly(futureRejectedId, endedRejectedId);
+    }
+
+    @Test
+    void getCounts_shouldIncludeArchivedBookings() {
+        BookingCountsDto before = bookingService.getCountsByOwner(ownerId);
+
+        bookingArchiver.archive(now);
+
+        assertThat(bookingService.getCountsByOwner(ownerId)).isEqualTo(before);
+        assertThat(bookingService.getCountsByBooker(bookerId)).isEqualTo(new BookingCountsDto(4, 0, 3, 1, 0, 2));
+    }
+
+    @Test
+    void getByIdAndAddComment_shouldSeeArchivedBookings() {
+        bookingArchiver.archive(now);
+
+        BookingResponseDto archived = bookingService.getById(ownerId, oldApprovedId);
+        assertThat(archived.getStatus()).isEqualTo(BookingStatus.APPROVED);
+        assertThat(archived.getItem().getId()).isEqualTo(itemId);
+
+        CommentDto comment = itemService.addComment(bookerId, itemId, CommentDto.builder()
+                .text("Great drill")
+                .build());
+        assertThat(comment.getId()).isNotNull();
+    }
+
+    @Test
+    void lastBooking_shouldSurviveArchivingOfItemsOnlyPastBooking() {
+        Long oldItemId = itemService.create(ownerId, ItemDto.builder()
+                .name("Ladder")
+                .description("Folding ladder")
+                .available(true)
+                .build()).getId();
+        Long onlyBookingId = book(oldItemId, now.minusYears(2), now.minusYears(2).plusDays(1), true);
+
+        bookingArchiver.archive(now);
+
+        assertThat(bookingRepository.existsById(onlyBookingId)).isFalse();
+        assertThat(itemService.getById(oldItemId, ownerId).getLastBooking().getId()).isEqualTo(onlyBookingId);
+        assertThat(itemService.getById(itemId, ownerId).getLastBooking().getId()).isEqualTo(recentApprovedId);
+        assertThat(itemService.getByOwnerIdWithBookings(ownerId))
+                .extracting(item -> item.getLastBooking().getId())
+                .containsExactlyInAnyOrder(recentApprovedId, onlyBookingId);
+    }
+
+    @Test
+    void availability_shouldSeeArchivedBookingsInPastPeriods() {
+        LocalDateTime from = now.minusYears(1).minusDays(1);
+        LocalDateTime to = now.minusYears(1).plusDays(5);
+
+        bookingArchiver.archive(now);
+
+        assertThat(itemService.getAvailability(itemId, from, to, false).getOccupied())
+                .containsExactly(new PeriodDto(now.minusYears(1), now.minusYears(1).plusDays(2)));
+        assertThat(itemService.checkAvailability(ItemAvailabilityCheckDto.builder()
+                .itemIds(List.of(itemId))
+                .from(from)
+                .to(to)
+                .build()))
+                .containsExactly(new ItemAvailabilityStatusDto(itemId, false));
+    }
+
+    private Long book(LocalDateTime start, LocalDateTime end, boolean approved) {
+        return book(itemId, start, end, approved);
+    }
+
+    private Long book(Long itemId, LocalDateTime start, LocalDateTime end, boolean approved) {
+        BookingResponseDto created = bookingService.create(bookerId, BookingCreateDto.builder()
+                .itemId(itemId)
+                .start(start)
+                .end(end)
+                .build());
+        bookingService.approve(ownerId, created.getId(), approved);
+        return created.getId();
+    }
+
+    private static List<Long> ids(List<BookingResponseDto> bookings) {
+        return bookings.stream()
+                .map(BookingResponseDto::getId)
+                .toList();
+    }
+}
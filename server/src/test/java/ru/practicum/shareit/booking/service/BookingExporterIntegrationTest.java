@@ -0,0 +1,157 @@
+package ru.practicum.shareit.booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class BookingExporterIntegrationTest {
+
+    // Больше двух порций выборки: контекст персистентности очищается посреди открытых курсоров
+    private static final int BOOKINGS = 2 * Integer.parseInt(BookingRepository.EXPORT_FETCH_SIZE) + 100;
+    // Каждое такое бронирование отклонено и уходит в архив, перемежаясь по времени с горячими
+    private static final int REJECTED_EVERY = 37;
+
+    @Autowired
+    private BookingExporter bookingExporter;
+
+    @Autowired
+    private BookingArchiver bookingArchiver;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    private User owner;
+    private List<User> bookers;
+    private List<Item> items;
+    // Бронирования от новых к старым, в порядке выгрузки
+    private final List<Booking> newestFirst = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder().name("Owner").email("owner@example.com").build());
+        bookers = List.of(
+                userRepository.save(User.builder().name("Alice").email("alice@example.com").build()),
+                userRepository.save(User.builder().name("Bob").email("bob@example.com").build()),
+                userRepository.save(User.builder().name("Carol").email("carol@example.com").build()));
+        items = List.of(
+                itemRepository.save(Item.builder().name("Drill").description("Power drill").available(true)
+                        .owner(owner).build()),
+                itemRepository.save(Item.builder().name("Ladder").description("Folding ladder").available(true)
+                        .owner(owner).build()));
+
+        for (int i = 0; i < BOOKINGS; i++) {
+            LocalDateTime start = now.minusHours(i + 1);
+            newestFirst.add(Booking.builder()
+                    .start(start)
+                    .end(start.plusMinutes(30))
+                    .item(items.get(i % items.size()))
+                    .booker(bookers.get(i % bookers.size()))
+                    .status(i % REJECTED_EVERY == 0 ? BookingStatus.REJECTED : BookingStatus.APPROVED)
+                    .build());
+        }
+        bookingRepository.saveAllAndFlush(newestFirst);
+        bookingArchiver.archive(now);
+    }
+
+    @Test
+    void exportByOwner_shouldMergeHotAndArchivedAcrossFetchBatches() throws IOException {
+        int archived = (BOOKINGS + REJECTED_EVERY - 1) / REJECTED_EVERY;
+        assertThat(archivedBookingRepository.count()).isEqualTo(archived);
+        assertThat(bookingRepository.count()).isEqualTo(BOOKINGS - archived);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = bookingExporter.exportByOwner(owner.getId(), out);
+
+        assertThat(written).isEqualTo(BOOKINGS);
+        assertExported(readLines(out), newestFirst);
+    }
+
+    @Test
+    void exportByBooker_shouldMergeHotAndArchivedAcrossFetchBatches() throws IOException {
+        User booker = bookers.getFirst();
+        List<Booking> expected = newestFirst.stream()
+                .filter(booking -> booking.getBooker().getId().equals(booker.getId()))
+                .toList();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = bookingExporter.exportByBooker(booker.getId(), out);
+
+        assertThat(written).isEqualTo(expected.size());
+        assertExported(readLines(out), expected);
+    }
+
+    @Test
+    void export_shouldWriteNothing_whenUserHasNoBookings() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(bookingExporter.exportByBooker(owner.getId(), out)).isZero();
+        assertThat(out.size()).isZero();
+    }
+
+    // Порядок (start desc, id desc), статусы и имена проверяются для каждой строки, в том числе после очистки контекста
+    private void assertExported(List<BookingResponseDto> exported, List<Booking> expected) {
+        assertThat(exported).extracting(BookingResponseDto::getId)
+                .containsExactlyElementsOf(expected.stream().map(Booking::getId).toList());
+        assertThat(exported).isSortedAccordingTo(BookingServiceImpl.NEWEST_FIRST);
+        for (int i = 0; i < exported.size(); i++) {
+            BookingResponseDto line = exported.get(i);
+            Booking booking = expected.get(i);
+            assertThat(line.getStart()).isEqualTo(booking.getStart());
+            assertThat(line.getStatus()).isEqualTo(booking.getStatus());
+            assertThat(line.getItem().getName()).isEqualTo(booking.getItem().getName());
+            assertThat(line.getBooker().getName()).isEqualTo(booking.getBooker().getName());
+        }
+    }
+
+    private List<BookingResponseDto> readLines(ByteArrayOutputStream out) {
+        return out.toString(StandardCharsets.UTF_8).lines()
+                .map(line -> {
+                    try {
+                        return objectMapper.readValue(line, BookingResponseDto.class);
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList();
+    }
+}
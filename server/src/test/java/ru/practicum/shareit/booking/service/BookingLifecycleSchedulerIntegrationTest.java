@@ -0,0 +1,146 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.outbox.DomainEventType;
+import ru.practicum.shareit.outbox.OutboxEvent;
+import ru.practicum.shareit.outbox.OutboxRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class BookingLifecycleSchedulerIntegrationTest {
+
+    @Autowired
+    private BookingLifecycleScheduler lifecycleScheduler;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    private Long ownerId;
+    private Long bookerId;
+    private Long itemId;
+
+    @BeforeEach
+    void setUp() {
+        lifecycleScheduler.clear();
+        ownerId = userService.create(UserDto.builder()
+                .name("Owner")
+                .email("owner@example.com")
+                .build()).getId();
+        bookerId = userService.create(UserDto.builder()
+                .name("Booker")
+                .email("booker@example.com")
+                .build()).getId();
+        itemId = itemService.create(ownerId, ItemDto.builder()
+                .name("Drill")
+                .description("Power drill")
+                .available(true)
+                .build()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        lifecycleScheduler.clear();
+    }
+
+    @Test
+    void fire_shouldExpireWaitingAndPublishStartAndEndOfApproved() {
+        Long waitingId = book(now.plusMinutes(10), now.plusMinutes(20));
+        Long approvedId = book(now.plusMinutes(30), now.plusMinutes(40));
+        bookingService.approve(ownerId, approvedId, true);
+
+        lifecycleScheduler.refill(now);
+        assertThat(lifecycleScheduler.pendingTimers()).isEqualTo(3);
+
+        lifecycleScheduler.fire(now.plusMinutes(5));
+        assertThat(bookingRepository.findById(waitingId).orElseThrow().getStatus()).isEqualTo(BookingStatus.WAITING);
+
+        lifecycleScheduler.fire(now.plusMinutes(30));
+        assertThat(bookingRepository.findById(waitingId).orElseThrow().getStatus()).isEqualTo(BookingStatus.CANCELED);
+        assertThat(eventsOf(DomainEventType.BOOKING_EXPIRED)).containsExactly(waitingId);
+        assertThat(eventsOf(DomainEventType.BOOKING_STARTED)).containsExactly(approvedId);
+        assertThat(eventsOf(DomainEventType.BOOKING_ENDED)).isEmpty();
+
+        lifecycleScheduler.fire(now.plusMinutes(40));
+        assertThat(eventsOf(DomainEventType.BOOKING_ENDED)).containsExactly(approvedId);
+        assertThat(lifecycleScheduler.pendingTimers()).isZero();
+        assertThatThrownBy(() -> bookingService.approve(ownerId, waitingId, true))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void fire_shouldNotPublishForRejectedBooking() {
+        Long bookingId = book(now.plusMinutes(10), now.plusMinutes(20));
+        lifecycleScheduler.refill(now);
+        bookingService.approve(ownerId, bookingId, false);
+
+        lifecycleScheduler.fire(now.plusMinutes(10));
+
+        assertThat(bookingRepository.findById(bookingId).orElseThrow().getStatus()).isEqualTo(BookingStatus.REJECTED);
+        assertThat(eventsOf(DomainEventType.BOOKING_EXPIRED)).isEmpty();
+        assertThat(eventsOf(DomainEventType.BOOKING_STARTED)).isEmpty();
+    }
+
+    @Test
+    void expireOverdue_shouldCancelWaitingBookingsAlreadyStarted() {
+        Long overdueId = book(now.minusHours(2), now.plusHours(1));
+        Long futureId = book(now.plusHours(1), now.plusHours(2));
+
+        int expired = lifecycleScheduler.expireOverdue(now);
+
+        assertThat(expired).isEqualTo(1);
+        assertThat(bookingRepository.findById(overdueId).orElseThrow().getStatus()).isEqualTo(BookingStatus.CANCELED);
+        assertThat(bookingRepository.findById(futureId).orElseThrow().getStatus()).isEqualTo(BookingStatus.WAITING);
+        assertThat(eventsOf(DomainEventType.BOOKING_EXPIRED)).containsExactly(overdueId);
+    }
+
+    private Long book(LocalDateTime start, LocalDateTime end) {
+        return bookingService.create(bookerId, BookingCreateDto.builder()
+                .itemId(itemId)
+                .start(start)
+                .end(end)
+                .build()).getId();
+    }
+
+    private List<Long> eventsOf(DomainEventType type) {
+        return outboxRepository.findAll().stream()
+                .filter(event -> event.getEventType() == type)
+                .map(OutboxEvent::getAggregateId)
+                .toList();
+    }
+}
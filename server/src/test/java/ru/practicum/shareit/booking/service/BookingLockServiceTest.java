@@ -0,0 +1,193 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.exception.ConflictException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BookingLockServiceTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 5;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BookingLockService lockService = new BookingLockService(64, 2000, meterRegistry);
+
+    @Test
+    void constructor_shouldRoundStripeCountUpToPowerOfTwo() {
+        assertThat(new BookingLockService(50, 100, meterRegistry).stripeCount()).isEqualTo(64);
+        assertThat(new BookingLockService(64, 100, meterRegistry).stripeCount()).isEqualTo(64);
+    }
+
+    @Test
+    void stripeIndex_shouldSpreadConsecutiveItemsOverDistinctStripes() {
+        assertThat(LongStream.rangeClosed(1, THREADS).map(id -> lockService.stripeIndex(id)).distinct().count())
+                .isEqualTo(THREADS);
+    }
+
+    @Test
+    void acquire_shouldHoldDistinctItemsAtTheSameTime() throws Exception {
+        // Каждый поток доходит до защёлки, не отпуская свою вещь: это возможно, только если полосы не общие
+        CountDownLatch allHolding = new CountDownLatch(THREADS);
+        List<Boolean> metWhileHolding = runConcurrently(thread -> thread + 1, 1, () -> {
+            allHolding.countDown();
+            return allHolding.await(5, TimeUnit.SECONDS);
+        });
+
+        assertThat(metWhileHolding).hasSize(THREADS).containsOnly(true);
+    }
+
+    @Test
+    void acquire_shouldExcludeHolders_whenItemIsTheSame() throws Exception {
+        AtomicInteger holders = new AtomicInteger();
+        int[] unguarded = new int[1];
+        List<Boolean> alone = runConcurrently(thread -> 1, OPERATIONS_PER_THREAD, () -> {
+            boolean first = holders.incrementAndGet() == 1;
+            unguarded[0]++;
+            Thread.yield();
+            holders.decrementAndGet();
+            return first;
+        });
+
+        assertThat(alone).hasSize(THREADS * OPERATIONS_PER_THREAD).containsOnly(true);
+        assertThat(unguarded[0]).isEqualTo(THREADS * OPERATIONS_PER_THREAD);
+    }
+
+    @Test
+    void acquire_shouldThrowConflictAndCountTimeout_whenLockIsHeldTooLong() throws Exception {
+        BookingLockService shortTimeout = new BookingLockService(4, 50, meterRegistry);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> {
+            ReentrantLock lock = shortTimeout.acquire(1L);
+            locked.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                lock.unlock();
+            }
+        });
+        assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> shortTimeout.acquire(1L))
+                .isInstanceOf(ConflictException.class)
+                .hasMessageContaining("busy");
+        assertThat(meterRegistry.get("shareit.booking.lock.timeouts").counter().count()).isPositive();
+        assertThat(meterRegistry.get("shareit.booking.lock.contended").counter().count()).isPositive();
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void lockUntilTransactionEnd_shouldRequireTransaction() {
+        assertThatThrownBy(() -> lockService.lockUntilTransactionEnd(1L))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void lockAllUntilTransactionEnd_shouldNotDeadlock_whenBatchesOverlapInReverseOrder() throws Exception {
+        BookingLockService shortTimeout = new BookingLockService(64, 500, meterRegistry);
+        List<Long> forward = List.of(1L, 2L, 3L);
+        List<Long> backward = List.of(3L, 2L, 1L);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CompletableFuture<Void> first = CompletableFuture.runAsync(() -> lockRepeatedly(shortTimeout, forward), executor);
+            CompletableFuture<Void> second = CompletableFuture.runAsync(() -> lockRepeatedly(shortTimeout, backward), executor);
+            CompletableFuture.allOf(first, second).get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(meterRegistry.get("shareit.booking.lock.timeouts").counter().count()).isZero();
+    }
+
+    @Test
+    void lockAllUntilTransactionEnd_shouldReleaseLocks_whenTransactionCompletes() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            lockService.lockAllUntilTransactionEnd(List.of(1L, 2L, 1L));
+            assertThat(meterRegistry.get("shareit.booking.lock.held").gauge().value()).isEqualTo(2);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(meterRegistry.get("shareit.booking.lock.held").gauge().value()).isZero();
+    }
+
+    @Test
+    void lockAllUntilTransactionEnd_shouldRequireTransaction() {
+        assertThatThrownBy(() -> lockService.lockAllUntilTransactionEnd(List.of(1L)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    // Имитирует транзакцию: блокировки снимаются синхронизацией, как после фиксации
+    private static void lockRepeatedly(BookingLockService service, List<Long> itemIds) {
+        for (int i = 0; i < 200; i++) {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                service.lockAllUntilTransactionEnd(itemIds);
+                Thread.yield();
+                TransactionSynchronizationManager.getSynchronizations()
+                        .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        }
+    }
+
+    // Запускает потоки одновременно; каждый operations раз захватывает свою вещь и выполняет underLock,
+    // не отпуская блокировку. Возвращает результаты всех вызовов underLock
+    private List<Boolean> runConcurrently(LongUnaryOperator itemForThread, int operations,
+                                          Callable<Boolean> underLock) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Boolean> results = new CopyOnWriteArrayList<>();
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                long itemId = itemForThread.applyAsLong(thread);
+                futures.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        start.await();
+                        for (int i = 0; i < operations; i++) {
+                            ReentrantLock lock = lockService.acquire(itemId);
+                            try {
+                                results.add(underLock.call());
+                            } finally {
+                                lock.unlock();
+                            }
+                        }
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }, executor));
+            }
+            start.countDown();
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
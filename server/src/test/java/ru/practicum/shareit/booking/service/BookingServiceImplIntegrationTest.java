@@ -1,15 +1,29 @@
 package ru.practicum.shareit.booking.service;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingCursor;
 import ru.practicum.shareit.booking.BookingState;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingBulkApproveDto;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -18,12 +32,19 @@ import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.verify;
 
-@SpringBootTest
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
 @ActiveProfiles("test")
 @Transactional
 class BookingServiceImplIntegrationTest {
@@ -37,6 +58,18 @@ class BookingServiceImplIntegrationTest {
     @Autowired
     private ItemService itemService;
 
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @SpyBean
+    private BookingLockService bookingLockService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private Long ownerId;
     private Long bookerId;
     private Long itemId;
@@ -153,6 +186,29 @@ class BookingServiceImplIntegrationTest {
         assertThat(rejected.getStatus()).isEqualTo(BookingStatus.REJECTED);
     }
 
+    @Test
+    void approveAndApproveAll_shouldLockItemUntilTransactionEnd() {
+        BookingResponseDto single = bookingService.create(bookerId, BookingCreateDto.builder()
+                .itemId(itemId)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build());
+        BookingResponseDto bulk = bookingService.create(bookerId, BookingCreateDto.builder()
+                .itemId(itemId)
+                .start(LocalDateTime.now().plusDays(3))
+                .end(LocalDateTime.now().plusDays(4))
+                .build());
+        clearInvocations(bookingLockService);
+
+        bookingService.approve(ownerId, single.getId(), true);
+        bookingService.approveAll(ownerId, BookingBulkApproveDto.builder()
+                .decisions(List.of(decision(bulk.getId(), false)))
+                .build());
+
+        verify(bookingLockService).lockUntilTransactionEnd(itemId);
+        verify(bookingLockService).lockAllUntilTransactionEnd(List.of(itemId));
+    }
+
     @Test
     void approve_shouldThrowValidationException_whenBookingNotWaiting() {
         BookingCreateDto dto = BookingCreateDto.builder()
@@ -223,7 +279,7 @@ class BookingServiceImplIntegrationTest {
                 .build();
         bookingService.create(bookerId, dto1);
 
-        List<BookingResponseDto> bookings = bookingService.getAllByBooker(bookerId, BookingState.ALL);
+        List<BookingResponseDto> bookings = bookingService.getAllByBooker(bookerId, BookingState.ALL, 0, 10, null);
 
         assertThat(bookings).hasSize(1);
     }
@@ -237,7 +293,7 @@ class BookingServiceImplIntegrationTest {
                 .build();
         bookingService.create(bookerId, dto);
 
-        List<BookingResponseDto> bookings = bookingService.getAllByBooker(bookerId, BookingState.WAITING);
+        List<BookingResponseDto> bookings = bookingService.getAllByBooker(bookerId, BookingState.WAITING, 0, 10, null);
 
         assertThat(bookings).hasSize(1);
         assertThat(bookings.get(0).getStatus()).isEqualTo(BookingStatus.WAITING);
@@ -252,7 +308,7 @@ class BookingServiceImplIntegrationTest {
                 .build();
         bookingService.create(bookerId, dto);
 
-        List<BookingResponseDto> bookings = bookingService.getAllByOwner(ownerId, BookingState.ALL);
+        List<BookingResponseDto> bookings = bookingService.getAllByOwner(ownerId, BookingState.ALL, 0, 10, null);
 
         assertThat(bookings).hasSize(1);
         assertThat(bookings.get(0).getItem().getId()).isEqualTo(itemId);
@@ -265,8 +321,335 @@ class BookingServiceImplIntegrationTest {
                 .email("newowner@example.com")
                 .build());
 
-        List<BookingResponseDto> bookings = bookingService.getAllByOwner(newOwner.getId(), BookingState.ALL);
+        List<BookingResponseDto> bookings = bookingService.getAllByOwner(newOwner.getId(), BookingState.ALL, 0, 10, null);
 
         assertThat(bookings).isEmpty();
     }
+
+    @Test
+    void getAllByBooker_shouldPageByOffsetAndCursor() {
+        LocalDateTime base = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        BookingResponseDto first = bookingService.create(bookerId, BookingCreateDto.builder()
+                .itemId(itemId).start(base.plusDays(1)).end(base.plusDays(2)).build());
+        BookingResponseDto second = bookingService.create(bookerId, BookingCreateDto.builder()
+                .itemId(itemId).start(base.plusDays(3)).end(base.plusDays(4)).build());
+        BookingResponseDto third = bookingService.create(bookerId, BookingCreateDto.builder()
+                .itemId(itemId).start(base.plusDays(5)).end(base.plusDays(6)).build());
+
+        List<BookingResponseDto> firstPage = bookingService.getAllByBooker(bookerId, BookingState.ALL, 0, 2, null);
+        List<BookingResponseDto> secondPageByOffset = bookingService.getAllByBooker(
+                bookerId, BookingState.ALL, 2, 2, null);
+        String cursor = new BookingCursor(firstPage.getLast().getStart(), firstPage.getLast().getId()).encode();
+        List<BookingResponseDto> secondPageByCursor = bookingService.getAllByBooker(
+                bookerId, BookingState.FUTURE, 0, 2, cursor);
+
+        assertThat(firstPage).extracting(BookingResponseDto::getId)
+                .containsExactly(third.getId(), second.getId());
+        assertThat(secondPageByOffset).extracting(BookingResponseDto::getId)
+                .containsExactly(first.getId());
+        assertThat(secondPageByCursor).extracting(BookingResponseDto::getId)
+                .containsExactly(first.getId());
+    }
+
+    @Test
+    void getAllByBookerAndOwner_shouldStartPageAtUnalignedOffset() {
+        LocalDateTime base = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        List<Long> newestFirst = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            newestFirst.addFirst(bookingService.create(bookerId, BookingCreateDto.builder()
+                    .itemId(itemId).start(base.plusDays(2L * i + 1)).end(base.plusDays(2L * i + 2)).build()).getId());
+        }
+
+        // from=1 при size=2 - вторая и третья брони, а не первая страница
+        assertThat(bookingService.getAllByBooker(bookerId, BookingState.ALL, 1, 2, null))
+                .extracting(BookingResponseDto::getId)
+                .containsExactly(newestFirst.get(1), newestFirst.get(2));
+        assertThat(bookingService.getAllByOwner(ownerId, BookingState.FUTURE, 3, 2, null))
+                .extracting(BookingResponseDto::getId)
+                .containsExactly(newestFirst.get(3), newestFirst.get(4));
+        // Завершённые состояния сливаются с архивом и должны учитывать то же смещение
+        assertThat(bookingService.getAllByOwner(ownerId, BookingState.WAITING, 3, 10, null))
+                .extracting(BookingResponseDto::getId)
+                .containsExactly(newestFirst.get(3), newestFirst.get(4));
+    }
+
+    @Test
+    void getAllByOwner_shouldThrowValidationException_whenCursorIsMalformed() {
+        assertThatThrownBy(() -> bookingService.getAllByOwner(ownerId, BookingState.ALL, 0, 10, "not-a-cursor"))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("cursor");
+    }
+
+    @Test
+    void getAllByOwner_shouldThrowValidationException_whenSizeIsNotPositive() {
+        assertThatThrownBy(() -> bookingService.getAllByOwner(ownerId, BookingState.ALL, 0, 0, null))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void getAllByBookerAndOwner_shouldLoadPageWithSingleStatement() {
+        ItemDto secondItem = itemService.create(ownerId, ItemDto.builder()
+                .name("Saw")
+                .description("Hand saw")
+                .available(true)
+                .build());
+        UserDto secondBooker = userService.create(UserDto.builder()
+                .name("Second Booker")
+                .email("second@example.com")
+                .build());
+        bookingService.create(bookerId, BookingCreateDto.builder()
+                .itemId(itemId).start(LocalDateTime.now().plusDays(1)).end(LocalDateTime.now().plusDays(2)).build());
+        bookingService.create(bookerId, BookingCreateDto.builder()
+                .itemId(secondItem.getId()).start(LocalDateTime.now().plusDays(3)).end(LocalDateTime.now().plusDays(4))
+                .build());
+        bookingService.create(secondBooker.getId(), BookingCreateDto.builder()
+                .itemId(secondItem.getId()).start(LocalDateTime.now().plusDays(5)).end(LocalDateTime.now().plusDays(6))
+                .build());
+
+        // Сбрасываем контекст, чтобы вещи и пользователи не были уже загружены
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        for (BookingState state : BookingState.values()) {
+            statistics.clear();
+            List<BookingResponseDto> byBooker = bookingService.getAllByBooker(bookerId, state, 0, 10, null);
+            byBooker.forEach(booking -> assertThat(booking.getItem().getName()).isNotNull());
+            // проверка существования пользователя + страница ленты booker_timeline, где лежат и архивные брони
+            assertThat(statistics.getPrepareStatementCount()).as("booker %s", state).isEqualTo(2);
+            entityManager.clear();
+
+            statistics.clear();
+            List<BookingResponseDto> byOwner = bookingService.getAllByOwner(ownerId, state, 0, 10, null);
+            byOwner.forEach(booking -> assertThat(booking.getBooker().getName()).isNotNull());
+            // проверка существования пользователя + сама страница (с архивом через union all для завершённых состояний)
+            assertThat(statistics.getPrepareStatementCount()).as("owner %s", state).isEqualTo(2);
+            entityManager.clear();
+        }
+    }
+
+    @Test
+    void approve_shouldThrowConflictException_whenApprovedBookingOverlaps() {
+        UserDto secondBooker = userService.create(UserDto.builder()
+                .name("Second Booker")
+                .email("second@example.com")
+                .build());
+        BookingResponseDto first = bookingService.create(bookerId, BookingCreateDto.builder()
+                .itemId(itemId)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(3))
+                .build());
+        BookingResponseDto second = bookingService.create(secondBooker.getId(), BookingCreateDto.builder()
+                .itemId(itemId)
+                .start(LocalDateTime.now().plusDays(2))
+                .end(LocalDateTime.now().plusDays(4))
+                .build());
+        bookingService.approve(ownerId, first.getId(), true);
+
+        assertThatThrownBy(() -> bookingService.approve(ownerId, second.getId(), true))
+                .isInstanceOf(ConflictException.class)
+                .hasMessageContaining("already booked");
+        assertThat(bookingService.approve(ownerId, second.getId(), false).getStatus())
+                .isEqualTo(BookingStatus.REJECTED);
+    }
+
+    @Test
+    void create_shouldThrowConflictException_whenPeriodOverlapsApprovedBooking() {
+        BookingResponseDto approved = bookingService.create(bookerId, BookingCreateDto.builder()
+                .itemId(itemId)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(3))
+                .build());
+        bookingService.approve(ownerId, approved.getId(), true);
+
+        BookingCreateDto overlapping = BookingCreateDto.builder()
+                .itemId(itemId)
+                .start(LocalDateTime.now().plusDays(2))
+                .end(LocalDateTime.now().plusDays(5))
+                .build();
+        BookingCreateDto adjacent = BookingCreateDto.builder()
+                .itemId(itemId)
+                .start(LocalDateTime.now().plusDays(4))
+                .end(LocalDateTime.now().plusDays(5))
+                .build();
+
+        assertThatThrownBy(() -> bookingService.create(bookerId, overlapping))
+                .isInstanceOf(ConflictException.class);
+        assertThat(bookingService.create(bookerId, adjacent).getStatus()).isEqualTo(BookingStatus.WAITING);
+    }
+
+    @Test
+    void approve_shouldIncrementVersion() {
+        BookingResponseDto created = bookingService.create(bookerId, BookingCreateDto.builder()
+                .itemId(itemId)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build());
+        Long versionBefore = bookingRepository.findById(created.getId()).orElseThrow().getVersion();
+
+        bookingService.approve(ownerId, created.getId(), true);
+
+        Booking approved = bookingRepository.findById(created.getId()).orElseThrow();
+        assertThat(approved.getStatus()).isEqualTo(BookingStatus.APPROVED);
+        assertThat(approved.getVersion()).isEqualTo(versionBefore + 1);
+    }
+
+    @Test
+    void approve_shouldThrowConflictWithoutRetry_whenStatusChangedAfterRead() {
+        BookingResponseDto created = bookingService.create(bookerId, BookingCreateDto.builder()
+                .itemId(itemId)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build());
+        // Сущность в контексте остаётся WAITING со старой версией, как у вызова, прочитавшего её до решения
+        Booking stale = bookingRepository.findById(created.getId()).orElseThrow();
+        entityManager.createNativeQuery("update bookings set status = 'REJECTED', version = version + 1 where id = :id")
+                .setParameter("id", created.getId())
+                .executeUpdate();
+
+        assertThatThrownBy(() -> bookingService.approve(ownerId, created.getId(), true))
+                .isInstanceOf(ConflictException.class)
+                .hasMessageContaining("changed concurrently");
+
+        entityManager.clear();
+        Booking current = bookingRepository.findById(created.getId()).orElseThrow();
+        assertThat(current.getStatus()).isEqualTo(BookingStatus.REJECTED);
+        assertThat(current.getVersion()).isEqualTo(stale.getVersion() + 1);
+    }
+
+    @Test
+    void updateStatus_shouldNotUpdate_whenVersionIsStaleOrStatusChanged() {
+        BookingResponseDto created = bookingService.create(bookerId, BookingCreateDto.builder()
+                .itemId(itemId)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build());
+        Long version = bookingRepository.findById(created.getId()).orElseThrow().getVersion();
+
+        assertThat(bookingRepository.updateStatus(created.getId(), version + 1,
+                BookingStatus.WAITING, BookingStatus.APPROVED)).isZero();
+        assertThat(bookingRepository.updateStatus(created.getId(), version,
+                BookingStatus.REJECTED, BookingStatus.APPROVED)).isZero();
+        assertThat(bookingRepository.updateStatus(created.getId(), version,
+                BookingStatus.WAITING, BookingStatus.REJECTED)).isEqualTo(1);
+
+        // Второй параллельный вызов с той же прочитанной версией проигрывает
+        assertThat(bookingRepository.updateStatus(created.getId(), version,
+                BookingStatus.WAITING, BookingStatus.APPROVED)).isZero();
+        assertThat(bookingRepository.findById(created.getId()).orElseThrow().getStatus())
+                .isEqualTo(BookingStatus.REJECTED);
+    }
+
+    @Test
+    void approveAll_shouldApplyDecisionsAndReportFailuresPerBooking() {
+        BookingResponseDto toApprove = createBooking(1, 3);
+        BookingResponseDto overlapsInBatch = createBooking(2, 4);
+        BookingResponseDto toReject = createBooking(5, 6);
+        BookingResponseDto alreadyApproved = createBooking(7, 8);
+        bookingService.approve(ownerId, alreadyApproved.getId(), true);
+        UserDto stranger = userService.create(UserDto.builder()
+                .name("Stranger")
+                .email("stranger@example.com")
+                .build());
+        Long strangerItemId = itemService.create(stranger.getId(), ItemDto.builder()
+                .name("Saw")
+                .description("Hand saw")
+                .available(true)
+                .build()).getId();
+        BookingResponseDto foreign = bookingService.create(bookerId, BookingCreateDto.builder()
+                .itemId(strangerItemId)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build());
+
+        List<BookingDecisionResultDto> results = bookingService.approveAll(ownerId, BookingBulkApproveDto.builder()
+                .decisions(List.of(
+                        decision(toApprove.getId(), true),
+                        decision(overlapsInBatch.getId(), true),
+                        decision(toReject.getId(), false),
+                        decision(alreadyApproved.getId(), false),
+                        decision(foreign.getId(), true),
+                        decision(Long.MAX_VALUE, true)))
+                .build());
+
+        assertThat(results).extracting(BookingDecisionResultDto::getBookingId).containsExactly(
+                toApprove.getId(), overlapsInBatch.getId(), toReject.getId(),
+                alreadyApproved.getId(), foreign.getId(), Long.MAX_VALUE);
+        assertThat(results).extracting(BookingDecisionResultDto::isSuccess)
+                .containsExactly(true, false, true, false, false, false);
+        assertThat(results.get(1).getError()).contains("already booked");
+        assertThat(results.get(3).getStatus()).isEqualTo(BookingStatus.APPROVED);
+        assertThat(results.get(4).getError()).contains("Only item owner");
+        assertThat(results.get(5).getError()).contains("not found");
+
+        assertThat(bookingRepository.findById(toApprove.getId()).orElseThrow().getStatus())
+                .isEqualTo(BookingStatus.APPROVED);
+        assertThat(bookingRepository.findById(overlapsInBatch.getId()).orElseThrow().getStatus())
+                .isEqualTo(BookingStatus.WAITING);
+        assertThat(bookingRepository.findById(toReject.getId()).orElseThrow().getStatus())
+                .isEqualTo(BookingStatus.REJECTED);
+        assertThat(bookingRepository.findById(foreign.getId()).orElseThrow().getStatus())
+                .isEqualTo(BookingStatus.WAITING);
+    }
+
+    @Test
+    void approveAll_shouldThrowValidationException_whenDecisionsAreDuplicatedOrEmpty() {
+        BookingResponseDto booking = createBooking(1, 2);
+
+        assertThatThrownBy(() -> bookingService.approveAll(ownerId, BookingBulkApproveDto.builder()
+                .decisions(List.of(decision(booking.getId(), true), decision(booking.getId(), false)))
+                .build()))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("Duplicate");
+        assertThatThrownBy(() -> bookingService.approveAll(ownerId, BookingBulkApproveDto.builder()
+                .decisions(List.of())
+                .build()))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void getCounts_shouldCountEveryStateWithSingleAggregateStatement() {
+        BookingResponseDto past = bookingService.create(bookerId, BookingCreateDto.builder()
+                .itemId(itemId)
+                .start(LocalDateTime.now().minusDays(5))
+                .end(LocalDateTime.now().minusDays(4))
+                .build());
+        bookingService.approve(ownerId, past.getId(), true);
+        bookingService.create(bookerId, BookingCreateDto.builder()
+                .itemId(itemId)
+                .start(LocalDateTime.now().minusDays(1))
+                .end(LocalDateTime.now().plusDays(1))
+                .build());
+        BookingResponseDto rejected = createBooking(2, 3);
+        bookingService.approve(ownerId, rejected.getId(), false);
+        createBooking(4, 5);
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        BookingCountsDto byBooker = bookingService.getCountsByBooker(bookerId);
+        // проверка существования пользователя + один агрегирующий запрос
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(1);
+
+        assertThat(byBooker).isEqualTo(new BookingCountsDto(4, 1, 1, 2, 2, 1));
+        assertThat(bookingService.getCountsByOwner(ownerId)).isEqualTo(byBooker);
+        assertThat(bookingService.getCountsByOwner(bookerId)).isEqualTo(new BookingCountsDto());
+    }
+
+    private BookingResponseDto createBooking(int startInDays, int endInDays) {
+        return bookingService.create(bookerId, BookingCreateDto.builder()
+                .itemId(itemId)
+                .start(LocalDateTime.now().plusDays(startInDays))
+                .end(LocalDateTime.now().plusDays(endInDays))
+                .build());
+    }
+
+    private static BookingDecisionDto decision(Long bookingId, boolean approved) {
+        return BookingDecisionDto.builder()
+                .bookingId(bookingId)
+                .approved(approved)
+                .build();
+    }
 }
@@ -0,0 +1,73 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long START_MS = 1_000_000;
+
+    @Test
+    void advance_shouldFireTimerNotBeforeDeadline() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 3, START_MS);
+        wheel.schedule(START_MS + 25, "a");
+
+        assertThat(wheel.advance(START_MS + 20)).isEmpty();
+        assertThat(wheel.advance(START_MS + 29)).isEmpty();
+        assertThat(wheel.advance(START_MS + 30)).containsExactly("a");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void advance_shouldCascadeTimersFromUpperLevelsAndOverflow() {
+        // 8 ячеек по 10 мс на 2 уровнях: уровень 0 - до 80 мс, уровень 1 - до 640 мс, дальше - список переполнения
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(10, 8, 2, START_MS);
+        long[] delays = {10, 70, 80, 150, 630, 640, 2_000, 5_130};
+        for (long delay : delays) {
+            wheel.schedule(START_MS + delay, delay);
+        }
+
+        List<Long> fired = new ArrayList<>();
+        for (long now = START_MS; now <= START_MS + 6_000; now += 10) {
+            for (Long delay : wheel.advance(now)) {
+                // Каждый таймер срабатывает ровно на своём тике
+                assertThat(now - START_MS).isEqualTo(delay);
+                fired.add(delay);
+            }
+        }
+
+        assertThat(fired).containsExactly(10L, 70L, 80L, 150L, 630L, 640L, 2_000L, 5_130L);
+    }
+
+    @Test
+    void advance_shouldFireOverdueTimersAfterLargeJump() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 4, 2, START_MS);
+        wheel.schedule(START_MS + 50, "near");
+        wheel.schedule(START_MS + 10_000, "far");
+        wheel.schedule(START_MS + 100_000, "later");
+
+        assertThat(wheel.advance(START_MS + 50_000)).containsExactly("near", "far");
+        assertThat(wheel.advance(START_MS + 99_990)).isEmpty();
+        assertThat(wheel.advance(START_MS + 100_000)).containsExactly("later");
+    }
+
+    @Test
+    void schedule_shouldFirePastDeadlineOnNextAdvance() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 2, START_MS);
+        wheel.schedule(START_MS - 1_000, "overdue");
+
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advance(START_MS)).containsExactly("overdue");
+    }
+
+    @Test
+    void constructor_shouldRejectWheelSizeNotPowerOfTwo() {
+        assertThatThrownBy(() -> new HierarchicalTimingWheel<String>(10, 6, 2, START_MS))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
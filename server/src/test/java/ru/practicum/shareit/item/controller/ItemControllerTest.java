@@ -11,6 +11,9 @@ import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityCheckDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityStatusDto;
 import ru.practicum.shareit.item.dto.ItemDetailDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
@@ -251,4 +254,55 @@ class ItemControllerTest {
                         .content(objectMapper.writeValueAsString(inputDto)))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    void getAvailability_shouldPassPeriodAndReturnIntervals() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 1, 8, 0, 0, 0);
+        ItemAvailabilityDto outputDto = ItemAvailabilityDto.builder()
+                .itemId(1L)
+                .from(from)
+                .to(to)
+                .free(List.of(new ItemAvailabilityDto.PeriodDto(from.plusDays(2), to)))
+                .occupied(List.of(new ItemAvailabilityDto.PeriodDto(from, from.plusDays(2))))
+                .build();
+
+        when(itemService.getAvailability(1L, from, to, true)).thenReturn(outputDto);
+
+        mockMvc.perform(get("/items/1/availability")
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-01-08T00:00:00")
+                        .param("includeWaiting", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemId").value(1))
+                .andExpect(jsonPath("$.occupied[0].start").value("2030-01-01T00:00:00"))
+                .andExpect(jsonPath("$.occupied[0].end").value("2030-01-03T00:00:00"))
+                .andExpect(jsonPath("$.free[0].end").value("2030-01-08T00:00:00"));
+
+        verify(itemService).getAvailability(1L, from, to, true);
+    }
+
+    @Test
+    void checkAvailability_shouldReturnFlagPerItem() throws Exception {
+        ItemAvailabilityCheckDto inputDto = ItemAvailabilityCheckDto.builder()
+                .itemIds(List.of(1L, 2L))
+                .from(LocalDateTime.of(2030, 1, 1, 0, 0, 0))
+                .to(LocalDateTime.of(2030, 1, 8, 0, 0, 0))
+                .build();
+
+        when(itemService.checkAvailability(any(ItemAvailabilityCheckDto.class))).thenReturn(List.of(
+                new ItemAvailabilityStatusDto(1L, true),
+                new ItemAvailabilityStatusDto(2L, false)));
+
+        mockMvc.perform(post("/items/availability")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(inputDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].itemId").value(1))
+                .andExpect(jsonPath("$[0].free").value(true))
+                .andExpect(jsonPath("$[1].free").value(false));
+
+        verify(itemService).checkAvailability(any(ItemAvailabilityCheckDto.class));
+    }
 }
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FullTextItemSearchEngineTest {
+
+    @Test
+    void toPrefixQuery_shouldJoinWordsAsPrefixes() {
+        assertThat(FullTextItemSearchEngine.toPrefixQuery("Power Drill"))
+                .isEqualTo("power:* & drill:*");
+    }
+
+    @Test
+    void toPrefixQuery_shouldDropTsqueryOperators() {
+        assertThat(FullTextItemSearchEngine.toPrefixQuery("drill & !saw | (hammer):*"))
+                .isEqualTo("drill:* & saw:* & hammer:*");
+    }
+
+    @Test
+    void toPrefixQuery_shouldReturnEmpty_whenNoWords() {
+        assertThat(FullTextItemSearchEngine.toPrefixQuery(" &|! ")).isEmpty();
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex();
+        index.put(item(1L, "Drill", "Power drill for drilling"), true);
+        index.put(item(2L, "Saw", "Hand saw"), true);
+        index.put(item(3L, "Hammer", "Heavy hammer"), true);
+    }
+
+    @Test
+    void search_shouldFindSubstringIgnoringCase() {
+        assertThat(ids(index.search("RILL"))).containsExactly(1L);
+        assertThat(ids(index.search("hand s"))).containsExactly(2L);
+    }
+
+    @Test
+    void search_shouldScanAllItems_whenQueryShorterThanTrigram() {
+        assertThat(ids(index.search("sa"))).containsExactly(2L);
+        assertThat(ids(index.search("h"))).containsExactlyInAnyOrder(2L, 3L);
+    }
+
+    @Test
+    void search_shouldNotReturnFalsePositives_whenAllTrigramsPresentSeparately() {
+        index.put(item(4L, "abcd", "xbcdy"), true);
+
+        // все триграммы "abcdy" есть у вещи 4, но самой подстроки нет
+        assertThat(index.search("abcdy")).isEmpty();
+    }
+
+    @Test
+    void put_shouldReplaceIndexedText_whenItemUpdated() {
+        index.put(item(1L, "Screwdriver", "Cordless"), true);
+
+        assertThat(index.search("drill")).isEmpty();
+        assertThat(ids(index.search("cordless"))).containsExactly(1L);
+    }
+
+    @Test
+    void put_shouldRemoveItem_whenItemBecomesUnavailable() {
+        index.put(item(2L, "Saw", "Hand saw"), false);
+
+        assertThat(index.search("saw")).isEmpty();
+        assertThat(index.stats().items()).isEqualTo(2);
+    }
+
+    @Test
+    void remove_shouldDropItemAndReuseDocumentSlot() {
+        index.remove(3L);
+        index.put(item(5L, "Ladder", "Folding ladder"), true);
+
+        assertThat(index.search("hammer")).isEmpty();
+        assertThat(ids(index.search("ladder"))).containsExactly(5L);
+        assertThat(index.stats().items()).isEqualTo(3);
+    }
+
+    @Test
+    void stats_shouldReportSizes() {
+        TrigramIndex.Stats stats = index.stats();
+
+        assertThat(stats.items()).isEqualTo(3);
+        assertThat(stats.grams()).isPositive();
+        assertThat(stats.postings()).isGreaterThanOrEqualTo(stats.grams());
+        assertThat(stats.estimatedBytes()).isPositive();
+    }
+
+    private static TrigramIndex.IndexedItem item(long id, String name, String description) {
+        return new TrigramIndex.IndexedItem(id, name, description, 10L, null);
+    }
+
+    private static List<Long> ids(List<TrigramIndex.IndexedItem> items) {
+        return items.stream()
+                .map(TrigramIndex.IndexedItem::id)
+                .toList();
+    }
+}
@@ -0,0 +1,75 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.repository.BookingPeriod;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto.PeriodDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AvailabilityCalendarTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private static final LocalDateTime TO = FROM.plusDays(10);
+
+    @Test
+    void build_shouldReturnWholePeriodAsFree_whenNoBookings() {
+        ItemAvailabilityDto calendar = AvailabilityCalendar.build(1L, FROM, TO, List.of());
+
+        assertThat(calendar.getOccupied()).isEmpty();
+        assertThat(calendar.getFree()).containsExactly(new PeriodDto(FROM, TO));
+    }
+
+    @Test
+    void build_shouldMergeOverlappingAndAdjacentPeriods() {
+        ItemAvailabilityDto calendar = AvailabilityCalendar.build(1L, FROM, TO, List.of(
+                period(1, 3),
+                period(2, 4),
+                period(4, 5),
+                period(7, 8)));
+
+        assertThat(calendar.getOccupied()).containsExactly(
+                new PeriodDto(day(1), day(5)),
+                new PeriodDto(day(7), day(8)));
+        assertThat(calendar.getFree()).containsExactly(
+                new PeriodDto(FROM, day(1)),
+                new PeriodDto(day(5), day(7)),
+                new PeriodDto(day(8), TO));
+    }
+
+    @Test
+    void build_shouldClipPeriodsToRequestedRange() {
+        ItemAvailabilityDto calendar = AvailabilityCalendar.build(1L, FROM, TO, List.of(
+                period(-2, 1),
+                period(2, 3),
+                period(9, 12)));
+
+        assertThat(calendar.getOccupied()).containsExactly(
+                new PeriodDto(FROM, day(1)),
+                new PeriodDto(day(2), day(3)),
+                new PeriodDto(day(9), TO));
+        assertThat(calendar.getFree()).containsExactly(
+                new PeriodDto(day(1), day(2)),
+                new PeriodDto(day(3), day(9)));
+    }
+
+    @Test
+    void build_shouldNotSplitMergedInterval_whenLaterPeriodEndsEarlier() {
+        ItemAvailabilityDto calendar = AvailabilityCalendar.build(1L, FROM, TO, List.of(
+                period(1, 6),
+                period(2, 3)));
+
+        assertThat(calendar.getOccupied()).containsExactly(new PeriodDto(day(1), day(6)));
+    }
+
+    private static BookingPeriod period(int startDay, int endDay) {
+        return new BookingPeriod(day(startDay), day(endDay));
+    }
+
+    private static LocalDateTime day(int day) {
+        return FROM.plusDays(day);
+    }
+}
@@ -13,6 +13,10 @@ import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityCheckDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto.PeriodDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityStatusDto;
 import ru.practicum.shareit.item.dto.ItemDetailDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
@@ -306,4 +310,204 @@ class ItemServiceImplIntegrationTest {
         assertThat(items).extracting(ItemWithBookingsDto::getName)
                 .containsExactlyInAnyOrder("Drill", "Saw");
     }
+
+    @Test
+    void getByOwnerIdWithBookings_shouldResolveLastAndNextBookingsPerItem() {
+        ItemDto drillDto = itemService.create(ownerId, ItemDto.builder()
+                .name("Drill")
+                .description("Power drill")
+                .available(true)
+                .build());
+        ItemDto sawDto = itemService.create(ownerId, ItemDto.builder()
+                .name("Saw")
+                .description("Hand saw")
+                .available(true)
+                .build());
+
+        User booker = userRepository.findById(otherUserId).orElseThrow();
+        Item drill = itemRepository.findById(drillDto.getId()).orElseThrow();
+        Item saw = itemRepository.findById(sawDto.getId()).orElseThrow();
+        LocalDateTime now = LocalDateTime.now();
+
+        Booking olderPast = bookingRepository.save(Booking.builder()
+                .item(drill).booker(booker)
+                .start(now.minusDays(5)).end(now.minusDays(4))
+                .status(BookingStatus.APPROVED)
+                .build());
+        Booking latestPast = bookingRepository.save(Booking.builder()
+                .item(drill).booker(booker)
+                .start(now.minusDays(2)).end(now.minusDays(1))
+                .status(BookingStatus.APPROVED)
+                .build());
+        Booking next = bookingRepository.save(Booking.builder()
+                .item(drill).booker(booker)
+                .start(now.plusDays(1)).end(now.plusDays(2))
+                .status(BookingStatus.APPROVED)
+                .build());
+        bookingRepository.save(Booking.builder()
+                .item(drill).booker(booker)
+                .start(now.plusDays(3)).end(now.plusDays(4))
+                .status(BookingStatus.APPROVED)
+                .build());
+        bookingRepository.save(Booking.builder()
+                .item(saw).booker(booker)
+                .start(now.plusHours(1)).end(now.plusHours(2))
+                .status(BookingStatus.WAITING)
+                .build());
+
+        List<ItemWithBookingsDto> items = itemService.getByOwnerIdWithBookings(ownerId);
+
+        ItemWithBookingsDto drillResult = items.stream()
+                .filter(item -> item.getId().equals(drill.getId()))
+                .findFirst()
+                .orElseThrow();
+        ItemWithBookingsDto sawResult = items.stream()
+                .filter(item -> item.getId().equals(saw.getId()))
+                .findFirst()
+                .orElseThrow();
+
+        assertThat(drillResult.getLastBooking().getId()).isEqualTo(latestPast.getId());
+        assertThat(drillResult.getLastBooking().getId()).isNotEqualTo(olderPast.getId());
+        assertThat(drillResult.getNextBooking().getId()).isEqualTo(next.getId());
+        assertThat(sawResult.getLastBooking()).isNull();
+        assertThat(sawResult.getNextBooking()).isNull();
+    }
+
+    @Test
+    void getByOwnerIdWithBookings_shouldReturnEmptyList_whenOwnerHasNoItems() {
+        List<ItemWithBookingsDto> items = itemService.getByOwnerIdWithBookings(otherUserId);
+
+        assertThat(items).isEmpty();
+    }
+
+    @Test
+    void getAvailability_shouldReturnFreeAndOccupiedIntervals() {
+        ItemDto drill = itemService.create(ownerId, ItemDto.builder()
+                .name("Drill")
+                .description("Power drill")
+                .available(true)
+                .build());
+        Item item = itemRepository.findById(drill.getId()).orElseThrow();
+        User booker = userRepository.findById(otherUserId).orElseThrow();
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        bookingRepository.save(Booking.builder()
+                .item(item).booker(booker)
+                .start(from.plusDays(1)).end(from.plusDays(2))
+                .status(BookingStatus.APPROVED)
+                .build());
+        bookingRepository.save(Booking.builder()
+                .item(item).booker(booker)
+                .start(from.plusDays(2)).end(from.plusDays(3))
+                .status(BookingStatus.WAITING)
+                .build());
+        bookingRepository.save(Booking.builder()
+                .item(item).booker(booker)
+                .start(from.plusDays(4)).end(from.plusDays(5))
+                .status(BookingStatus.REJECTED)
+                .build());
+
+        ItemAvailabilityDto approvedOnly = itemService.getAvailability(drill.getId(), from, from.plusDays(7), false);
+        ItemAvailabilityDto withWaiting = itemService.getAvailability(drill.getId(), from, from.plusDays(7), true);
+
+        assertThat(approvedOnly.getOccupied()).containsExactly(new PeriodDto(from.plusDays(1), from.plusDays(2)));
+        assertThat(approvedOnly.getFree()).containsExactly(
+                new PeriodDto(from, from.plusDays(1)),
+                new PeriodDto(from.plusDays(2), from.plusDays(7)));
+        assertThat(withWaiting.getOccupied()).containsExactly(new PeriodDto(from.plusDays(1), from.plusDays(3)));
+    }
+
+    @Test
+    void getAvailability_shouldValidatePeriodAndItem() {
+        ItemDto drill = itemService.create(ownerId, ItemDto.builder()
+                .name("Drill")
+                .description("Power drill")
+                .available(true)
+                .build());
+        LocalDateTime from = LocalDateTime.now();
+
+        assertThatThrownBy(() -> itemService.getAvailability(drill.getId(), from, from.minusDays(1), false))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> itemService.getAvailability(drill.getId(), from, from.plusYears(2), false))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> itemService.getAvailability(Long.MAX_VALUE, null, null, false))
+                .isInstanceOf(NotFoundException.class);
+        assertThat(itemService.getAvailability(drill.getId(), null, null, false).getFree()).hasSize(1);
+    }
+
+    @Test
+    void checkAvailability_shouldReturnFlagPerItemInRequestOrder() {
+        ItemDto drill = itemService.create(ownerId, ItemDto.builder()
+                .name("Drill")
+                .description("Power drill")
+                .available(true)
+                .build());
+        ItemDto saw = itemService.create(ownerId, ItemDto.builder()
+                .name("Saw")
+                .description("Hand saw")
+                .available(true)
+                .build());
+        ItemDto hammer = itemService.create(ownerId, ItemDto.builder()
+                .name("Hammer")
+                .description("Heavy hammer")
+                .available(true)
+                .build());
+        User booker = userRepository.findById(otherUserId).orElseThrow();
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        bookingRepository.save(Booking.builder()
+                .item(itemRepository.findById(drill.getId()).orElseThrow()).booker(booker)
+                .start(from.plusDays(1)).end(from.plusDays(2))
+                .status(BookingStatus.APPROVED)
+                .build());
+        bookingRepository.save(Booking.builder()
+                .item(itemRepository.findById(saw.getId()).orElseThrow()).booker(booker)
+                .start(from.plusDays(1)).end(from.plusDays(2))
+                .status(BookingStatus.WAITING)
+                .build());
+        // Заканчивается ровно в начале периода - не пересекается с ним
+        bookingRepository.save(Booking.builder()
+                .item(itemRepository.findById(hammer.getId()).orElseThrow()).booker(booker)
+                .start(from.minusDays(1)).end(from)
+                .status(BookingStatus.APPROVED)
+                .build());
+
+        ItemAvailabilityCheckDto checkDto = ItemAvailabilityCheckDto.builder()
+                .itemIds(List.of(hammer.getId(), drill.getId(), saw.getId(), drill.getId()))
+                .from(from)
+                .to(from.plusDays(7))
+                .build();
+
+        assertThat(itemService.checkAvailability(checkDto)).containsExactly(
+                new ItemAvailabilityStatusDto(hammer.getId(), true),
+                new ItemAvailabilityStatusDto(drill.getId(), false),
+                new ItemAvailabilityStatusDto(saw.getId(), true));
+
+        checkDto.setIncludeWaiting(true);
+        assertThat(itemService.checkAvailability(checkDto))
+                .extracting(ItemAvailabilityStatusDto::isFree)
+                .containsExactly(true, false, false);
+    }
+
+    @Test
+    void checkAvailability_shouldThrowNotFound_whenAnyItemMissing() {
+        ItemDto drill = itemService.create(ownerId, ItemDto.builder()
+                .name("Drill")
+                .description("Power drill")
+                .available(true)
+                .build());
+        LocalDateTime from = LocalDateTime.now();
+
+        assertThatThrownBy(() -> itemService.checkAvailability(ItemAvailabilityCheckDto.builder()
+                .itemIds(List.of(drill.getId(), Long.MAX_VALUE))
+                .from(from)
+                .to(from.plusDays(1))
+                .build()))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessageContaining(String.valueOf(Long.MAX_VALUE));
+        assertThatThrownBy(() -> itemService.checkAvailability(ItemAvailabilityCheckDto.builder()
+                .itemIds(List.of(drill.getId()))
+                .from(from)
+                .to(from)
+                .build()))
+                .isInstanceOf(ValidationException.class);
+    }
 }
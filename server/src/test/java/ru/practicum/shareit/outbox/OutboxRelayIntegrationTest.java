@@ -0,0 +1,133 @@
+package ru.practicum.shareit.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class OutboxRelayIntegrationTest {
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private DomainEventSubscriber subscriber;
+
+    private Long itemId;
+    private Long bookingId;
+
+    @BeforeEach
+    void setUp() {
+        Long ownerId = userService.create(UserDto.builder()
+                .name("Owner")
+                .email("owner@example.com")
+                .build()).getId();
+        Long bookerId = userService.create(UserDto.builder()
+                .name("Booker")
+                .email("booker@example.com")
+                .build()).getId();
+        itemId = itemService.create(ownerId, ItemDto.builder()
+                .name("Drill")
+                .description("Power drill")
+                .available(true)
+                .build()).getId();
+        BookingResponseDto booking = bookingService.create(bookerId, BookingCreateDto.builder()
+                .itemId(itemId)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build());
+        bookingId = booking.getId();
+        bookingService.approve(ownerId, bookingId, true);
+    }
+
+    @Test
+    void services_shouldWriteEventsInSameTransaction() {
+        List<OutboxEvent> events = outboxRepository.findAll();
+
+        assertThat(events).extracting(OutboxEvent::getEventType).containsExactly(
+                DomainEventType.ITEM_CREATED, DomainEventType.BOOKING_CREATED, DomainEventType.BOOKING_APPROVED);
+        assertThat(events).allMatch(event -> event.getPublishedAt() == null);
+        assertThat(events.get(2).getAggregateId()).isEqualTo(bookingId);
+        assertThat(events.get(2).getPayload()).contains("\"status\":\"APPROVED\"");
+    }
+
+    @Test
+    void relay_shouldDeliverEventsInOrderAndMarkPublished() {
+        int published = outboxRelay.relay();
+        outboxRelay.refreshMetrics();
+
+        assertThat(published).isEqualTo(3);
+        ArgumentCaptor<DomainEvent> captor = ArgumentCaptor.forClass(DomainEvent.class);
+        verify(subscriber, times(3)).onEvent(captor.capture());
+        assertThat(captor.getAllValues()).extracting(DomainEvent::aggregateId)
+                .containsExactly(itemId, bookingId, bookingId);
+        assertThat(outboxRepository.countByPublishedAtIsNull()).isZero();
+        assertThat(meterRegistry.get("shareit.outbox.backlog").gauge().value()).isZero();
+        assertThat(outboxRelay.relay()).isZero();
+    }
+
+    @Test
+    void relay_shouldStopAtFailedEventAndRetryItLater() {
+        doThrow(new IllegalStateException("subscriber down")).when(subscriber).onEvent(any());
+
+        assertThat(outboxRelay.relay()).isZero();
+        outboxRelay.refreshMetrics();
+
+        OutboxEvent first = outboxRepository.findAll().getFirst();
+        assertThat(first.getAttempts()).isEqualTo(1);
+        assertThat(first.getLastError()).contains("subscriber down");
+        assertThat(meterRegistry.get("shareit.outbox.backlog").gauge().value()).isEqualTo(3);
+
+        doNothing().when(subscriber).onEvent(any());
+        assertThat(outboxRelay.relay()).isEqualTo(3);
+    }
+
+    @Test
+    void cleanup_shouldDeleteOnlyOldPublishedEvents() {
+        outboxRelay.relay();
+
+        assertThat(outboxRelay.cleanup(LocalDateTime.now())).isZero();
+        assertThat(outboxRelay.cleanup(LocalDateTime.now().plusDays(2))).isEqualTo(3);
+        assertThat(outboxRepository.count()).isZero();
+    }
+}